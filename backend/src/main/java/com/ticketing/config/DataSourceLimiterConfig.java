@@ -0,0 +1,39 @@
+package com.ticketing.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts a {@link ConcurrencyLimitedDataSource} in front of the connection pool
+ * when ticketing.datasource.limiter.enabled is set, as in the virtual-threads
+ * profile
+ */
+@Configuration
+@ConditionalOnProperty(name = "ticketing.datasource.limiter.enabled", havingValue = "true")
+@Slf4j
+public class DataSourceLimiterConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceLimiter(Environment environment) {
+        int maxConcurrency = environment.getProperty("ticketing.datasource.limiter.max-concurrency", Integer.class, 20);
+        long acquireTimeoutMillis = environment.getProperty(
+                "ticketing.datasource.limiter.acquire-timeout-millis", Long.class, 3000L);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    log.info("Limiting data source '{}' to {} concurrent connections", beanName, maxConcurrency);
+                    return new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, acquireTimeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
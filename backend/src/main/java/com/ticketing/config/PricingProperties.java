@@ -0,0 +1,56 @@
+package com.ticketing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Price curves under ticketing.pricing; events without an entry of their own
+ * use ticketing.pricing.defaults
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticketing.pricing")
+public class PricingProperties {
+
+    private Curve defaults = new Curve();
+
+    private Map<Long, Curve> events = new HashMap<>();
+
+    public Curve curveFor(Long eventId) {
+        return events.getOrDefault(eventId, defaults);
+    }
+
+    @Data
+    public static class Curve {
+
+        // tiered, demand, or the bean name of a custom PricingStrategy
+        private String strategy = "tiered";
+
+        // Tiered: "upToPosition:price", ending with "*:price" for the remaining positions
+        private List<String> tiers = new ArrayList<>(List.of("50:50.00", "80:75.00", "*:100.00"));
+
+        // Demand: rises from base to max price as the share of sold seats grows
+        private BigDecimal basePrice = new BigDecimal("50.00");
+        private BigDecimal maxPrice = new BigDecimal("150.00");
+        private double exponent = 2.0;
+        private BigDecimal priceStep = new BigDecimal("0.50");
+
+        // Time: percentage applied to the curve from a given time after the event was created
+        private List<TimeStep> timeSteps = new ArrayList<>();
+    }
+
+    @Data
+    public static class TimeStep {
+
+        private Duration after = Duration.ZERO;
+        private int percent = 100;
+    }
+}
@@ -0,0 +1,157 @@
+package com.ticketing.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Latency and payload size of seat map responses, by representation.
+ *
+ * Bytes are counted as they are written, after compression by the controller
+ * but before any compression by the server, so the sizes are what the
+ * application produced. Streams are not measured; they never finish.
+ */
+@Component
+public class SeatMapMetricsFilter extends OncePerRequestFilter {
+
+    private static final Pattern SEAT_MAP_PATH = Pattern.compile("/api/(events/\\d+/)?seats");
+
+    private enum Representation {
+        JSON, PACKED, NOT_MODIFIED, ERROR
+    }
+
+    private final Map<Representation, Timer> latency = new EnumMap<>(Representation.class);
+    private final Map<Representation, DistributionSummary> size = new EnumMap<>(Representation.class);
+
+    public SeatMapMetricsFilter(MeterRegistry registry) {
+        for (Representation representation : Representation.values()) {
+            String tag = representation.name().toLowerCase().replace('_', '-');
+            latency.put(representation, Timer.builder("ticketing.seats.response")
+                    .description("Time to produce a seat map response")
+                    .tag("representation", tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+            size.put(representation, DistributionSummary.builder("ticketing.seats.response.size")
+                    .description("Bytes written for a seat map response")
+                    .baseUnit("bytes")
+                    .tag("representation", tag)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(64.0)
+                    .maximumExpectedValue(64.0 * 1024 * 1024)
+                    .register(registry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !SEAT_MAP_PATH.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        CountingResponse counting = new CountingResponse(response);
+        try {
+            chain.doFilter(request, counting);
+        } finally {
+            Representation representation = representationOf(counting);
+            latency.get(representation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            size.get(representation).record(counting.bytesWritten());
+        }
+    }
+
+    private static Representation representationOf(HttpServletResponse response) {
+        if (response.getStatus() == HttpStatus.NOT_MODIFIED.value()) {
+            return Representation.NOT_MODIFIED;
+        }
+        if (response.getStatus() >= 400) {
+            return Representation.ERROR;
+        }
+        String contentType = response.getContentType();
+        return contentType != null && contentType.contains("json") ? Representation.JSON : Representation.PACKED;
+    }
+
+    /**
+     * Counts the bytes written through the output stream, which is what the
+     * message converters use
+     */
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+
+        private CountingOutputStream outputStream;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        long bytesWritten() {
+            return outputStream == null ? 0 : outputStream.count;
+        }
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private long count;
+
+        CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
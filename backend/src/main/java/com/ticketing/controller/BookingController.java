@@ -0,0 +1,124 @@
+package com.ticketing.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ticketing.dto.BookingHistoryResponse;
+import com.ticketing.dto.BulkBookingItem;
+import com.ticketing.dto.BulkBookingResult;
+import com.ticketing.dto.BulkCancellationRequest;
+import com.ticketing.dto.BulkCancellationResponse;
+import com.ticketing.dto.CancellationResponse;
+import com.ticketing.service.BookingHistoryService;
+import com.ticketing.service.BulkBookingService;
+import com.ticketing.service.CancellationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+@Tag(name = "Bookings", description = "APIs for looking up, bulk booking and cancelling bookings")
+public class BookingController {
+
+    private final CancellationService cancellationService;
+    private final BookingHistoryService bookingHistoryService;
+    private final BulkBookingService bulkBookingService;
+    private final ObjectMapper objectMapper;
+
+    @Operation(summary = "Get User Bookings", description = "Returns a page of a user's bookings with their seats, newest first. Pass the nextCursor of a page as cursor to get the next one; it is null on the last page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of bookings", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BookingHistoryResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page size", content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/users/{userName}/bookings")
+    public ResponseEntity<BookingHistoryResponse> getUserBookings(@PathVariable String userName,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(bookingHistoryService.getBookings(userName, cursor, size));
+    }
+
+    @Operation(summary = "Cancel Booking", description = "Cancels a confirmed booking. Its seats become AVAILABLE again and are sold at the next seat positions; the response carries the amount to refund.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Booking cancelled", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CancellationResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Booking not found", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "409", description = "Conflict - The booking is not confirmed (already cancelled, or a pending hold)", content = @Content(mediaType = "application/json"))
+    })
+    @DeleteMapping("/bookings/{bookingId}")
+    public ResponseEntity<CancellationResponse> cancelBooking(@PathVariable Long bookingId) {
+        log.debug("Received request to cancel booking {}", bookingId);
+        return ResponseEntity.ok(cancellationService.cancelBooking(bookingId));
+    }
+
+    @Operation(summary = "Bulk Book Seats", description = "Books seats for group and partner sales. The body is NDJSON with one booking per line. Lines are booked in chunks of up to ticketing.bulk-booking.chunk-seats seats, one transaction each, and one result line per booking line is streamed back as each chunk commits. Lines in a failed chunk are reported as failed and can be resubmitted.")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = BulkBookingItem.class)))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "One result per line: confirmed, pending, conflict, invalid or failed", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = BulkBookingResult.class))),
+            @ApiResponse(responseCode = "404", description = "Event not found", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping(value = "/events/{eventId}/bookings/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void bookInBulk(@PathVariable Long eventId, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        log.debug("Received bulk booking request for event {}", eventId);
+        Reader lines = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+        OutputStream out = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        bulkBookingService.book(eventId, lines, results -> {
+            // Flushed per chunk so callers see results while later lines are still being booked
+            try {
+                for (BulkBookingResult result : results) {
+                    out.write(writer.writeValueAsBytes(result));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Operation(summary = "Cancel Bookings", description = "Cancels many confirmed bookings, in chunks of ticketing.cancellation.batch-size with one transaction each. Unknown and unconfirmed bookings are skipped; bookings in a failed chunk are counted as failed and can be resubmitted.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cancellation summary", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkCancellationResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request (missing booking IDs)", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping("/bookings/cancellations")
+    public ResponseEntity<BulkCancellationResponse> cancelBookings(@Valid @RequestBody BulkCancellationRequest request) {
+        log.debug("Received request to cancel {} bookings", request.getBookingIds().size());
+        return ResponseEntity.ok(cancellationService.cancelBookings(request.getBookingIds()));
+    }
+
+    @Operation(summary = "Cancel Event Bookings", description = "Cancels every confirmed booking of an event, for example when it is called off, releasing all of its sold seats.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cancellation summary", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkCancellationResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Event not found", content = @Content(mediaType = "application/json"))
+    })
+    @DeleteMapping("/events/{eventId}/bookings")
+    public ResponseEntity<BulkCancellationResponse> cancelEventBookings(@PathVariable Long eventId) {
+        log.debug("Received request to cancel all bookings of event {}", eventId);
+        return ResponseEntity.ok(cancellationService.cancelEventBookings(eventId));
+    }
+}
@@ -0,0 +1,45 @@
+package com.ticketing.controller;
+
+import com.ticketing.dto.SlowBooking;
+import com.ticketing.service.SlowBookingLog;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@Tag(name = "Diagnostics", description = "APIs for investigating slow requests")
+public class DiagnosticsController {
+
+    private final SlowBookingLog slowBookingLog;
+
+    @Operation(summary = "Slowest Bookings", description = "Returns the slowest booking attempts since startup or the last reset, slowest first, with the time spent in each phase")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Slow bookings retrieved", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = SlowBooking.class))))
+    })
+    @GetMapping("/slow-bookings")
+    public ResponseEntity<List<SlowBooking>> getSlowBookings() {
+        return ResponseEntity.ok(slowBookingLog.slowest());
+    }
+
+    @Operation(summary = "Reset Slowest Bookings", description = "Forgets the recorded slow bookings, e.g. before a load test")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Slow bookings cleared")
+    })
+    @DeleteMapping("/slow-bookings")
+    public ResponseEntity<Void> clearSlowBookings() {
+        slowBookingLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,8 +2,19 @@ package com.ticketing.controller;
 
 import com.ticketing.dto.BookingRequest;
 import com.ticketing.dto.BookingResponse;
+import com.ticketing.dto.CreateEventRequest;
+import com.ticketing.dto.SeatChangesResponse;
+import com.ticketing.dto.SeatState;
+import com.ticketing.model.Event;
 import com.ticketing.model.Seat;
 import com.ticketing.service.EventService;
+import com.ticketing.service.IdempotencyService;
+import com.ticketing.service.SeatMapBroadcaster;
+import com.ticketing.service.SeatMapCache;
+import com.ticketing.service.SeatMapRenderer;
+import com.ticketing.service.SeatMapRenderer.RenderedSeatMap;
+import com.ticketing.service.SeatVersionTracker;
+import com.ticketing.service.WaitingRoomService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,8 +24,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -27,7 +42,16 @@ import java.util.Map;
 @Tag(name = "Event Ticketing", description = "APIs for managing event seats and bookings")
 public class EventController {
 
+    static final String QUEUE_TOKEN_HEADER = "X-Queue-Token";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final EventService eventService;
+    private final SeatMapBroadcaster seatMapBroadcaster;
+    private final SeatVersionTracker seatVersionTracker;
+    private final SeatMapRenderer seatMapRenderer;
+    private final WaitingRoomService waitingRoomService;
+    private final IdempotencyService idempotencyService;
+    private final SeatMapCache seatMapCache;
 
     @Operation(summary = "Initialize Event", description = "Creates 100 seats for the event. This endpoint clears any existing seats and creates fresh seats numbered 1-100, all with AVAILABLE status.")
     @ApiResponses(value = {
@@ -37,37 +61,205 @@ public class EventController {
     public ResponseEntity<Map<String, String>> initializeEvent( @RequestParam(required = false) Integer numberOfSeats) {
         log.info("Received request to initialize event");
         int seatsToInitialize = numberOfSeats != null ? numberOfSeats : 100;
-        String message = eventService.initializeEvent(seatsToInitialize);
+        String message = eventService.initializeDefaultEvent(seatsToInitialize);
         return ResponseEntity.ok(Map.of(
                 "success", "true",
                 "message", message));
     }
 
-    @Operation(summary = "Get All Seats", description = "Returns the current status of all 100 seats including seat number, status (AVAILABLE/BOOKED/RESERVED), and timestamps.")
+    @Operation(summary = "Get All Seats", description = "Returns the current status of all 100 seats including seat number, status (AVAILABLE/BOOKED/RESERVED), and timestamps. "
+            +
+            "The ETag carries the seat-map version: send it as If-None-Match to get 304 when nothing changed. "
+            +
+            "With sinceVersion only the seats changed since that version are returned.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved all seats", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Seat.class)))
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved all seats, or the changes since sinceVersion", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Seat.class))),
+            @ApiResponse(responseCode = "304", description = "Seat map unchanged since the If-None-Match version")
     })
     @GetMapping("/seats")
-    public ResponseEntity<List<Seat>> getAllSeats(@RequestParam(required = false) String numberOf) {
-        log.info("Received request to get all seats");
-        List<Seat> seats = eventService.getAllSeats();
-        return ResponseEntity.ok(seats);
+    public ResponseEntity<?> getAllSeats(@RequestParam(required = false) String numberOf,
+            @RequestParam(required = false) Long sinceVersion, WebRequest webRequest) {
+        log.debug("Received request to get all seats");
+        return versionedSeats(eventService.getDefaultEventId(), sinceVersion, webRequest);
+    }
+
+    @Operation(summary = "Get Packed Seat Map", description = "Selected with Accept: " + SeatMapRenderer.MEDIA_TYPE + ". "
+            +
+            "Returns the seat map as an 8-byte version, a 4-byte seat count and 2 bits per seat indexed by seat number "
+            +
+            "(0 AVAILABLE, 1 BOOKED, 2 RESERVED, 3 no seat). Gzip-compressed when the client accepts it.")
+    @GetMapping(value = "/seats", produces = SeatMapRenderer.MEDIA_TYPE)
+    public ResponseEntity<byte[]> getPackedSeats(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        return packedSeats(eventService.getDefaultEventId(), acceptEncoding, webRequest);
+    }
+
+    @Operation(summary = "Stream Seats", description = "Server-Sent Events stream of the default event's seat map. Sends a 'snapshot' event with all seats on connect, then 'delta' events with only the seats whose status changed.")
+    @GetMapping(value = "/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeats() {
+        return seatMapBroadcaster.subscribe(eventService.getDefaultEventId());
     }
 
     @Operation(summary = "Book Seats", description = "Books one or more seats for a user. Pricing is dynamic based on cumulative booking order: "
             +
             "Tier 1 (bookings 1-50): $50 each, Tier 2 (bookings 51-80): $75 each, Tier 3 (bookings 81-100): $100 each. "
             +
-            "Uses pessimistic locking to prevent concurrent booking conflicts.")
+            "Uses pessimistic locking to prevent concurrent booking conflicts. "
+            +
+            "Leave seatIds empty to book the best available numberOfSeats adjacent seats. "
+            +
+            "Send an Idempotency-Key header to make retries safe: repeats of the request get the first response.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Seats booked successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BookingResponse.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid request (missing fields, invalid seat IDs)", content = @Content(mediaType = "application/json")),
-            @ApiResponse(responseCode = "409", description = "Conflict - One or more seats are already booked", content = @Content(mediaType = "application/json"))
+            @ApiResponse(responseCode = "400", description = "Invalid request (missing fields, invalid seat IDs, Idempotency-Key reused for another request)", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "409", description = "Conflict - One or more seats are already booked", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "429", description = "Over the admission rate - retry with the returned queue token once admitted", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "504", description = "Booking outcome unknown - it may still commit, retry with the same Idempotency-Key", content = @Content(mediaType = "application/json"))
     })
     @PostMapping("/book")
-    public ResponseEntity<BookingResponse> bookSeats(@Valid @RequestBody BookingRequest request) {
-        log.info("Received booking request: {}", request);
-        BookingResponse response = eventService.bookSeats(request);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<BookingResponse> bookSeats(@Valid @RequestBody BookingRequest request,
+            @RequestHeader(value = QUEUE_TOKEN_HEADER, required = false) String queueToken,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.debug("Received booking request: {}", request);
+        Long eventId = eventService.getDefaultEventId();
+        return ResponseEntity.ok(book(eventId, request, queueToken, idempotencyKey));
+    }
+
+    @Operation(summary = "Create Event", description = "Creates a new event with its own seats, numbered from 1, all with AVAILABLE status. Seats, bookings and pricing are scoped to the event.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event created successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Event.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request (missing name, non-positive seat count)", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping("/events")
+    public ResponseEntity<Event> createEvent(@Valid @RequestBody CreateEventRequest request) {
+        log.info("Received request to create event: {}", request);
+        return ResponseEntity.ok(eventService.createEvent(request));
+    }
+
+    @Operation(summary = "Get All Events", description = "Returns every event with its seat count.")
+    @GetMapping("/events")
+    public ResponseEntity<List<Event>> getAllEvents() {
+        return ResponseEntity.ok(eventService.getAllEvents());
+    }
+
+    @Operation(summary = "Initialize Event Seats", description = "Clears the bookings and seats of one event and creates fresh seats numbered 1-N, all with AVAILABLE status. Other events are not affected.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event initialized successfully", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Event not found", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping("/events/{eventId}/initialize")
+    public ResponseEntity<Map<String, String>> initializeEvent(@PathVariable Long eventId,
+            @RequestParam(required = false) Integer numberOfSeats) {
+        log.info("Received request to initialize event {}", eventId);
+        int seatsToInitialize = numberOfSeats != null ? numberOfSeats : 100;
+        String message = eventService.initializeEvent(eventId, seatsToInitialize);
+        return ResponseEntity.ok(Map.of(
+                "success", "true",
+                "message", message));
+    }
+
+    @Operation(summary = "Get Event Seats", description = "Returns the current status of all seats of one event, ordered by seat number. Supports If-None-Match and sinceVersion like /api/seats.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved seats, or the changes since sinceVersion", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Seat.class))),
+            @ApiResponse(responseCode = "304", description = "Seat map unchanged since the If-None-Match version"),
+            @ApiResponse(responseCode = "404", description = "Event not found", content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/events/{eventId}/seats")
+    public ResponseEntity<?> getEventSeats(@PathVariable Long eventId,
+            @RequestParam(required = false) Long sinceVersion, WebRequest webRequest) {
+        log.debug("Received request to get seats for event {}", eventId);
+        return versionedSeats(eventId, sinceVersion, webRequest);
+    }
+
+    @Operation(summary = "Get Packed Event Seat Map", description = "Binary seat map of one event, selected with Accept: " + SeatMapRenderer.MEDIA_TYPE + ". Same layout as /api/seats.")
+    @GetMapping(value = "/events/{eventId}/seats", produces = SeatMapRenderer.MEDIA_TYPE)
+    public ResponseEntity<byte[]> getPackedEventSeats(@PathVariable Long eventId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        return packedSeats(eventId, acceptEncoding, webRequest);
+    }
+
+    @Operation(summary = "Stream Event Seats", description = "Server-Sent Events stream of one event's seat map. Sends a 'snapshot' event with all seats on connect, then 'delta' events with only the seats whose status changed.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream opened", content = @Content(mediaType = "text/event-stream")),
+            @ApiResponse(responseCode = "404", description = "Event not found", content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping(value = "/events/{eventId}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEventSeats(@PathVariable Long eventId) {
+        log.debug("Received seat stream subscription for event {}", eventId);
+        return seatMapBroadcaster.subscribe(eventId);
+    }
+
+    @Operation(summary = "Book Event Seats", description = "Books one or more seats of one event. Tier pricing follows the cumulative booking order within that event. Leave seatIds empty to book the best available numberOfSeats adjacent seats. Send an Idempotency-Key header to make retries safe.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Seats booked successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BookingResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request (missing fields, seat IDs not in this event, Idempotency-Key reused for another request)", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Event not found", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "409", description = "Conflict - One or more seats are already booked", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "429", description = "Over the admission rate - retry with the returned queue token once admitted", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "504", description = "Booking outcome unknown - it may still commit, retry with the same Idempotency-Key", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping("/events/{eventId}/book")
+    public ResponseEntity<BookingResponse> bookEventSeats(@PathVariable Long eventId,
+            @Valid @RequestBody BookingRequest request,
+            @RequestHeader(value = QUEUE_TOKEN_HEADER, required = false) String queueToken,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.debug("Received booking request for event {}: {}", eventId, request);
+        return ResponseEntity.ok(book(eventId, request, queueToken, idempotencyKey));
+    }
+
+    /**
+     * Retries of a keyed request are answered before the waiting room, so
+     * they do not use up admissions
+     */
+    private BookingResponse book(Long eventId, BookingRequest request, String queueToken, String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, eventId, request, () -> {
+            waitingRoomService.admit(eventId, queueToken);
+            return eventService.bookSeats(eventId, request);
+        });
+    }
+
+    /**
+     * The version is read before the seats, so a response is never older than
+     * the version it is tagged with. Seats come from the seat map cache, which
+     * only goes to the database when its change log cannot bring it up to date.
+     */
+    private ResponseEntity<?> versionedSeats(Long eventId, Long sinceVersion, WebRequest webRequest) {
+        long version = seatVersionTracker.currentVersion(eventId);
+        if (webRequest.checkNotModified(seatVersionTracker.etag(eventId, version))) {
+            return null;
+        }
+        if (sinceVersion == null) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(seatMapCache.get(eventId).json());
+        }
+
+        List<SeatState> changes = seatVersionTracker.changesSince(eventId, sinceVersion);
+        if (changes != null) {
+            return ResponseEntity.ok(new SeatChangesResponse(eventId, version, false, changes));
+        }
+        return ResponseEntity.ok(new SeatChangesResponse(eventId, version, true, seatMapCache.get(eventId).states()));
+    }
+
+    /**
+     * Serves the pre-rendered bytes as they are; nothing is encoded per request
+     */
+    private ResponseEntity<byte[]> packedSeats(Long eventId, String acceptEncoding, WebRequest webRequest) {
+        RenderedSeatMap seatMap = seatMapRenderer.render(eventId);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = seatVersionTracker.etag(eventId, seatMap.version(), gzip ? "packed-gzip" : "packed");
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(SeatMapRenderer.MEDIA_TYPE))
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(seatMap.gzipped());
+        }
+        return response.body(seatMap.bytes());
     }
 }
@@ -0,0 +1,76 @@
+package com.ticketing.controller;
+
+import com.ticketing.dto.BookingRequest;
+import com.ticketing.dto.BookingResponse;
+import com.ticketing.dto.HoldResponse;
+import com.ticketing.service.HoldService;
+import com.ticketing.service.WaitingRoomService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+@Tag(name = "Seat Holds", description = "APIs for reserving seats during checkout")
+public class HoldController {
+
+    private final HoldService holdService;
+    private final WaitingRoomService waitingRoomService;
+
+    @Operation(summary = "Hold Seats", description = "Reserves seats of an event for a limited time (ticketing.hold.ttl-seconds). Held seats show as RESERVED and cannot be booked by anyone else. The hold must be confirmed before it expires.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Seats held successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = HoldResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request (missing fields, invalid seat IDs)", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Event not found", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "409", description = "Conflict - One or more seats are not available", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "429", description = "Over the admission rate - retry with the returned queue token once admitted", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping("/events/{eventId}/holds")
+    public ResponseEntity<HoldResponse> holdSeats(@PathVariable Long eventId,
+            @Valid @RequestBody BookingRequest request,
+            @RequestHeader(value = EventController.QUEUE_TOKEN_HEADER, required = false) String queueToken) {
+        log.debug("Received hold request for event {}: {}", eventId, request);
+        waitingRoomService.admit(eventId, queueToken);
+        return ResponseEntity.ok(holdService.holdSeats(eventId, request));
+    }
+
+    @Operation(summary = "Confirm Hold", description = "Converts a pending hold into a confirmed booking. Pricing follows the booking order at confirmation time.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold confirmed", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BookingResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Hold not found", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "409", description = "Conflict - The hold has expired or is no longer active", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<BookingResponse> confirmHold(@PathVariable Long holdId) {
+        log.debug("Received request to confirm hold {}", holdId);
+        return ResponseEntity.ok(holdService.confirmHold(holdId));
+    }
+
+    @Operation(summary = "Release Hold", description = "Releases a pending hold so its seats become AVAILABLE again.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold released", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Hold not found", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "409", description = "Conflict - The hold is no longer active", content = @Content(mediaType = "application/json"))
+    })
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Map<String, String>> releaseHold(@PathVariable Long holdId) {
+        log.debug("Received request to release hold {}", holdId);
+        holdService.releaseHold(holdId);
+        return ResponseEntity.ok(Map.of(
+                "success", "true",
+                "message", "Hold " + holdId + " released"));
+    }
+}
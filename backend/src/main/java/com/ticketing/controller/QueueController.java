@@ -0,0 +1,43 @@
+package com.ticketing.controller;
+
+import com.ticketing.dto.QueueStatus;
+import com.ticketing.service.WaitingRoomService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@Tag(name = "Waiting Room", description = "APIs for queueing during high-demand on-sales")
+public class QueueController {
+
+    private final WaitingRoomService waitingRoomService;
+
+    @Operation(summary = "Join Queue", description = "Takes a place in an event's booking queue. Poll /api/queue/status with the token, then send it as the X-Queue-Token header when booking once admitted.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Queue position issued", content = @Content(mediaType = "application/json", schema = @Schema(implementation = QueueStatus.class))),
+            @ApiResponse(responseCode = "429", description = "Queue is full", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping("/events/{eventId}/queue")
+    public ResponseEntity<QueueStatus> joinQueue(@PathVariable Long eventId) {
+        return ResponseEntity.ok(waitingRoomService.join(eventId));
+    }
+
+    @Operation(summary = "Queue Status", description = "Returns the position of a queue token and whether it has been admitted. Served from memory and cheap to poll.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Current position", content = @Content(mediaType = "application/json", schema = @Schema(implementation = QueueStatus.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid or expired token", content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/queue/status")
+    public ResponseEntity<QueueStatus> getQueueStatus(@RequestParam String token) {
+        return ResponseEntity.ok(waitingRoomService.status(token));
+    }
+}
@@ -0,0 +1,21 @@
+package com.ticketing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of a user's bookings, newest first. Pass nextCursor as the cursor
+ * parameter for the next page; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingHistoryResponse {
+
+    private String userName;
+    private List<BookingSummary> bookings;
+    private Long nextCursor;
+}
@@ -0,0 +1,29 @@
+package com.ticketing.dto;
+
+import com.ticketing.model.OutboxMessageType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Payload of an outbox message: a booking as it was when it was confirmed or
+ * cancelled. For a cancellation, totalPrice is the amount refunded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingMessage {
+
+    private OutboxMessageType type;
+    private Long bookingId;
+    private Long eventId;
+    private String userName;
+    private Integer bookingOrder;
+    private BigDecimal totalPrice;
+    private List<BookedSeatDetail> seats;
+    private LocalDateTime occurredAt;
+}
@@ -1,8 +1,8 @@
 package com.ticketing.dto;
 
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,10 +14,11 @@ import java.util.List;
 @AllArgsConstructor
 public class BookingRequest {
 
-    @NotNull(message = "Number of seats cannot be null")
+    // Seats to pick when no seat IDs are given
+    @Positive(message = "Number of seats must be positive")
     private Long numberOfSeats;
 
-    @NotEmpty(message = "Seat IDs cannot be empty")
+    // Optional; when empty the best available seats are booked
     private List<@NotNull(message = "Seat ID cannot be null") Long> seatIds;
 
     @NotBlank(message = "User name is required")
@@ -0,0 +1,25 @@
+package com.ticketing.dto;
+
+import com.ticketing.model.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSummary {
+
+    private Long bookingId;
+    private Long eventId;
+    private Integer bookingOrder;
+    private BookingStatus status;
+    private Integer totalSeats;
+    private BigDecimal totalPrice;
+    private LocalDateTime bookingDate;
+    private List<BookedSeatDetail> seats;
+}
@@ -0,0 +1,28 @@
+package com.ticketing.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One line of a bulk booking request
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBookingItem {
+
+    // Optional caller reference, echoed in the result for this line
+    private String reference;
+
+    @NotEmpty(message = "Seat IDs are required")
+    private List<@NotNull(message = "Seat ID cannot be null") Long> seatIds;
+
+    @NotBlank(message = "User name is required")
+    private String userName;
+}
@@ -0,0 +1,36 @@
+package com.ticketing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Outcome of one line of a bulk booking request
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBookingResult {
+
+    public static final String CONFIRMED = "confirmed";
+    // A seat was booked before, or by an earlier line of the same request
+    public static final String CONFLICT = "conflict";
+    // Malformed line, missing fields or seat IDs not in the event
+    public static final String INVALID = "invalid";
+    // In a chunk that failed and was rolled back; safe to resubmit
+    public static final String FAILED = "failed";
+    // Booked, but written by the write-behind stage later, so without a booking ID yet
+    public static final String PENDING = "pending";
+
+    // Line of the request body, counting from 1
+    private long line;
+    private String reference;
+    private String status;
+    private String message;
+    private Long bookingId;
+    private BigDecimal totalPrice;
+    private List<BookedSeatDetail> seats;
+}
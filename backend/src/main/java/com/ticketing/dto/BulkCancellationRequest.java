@@ -0,0 +1,18 @@
+package com.ticketing.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCancellationRequest {
+
+    @NotEmpty(message = "Booking IDs are required")
+    private List<@NotNull(message = "Booking ID cannot be null") Long> bookingIds;
+}
@@ -0,0 +1,23 @@
+package com.ticketing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCancellationResponse {
+
+    // Bookings asked for; for an event-wide cancellation, the confirmed bookings found
+    private int requested;
+    private int cancelled;
+    // Not found or not confirmed
+    private int skipped;
+    // In chunks that failed and were rolled back; safe to resubmit
+    private int failed;
+    private int releasedSeats;
+    private BigDecimal refundTotal;
+}
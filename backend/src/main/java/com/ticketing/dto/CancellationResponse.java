@@ -0,0 +1,21 @@
+package com.ticketing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CancellationResponse {
+
+    private boolean success;
+    private String message;
+    private Long bookingId;
+    private Long eventId;
+    private BigDecimal refundAmount;
+    private List<Long> releasedSeatIds;
+}
@@ -0,0 +1,21 @@
+package com.ticketing.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateEventRequest {
+
+    @NotBlank(message = "Event name is required")
+    private String name;
+
+    @NotNull(message = "Number of seats cannot be null")
+    @Positive(message = "Number of seats must be positive")
+    private Integer numberOfSeats;
+}
@@ -0,0 +1,21 @@
+package com.ticketing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldResponse {
+
+    private boolean success;
+    private String message;
+    private Long holdId;
+    private Long eventId;
+    private LocalDateTime expiresAt;
+    private List<Long> seatIds;
+}
@@ -0,0 +1,17 @@
+package com.ticketing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueStatus {
+
+    private Long eventId;
+    private String token;
+    private long position;
+    private boolean admitted;
+    private long retryAfterSeconds;
+}
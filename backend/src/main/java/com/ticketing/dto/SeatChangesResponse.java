@@ -0,0 +1,22 @@
+package com.ticketing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Seats changed since a client's version. When that version is too old to be
+ * answered from the change log, full is true and seats holds every seat.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatChangesResponse {
+
+    private Long eventId;
+    private long version;
+    private boolean full;
+    private List<SeatState> seats;
+}
@@ -0,0 +1,19 @@
+package com.ticketing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Seat-map stream payload: every seat for a snapshot, changed seats for a delta
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatMapMessage {
+
+    private Long eventId;
+    private List<SeatState> seats;
+}
@@ -0,0 +1,21 @@
+package com.ticketing.dto;
+
+import com.ticketing.model.Seat;
+import com.ticketing.model.SeatStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatState {
+
+    private Long id;
+    private Integer seatNumber;
+    private SeatStatus status;
+
+    public static SeatState of(Seat seat) {
+        return new SeatState(seat.getId(), seat.getSeatNumber(), seat.getStatus());
+    }
+}
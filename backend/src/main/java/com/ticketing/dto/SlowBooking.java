@@ -0,0 +1,27 @@
+package com.ticketing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A booking attempt kept by the slow-booking log, with the milliseconds spent
+ * in each phase of its transaction
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowBooking {
+
+    private LocalDateTime recordedAt;
+    private String thread;
+    private String mode;
+    private Long eventId;
+    private Integer seats;
+    private String outcome;
+    private Double totalMillis;
+    private Map<String, Double> phaseMillis;
+}
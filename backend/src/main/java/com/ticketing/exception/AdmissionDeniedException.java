@@ -0,0 +1,21 @@
+package com.ticketing.exception;
+
+import com.ticketing.dto.QueueStatus;
+import lombok.Getter;
+
+/**
+ * Thrown when a booking request is over the event's admission rate. Carries
+ * the caller's place in the waiting room, if one could be issued.
+ */
+@Getter
+public class AdmissionDeniedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final QueueStatus queueStatus;
+
+    public AdmissionDeniedException(String message, QueueStatus queueStatus) {
+        super(message);
+        this.queueStatus = queueStatus;
+    }
+}
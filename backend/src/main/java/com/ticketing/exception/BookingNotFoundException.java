@@ -0,0 +1,10 @@
+package com.ticketing.exception;
+
+public class BookingNotFoundException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BookingNotFoundException(Long bookingId) {
+        super("Booking not found: " + bookingId);
+    }
+}
@@ -0,0 +1,28 @@
+package com.ticketing.exception;
+
+import com.ticketing.dto.BookingResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The booking was handed over but no answer came back in time, so it may
+ * still commit. Callers must not assume it failed.
+ */
+public class BookingOutcomeUnknownException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient CompletableFuture<BookingResponse> pendingBooking;
+
+    public BookingOutcomeUnknownException(String message, CompletableFuture<BookingResponse> pendingBooking) {
+        super(message);
+        this.pendingBooking = pendingBooking;
+    }
+
+    /**
+     * Completes when the booking does, or null if that cannot be followed
+     */
+    public CompletableFuture<BookingResponse> getPendingBooking() {
+        return pendingBooking;
+    }
+}
@@ -0,0 +1,14 @@
+package com.ticketing.exception;
+
+public class EventNotFoundException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public EventNotFoundException(Long eventId) {
+        super("Event not found: " + eventId);
+    }
+
+    public EventNotFoundException(String message) {
+        super(message);
+    }
+}
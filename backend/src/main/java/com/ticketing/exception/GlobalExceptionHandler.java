@@ -1,8 +1,11 @@
 package com.ticketing.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,6 +14,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 @Slf4j
@@ -40,6 +44,23 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    /**
+     * Handle unknown events, bookings and holds
+     */
+    @ExceptionHandler({EventNotFoundException.class, BookingNotFoundException.class})
+    public ResponseEntity<Map<String, Object>> handleNotFoundException(
+            RuntimeException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.NOT_FOUND.value());
+        response.put("error", "Not Found");
+        response.put("message", ex.getMessage());
+
+        log.error("Not found: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
     /**
      * Handle illegal argument exceptions (invalid seat IDs, etc.)
      */
@@ -74,6 +95,61 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
     }
 
+    /**
+     * Handle bookings that timed out and may still commit
+     */
+    @ExceptionHandler(BookingOutcomeUnknownException.class)
+    public ResponseEntity<Map<String, Object>> handleBookingOutcomeUnknownException(
+            BookingOutcomeUnknownException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.GATEWAY_TIMEOUT.value());
+        response.put("error", "Gateway Timeout");
+        response.put("message", ex.getMessage());
+
+        log.warn("Booking outcome unknown: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(response);
+    }
+
+    /**
+     * Handle booking requests over the admission rate
+     */
+    @ExceptionHandler(AdmissionDeniedException.class)
+    public ResponseEntity<Map<String, Object>> handleAdmissionDeniedException(AdmissionDeniedException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        response.put("error", "Too Many Requests");
+        response.put("message", ex.getMessage());
+        response.put("queue", ex.getQueueStatus());
+
+        log.debug("Admission denied: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getQueueStatus().getRetryAfterSeconds())))
+                .body(response);
+    }
+
+    /**
+     * Handle requests that could not get a database connection or a place in a booking queue in time
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class,
+            RejectedExecutionException.class})
+    public ResponseEntity<Map<String, Object>> handleConnectionUnavailableException(RuntimeException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("error", "Service Unavailable");
+        response.put("message", "The service is busy, please try again");
+
+        log.warn("No database connection available: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
     /**
      * Handle all other exceptions
      */
@@ -0,0 +1,14 @@
+package com.ticketing.exception;
+
+/**
+ * Requested seats were taken by someone else; handled as a conflict like any
+ * other IllegalStateException
+ */
+public class SeatsUnavailableException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SeatsUnavailableException(String message) {
+        super(message);
+    }
+}
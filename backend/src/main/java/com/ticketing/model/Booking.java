@@ -13,7 +13,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "booking")
+@Table(name = "booking", indexes = {
+        @Index(name = "idx_booking_event_id", columnList = "event_id"),
+        // Booking history pages walk a user's bookings newest first by ID
+        @Index(name = "idx_booking_user_name_id", columnList = "user_name, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,16 +27,20 @@ public class Booking {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
     @Column(name = "user_name", nullable = false)
     private String userName;
 
-    @Column(name = "booking_order", nullable = false)
+    // Assigned when the booking is confirmed; null while it is a pending hold
+    @Column(name = "booking_order")
     private Integer bookingOrder;
 
     @Column(name = "total_seats", nullable = false)
     private Integer totalSeats;
 
-    @Column(name = "total_price", nullable = false, precision = 10, scale = 2)
+    @Column(name = "total_price", precision = 10, scale = 2)
     private BigDecimal totalPrice;
 
     @Enumerated(EnumType.STRING)
@@ -42,6 +50,10 @@ public class Booking {
     @Column(name = "booking_date", nullable = false)
     private LocalDateTime bookingDate;
 
+    // When a pending hold is released if it has not been confirmed
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
     @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<BookingSeat> bookingSeats = new ArrayList<>();
 
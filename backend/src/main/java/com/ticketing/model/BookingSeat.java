@@ -10,7 +10,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "booking_seat")
+@Table(name = "booking_seat", indexes = {
+        @Index(name = "idx_booking_seat_booking_id", columnList = "booking_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,10 +30,11 @@ public class BookingSeat {
     @JoinColumn(name = "seat_id", nullable = false)
     private Seat seat;
 
-    @Column(name = "seat_price", nullable = false, precision = 10, scale = 2)
+    // Price and order are assigned when the booking is confirmed
+    @Column(name = "seat_price", precision = 10, scale = 2)
     private BigDecimal seatPrice;
 
-    @Column(name = "seat_order", nullable = false)
+    @Column(name = "seat_order")
     private Integer seatOrder;
 
     @CreationTimestamp
@@ -0,0 +1,50 @@
+package com.ticketing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals for an event, keyed by event ID and updated in the same transaction as each booking
+ * so the next booking order and seat position are available without scanning
+ * the seat or booking tables.
+ *
+ * Cancellations add to releasedSeats rather than taking from soldSeats, which
+ * stays the seat position allocator: positions, and the prices tied to them,
+ * are never handed out twice. Seats currently sold are soldSeats - releasedSeats.
+ */
+@Entity
+@Table(name = "event_counter")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventCounter {
+
+    @Id
+    private Long id;
+
+    @Column(name = "sold_seats", nullable = false)
+    private Integer soldSeats;
+
+    @Column(name = "last_booking_order", nullable = false)
+    private Integer lastBookingOrder;
+
+    @ColumnDefault("0")
+    @Column(name = "released_seats", nullable = false)
+    private Integer releasedSeats = 0;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public EventCounter(Long id, Integer soldSeats, Integer lastBookingOrder) {
+        this.id = id;
+        this.soldSeats = soldSeats;
+        this.lastBookingOrder = lastBookingOrder;
+    }
+}
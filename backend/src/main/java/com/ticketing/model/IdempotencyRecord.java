@@ -0,0 +1,54 @@
+package com.ticketing.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a booking request sent with an Idempotency-Key, kept so retries
+ * get the same answer after a restart. The status is null while the first
+ * request is still being processed.
+ */
+@Entity
+@Table(name = "idempotency_key", indexes = {
+        @Index(name = "idx_idempotency_key_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    // SHA-256 of the request, so a key reused for a different booking is refused
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    // BookingResponse JSON for successes, the error message otherwise
+    @Column(name = "response_body", length = 8000)
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public IdempotencyRecord(String key, Long eventId, String requestHash, LocalDateTime createdAt,
+            LocalDateTime expiresAt) {
+        this.key = key;
+        this.eventId = eventId;
+        this.requestHash = requestHash;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.ticketing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking change waiting to be delivered downstream. Rows are written in the
+ * transaction that makes the change and deleted once every sink has them; IDs
+ * of one event follow the order its changes committed in.
+ */
+@Entity
+@Table(name = "outbox_message", indexes = {
+        // Finds the oldest undelivered message of each event
+        @Index(name = "idx_outbox_message_event_id_id", columnList = "event_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 32)
+    private OutboxMessageType type;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+
+    // BookingMessage JSON
+    @Column(name = "payload", nullable = false, length = 8000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
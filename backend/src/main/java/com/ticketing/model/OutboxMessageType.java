@@ -0,0 +1,6 @@
+package com.ticketing.model;
+
+public enum OutboxMessageType {
+    BOOKING_CONFIRMED,
+    BOOKING_CANCELLED
+}
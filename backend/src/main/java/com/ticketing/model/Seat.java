@@ -1,5 +1,6 @@
 package com.ticketing.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -10,7 +11,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "seat")
+@Table(name = "seat", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_seat_event_seat_number", columnNames = {"event_id", "seat_number"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,7 +23,10 @@ public class Seat {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "seat_number", unique = true, nullable = false)
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(name = "seat_number", nullable = false)
     private Integer seatNumber;
 
     @Enumerated(EnumType.STRING)
@@ -35,7 +41,15 @@ public class Seat {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    public Seat(Integer seatNumber) {
+    // Bumped by every status change; the default fills rows that predate the column.
+    // Internal to booking, so not part of the API
+    @JsonIgnore
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    public Seat(Long eventId, Integer seatNumber) {
+        this.eventId = eventId;
         this.seatNumber = seatNumber;
         this.status = SeatStatus.AVAILABLE;
     }
@@ -1,17 +1,52 @@
 package com.ticketing.repository;
 
 import com.ticketing.model.Booking;
+import com.ticketing.model.BookingStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findByUserName(String userName);
+    /**
+     * One page of a user's bookings, newest first, starting below the given ID
+     */
+    @Query("SELECT b FROM Booking b WHERE b.userName = :userName AND b.id < :beforeId ORDER BY b.id DESC")
+    List<Booking> findByUserNameBefore(String userName, Long beforeId, Limit limit);
 
-    @Query("SELECT COALESCE(MAX(b.bookingOrder), 0) FROM Booking b")
-    Integer findMaxBookingOrder();
+    List<Booking> findByBookingStatus(BookingStatus bookingStatus);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id")
+    Optional<Booking> findByIdWithLock(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids AND b.bookingStatus = :bookingStatus")
+    List<Booking> findByIdInAndStatusWithLock(List<Long> ids, BookingStatus bookingStatus);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.eventId = :eventId AND b.bookingStatus = :bookingStatus " +
+            "AND b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsByEventIdAndStatusAfter(Long eventId, BookingStatus bookingStatus, Long afterId, Limit limit);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.bookingStatus = :bookingStatus, b.updatedAt = CURRENT_TIMESTAMP WHERE b.id IN :ids")
+    int updateStatus(List<Long> ids, BookingStatus bookingStatus);
+
+    /**
+     * Lock every booking of an event in ID order
+     */
+    @Query(value = "SELECT id FROM booking WHERE event_id = :eventId ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockIdsByEventId(Long eventId);
+
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.eventId = :eventId")
+    int deleteByEventId(Long eventId);
 }
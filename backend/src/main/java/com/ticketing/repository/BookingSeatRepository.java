@@ -2,8 +2,26 @@ package com.ticketing.repository;
 
 import com.ticketing.model.BookingSeat;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface BookingSeatRepository extends JpaRepository<BookingSeat, Long> {
+
+    @Query("SELECT bs FROM BookingSeat bs JOIN FETCH bs.seat WHERE bs.booking.id IN :bookingIds")
+    List<BookingSeat> findWithSeatByBookingIdIn(List<Long> bookingIds);
+
+    /**
+     * Seat details of many bookings in one query, without loading entities
+     */
+    @Query("SELECT new com.ticketing.repository.BookingSeatView(bs.booking.id, s.id, s.seatNumber, bs.seatPrice, bs.seatOrder) " +
+            "FROM BookingSeat bs JOIN bs.seat s WHERE bs.booking.id IN :bookingIds ORDER BY bs.booking.id, s.seatNumber")
+    List<BookingSeatView> findViewsByBookingIdIn(List<Long> bookingIds);
+
+    @Modifying
+    @Query("DELETE FROM BookingSeat bs WHERE bs.booking.id IN (SELECT b.id FROM Booking b WHERE b.eventId = :eventId)")
+    int deleteByEventId(Long eventId);
 }
@@ -0,0 +1,9 @@
+package com.ticketing.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * A booked seat as shown in booking history, read as a projection
+ */
+public record BookingSeatView(Long bookingId, Long seatId, Integer seatNumber, BigDecimal seatPrice, Integer seatOrder) {
+}
@@ -0,0 +1,39 @@
+package com.ticketing.repository;
+
+import com.ticketing.model.EventCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface EventCounterRepository extends JpaRepository<EventCounter, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM EventCounter c WHERE c.id = :id")
+    Optional<EventCounter> findByIdWithLock(Long id);
+
+    @Modifying
+    @Query("UPDATE EventCounter c SET c.soldSeats = c.soldSeats + :seats, " +
+            "c.lastBookingOrder = CASE WHEN c.lastBookingOrder < :bookingOrder THEN :bookingOrder ELSE c.lastBookingOrder END, " +
+            "c.updatedAt = CURRENT_TIMESTAMP WHERE c.id = :id")
+    int addSoldSeats(Long id, int seats, int bookingOrder);
+
+    /**
+     * Claim the next booking order and seat positions without reading the row
+     * first; read it back in the same transaction for the values claimed
+     */
+    @Modifying
+    @Query("UPDATE EventCounter c SET c.soldSeats = c.soldSeats + :seats, c.lastBookingOrder = c.lastBookingOrder + 1, " +
+            "c.updatedAt = CURRENT_TIMESTAMP WHERE c.id = :id")
+    int claimPositions(Long id, int seats);
+
+    @Modifying
+    @Query("UPDATE EventCounter c SET c.releasedSeats = c.releasedSeats + :seats, " +
+            "c.updatedAt = CURRENT_TIMESTAMP WHERE c.id = :id")
+    int addReleasedSeats(Long id, int seats);
+}
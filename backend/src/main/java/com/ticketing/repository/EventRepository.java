@@ -0,0 +1,13 @@
+package com.ticketing.repository;
+
+import com.ticketing.model.Event;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EventRepository extends JpaRepository<Event, Long> {
+
+    Optional<Event> findFirstByOrderByIdAsc();
+}
@@ -4,26 +4,46 @@ import com.ticketing.model.Seat;
 import com.ticketing.model.SeatStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface SeatRepository extends JpaRepository<Seat, Long> {
 
-    Optional<Seat> findBySeatNumber(Integer seatNumber);
-
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT s FROM Seat s WHERE s.id IN :seatIds")
-    List<Seat> findByIdInWithLock(List<Long> seatIds);
-
-    List<Seat> findByStatus(SeatStatus status);
-
-    long countByStatus(SeatStatus status);
-
-    @Query("SELECT COUNT(s) FROM Seat s WHERE s.status = 'BOOKED'")
-    int countBookedSeats();
+    @Query("SELECT s FROM Seat s WHERE s.eventId = :eventId AND s.id IN :seatIds ORDER BY s.id")
+    List<Seat> findByIdInWithLock(Long eventId, List<Long> seatIds);
+
+    @Query("SELECT s FROM Seat s WHERE s.eventId = :eventId AND s.id IN :seatIds ORDER BY s.id")
+    List<Seat> findByEventIdAndIdIn(Long eventId, List<Long> seatIds);
+
+    List<Seat> findByEventIdOrderBySeatNumber(Long eventId);
+
+    /**
+     * Lock every seat of an event in seat ID order, the order bookings lock seats in
+     */
+    @Query(value = "SELECT id FROM seat WHERE event_id = :eventId ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockIdsByEventId(Long eventId);
+
+    @Modifying
+    @Query("DELETE FROM Seat s WHERE s.eventId = :eventId")
+    int deleteByEventId(Long eventId);
+
+    @Modifying
+    @Query("UPDATE Seat s SET s.status = :status, s.version = s.version + 1, s.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE s.id IN :seatIds")
+    int updateStatus(List<Long> seatIds, SeatStatus status);
+
+    /**
+     * Move the seats from one status to another only where they still have the
+     * expected status; returns how many did
+     */
+    @Modifying
+    @Query("UPDATE Seat s SET s.status = :to, s.version = s.version + 1, s.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE s.eventId = :eventId AND s.id IN :seatIds AND s.status = :from")
+    int compareAndSetStatus(Long eventId, List<Long> seatIds, SeatStatus from, SeatStatus to);
 }
@@ -0,0 +1,123 @@
+package com.ticketing.service;
+
+import java.util.TreeMap;
+
+/**
+ * Admission state of one event: a token bucket refilled at a fixed rate, and
+ * a queue of numbered tickets that are admitted in order as the bucket refills.
+ *
+ * Queued tickets take permits before direct requests, so nobody can skip the
+ * queue by retrying, and an admitted ticket is good for a few requests only,
+ * so it cannot be replayed or shared to get past the bucket. State is refilled
+ * lazily on each call, so an idle event costs nothing.
+ *
+ * Each gate has a generation that is signed into its tokens, so tokens of a
+ * gate that was dropped while idle do not match the tickets of a new one.
+ */
+final class AdmissionGate {
+
+    private final long generation;
+    private final double ratePerNano;
+    private final double burst;
+    private final long maxQueueSize;
+    private final long validTickets;
+    private final int requestsPerTicket;
+
+    private double permits;
+    private long lastRefillNanos;
+    // Tickets 1..issued have been handed out, 1..admitted may enter
+    private long issued;
+    private long admitted;
+    // Requests made with admitted tickets that are still valid, by ticket
+    private final TreeMap<Long, Integer> requestsByTicket = new TreeMap<>();
+
+    AdmissionGate(long generation, double ratePerSecond, int burst, long maxQueueSize, long ticketTtlSeconds,
+            int requestsPerTicket, long nowNanos) {
+        this.generation = generation;
+        this.ratePerNano = ratePerSecond / 1_000_000_000d;
+        this.burst = burst;
+        this.maxQueueSize = maxQueueSize;
+        // Tickets admitted this many tickets ago have had their time to book
+        this.validTickets = Math.max(1, (long) (ratePerSecond * ticketTtlSeconds) + burst);
+        this.requestsPerTicket = requestsPerTicket;
+        this.permits = burst;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Take a permit for a request without a ticket, only if nobody is waiting
+     */
+    synchronized boolean tryEnter(long nowNanos) {
+        refill(nowNanos);
+        if (admitted == issued && permits >= 1) {
+            permits--;
+            return true;
+        }
+        return false;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * Count a request against an admitted ticket; false if the ticket is not
+     * admitted yet, was admitted too long ago or has used up its requests
+     */
+    synchronized boolean tryUse(long ticket, long nowNanos) {
+        refill(nowNanos);
+        if (ticket > admitted || admitted - ticket >= validTickets) {
+            return false;
+        }
+        int requests = requestsByTicket.getOrDefault(ticket, 0);
+        if (requests >= requestsPerTicket) {
+            return false;
+        }
+        requestsByTicket.put(ticket, requests + 1);
+        return true;
+    }
+
+    /**
+     * Hand out the next ticket, or -1 if the queue is full
+     */
+    synchronized long issue(long nowNanos) {
+        refill(nowNanos);
+        if (issued - admitted >= maxQueueSize) {
+            return -1;
+        }
+        return ++issued;
+    }
+
+    /**
+     * Tickets ahead of the given one, 0 once it is admitted
+     */
+    synchronized long position(long ticket, long nowNanos) {
+        refill(nowNanos);
+        return Math.max(0, ticket - admitted);
+    }
+
+    synchronized boolean isIdle(long nowNanos) {
+        refill(nowNanos);
+        return admitted == issued && permits >= burst;
+    }
+
+    long secondsToAdmit(long position) {
+        return (long) Math.ceil(position / (ratePerNano * 1_000_000_000d));
+    }
+
+    synchronized boolean isIssued(long ticket) {
+        return ticket > 0 && ticket <= issued;
+    }
+
+    private void refill(long nowNanos) {
+        // Callers read the clock before taking the lock, so it may be behind the last refill
+        if (nowNanos > lastRefillNanos) {
+            permits = Math.min(burst + (issued - admitted), permits + (nowNanos - lastRefillNanos) * ratePerNano);
+            lastRefillNanos = nowNanos;
+        }
+        long admitNow = Math.min((long) permits, issued - admitted);
+        admitted += admitNow;
+        permits -= admitNow;
+        requestsByTicket.headMap(admitted - validTickets, true).clear();
+    }
+}
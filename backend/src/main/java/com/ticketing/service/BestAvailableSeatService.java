@@ -0,0 +1,164 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.SeatState;
+import com.ticketing.exception.EventNotFoundException;
+import com.ticketing.model.Seat;
+import com.ticketing.model.SeatStatus;
+import com.ticketing.repository.EventRepository;
+import com.ticketing.repository.SeatRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Picks seats for requests that ask for a number of seats instead of specific
+ * seat IDs.
+ *
+ * Each event gets a {@link FreeSeatIndex} built on first use and kept in sync
+ * from committed seat changes. The index is only a hint: picked seats are
+ * booked through the normal path, which still locks and validates them, and
+ * are marked tentative meanwhile so concurrent pickers choose different seats.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BestAvailableSeatService {
+
+    private final SeatRepository seatRepository;
+    private final EventRepository eventRepository;
+    private final SeatVersionTracker seatVersionTracker;
+    private final Optional<InventoryBookingService> inventoryBookingService;
+
+    private final Map<Long, EventSeats> indexes = new ConcurrentHashMap<>();
+    private final Map<Long, ReentrantLock> buildLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Pick count adjacent seats, or the closest grouping if no run is long
+     * enough, and hold them tentatively until {@link #release} is called.
+     * Returns null if fewer than count seats are available.
+     */
+    public List<Long> pick(Long eventId, int count) {
+        EventSeats seats = indexFor(eventId);
+        int[] positions = seats.index().take(count);
+        if (positions == null) {
+            return null;
+        }
+        List<Long> seatIds = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            seatIds.add(seats.seatIds()[position]);
+        }
+        return seatIds;
+    }
+
+    /**
+     * Clear the tentative marks left by {@link #pick}
+     */
+    public void release(Long eventId, List<Long> seatIds) {
+        EventSeats seats = indexes.get(eventId);
+        if (seats == null) {
+            return;
+        }
+        for (Long seatId : seatIds) {
+            Integer position = seats.positions().get(seatId);
+            if (position != null) {
+                seats.index().setTentative(position, false);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatStatusChanged(SeatStatusChangedEvent event) {
+        EventSeats seats = indexes.get(event.eventId());
+        if (seats != null) {
+            apply(seats, event.seats());
+        }
+    }
+
+    /**
+     * Seat IDs change on re-initialization, so the index is rebuilt on next use
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsInitialized(SeatsInitializedEvent event) {
+        indexes.remove(event.eventId());
+    }
+
+    private EventSeats indexFor(Long eventId) {
+        EventSeats seats = indexes.get(eventId);
+        if (seats != null) {
+            return seats;
+        }
+        // One loader per event; a plain lock rather than computeIfAbsent so the
+        // database read does not run inside a map bin lock
+        ReentrantLock lock = buildLocks.computeIfAbsent(eventId, id -> new ReentrantLock());
+        lock.lock();
+        try {
+            seats = indexes.get(eventId);
+            if (seats == null) {
+                seats = build(eventId);
+            }
+            return seats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Load the seats, install the index, then replay changes committed while
+     * loading; later changes reach the installed index through the listener
+     */
+    private EventSeats build(Long eventId) {
+        long version = seatVersionTracker.currentVersion(eventId);
+        List<Seat> seats = seatRepository.findByEventIdOrderBySeatNumber(eventId);
+        if (seats.isEmpty() && !eventRepository.existsById(eventId)) {
+            buildLocks.remove(eventId);
+            throw new EventNotFoundException(eventId);
+        }
+        if (inventoryBookingService.isPresent()) {
+            seats = inventoryBookingService.get().withCurrentStatus(eventId, seats);
+        }
+
+        long[] seatIds = new long[seats.size()];
+        Map<Long, Integer> positions = new HashMap<>(seats.size() * 2);
+        BitSet free = new BitSet(seats.size());
+        for (int position = 0; position < seats.size(); position++) {
+            Seat seat = seats.get(position);
+            seatIds[position] = seat.getId();
+            positions.put(seat.getId(), position);
+            free.set(position, seat.getStatus() == SeatStatus.AVAILABLE);
+        }
+        EventSeats eventSeats = new EventSeats(new FreeSeatIndex(free, seats.size()), seatIds, positions);
+        indexes.put(eventId, eventSeats);
+
+        List<SeatState> missed = seatVersionTracker.changesSince(eventId, version);
+        if (missed == null) {
+            // Re-initialized or too many changes while loading; start over on next use
+            indexes.remove(eventId, eventSeats);
+        } else {
+            apply(eventSeats, missed);
+        }
+        log.debug("Built free-seat index for event {} with {} seats", eventId, seats.size());
+        return eventSeats;
+    }
+
+    private void apply(EventSeats seats, List<SeatState> changes) {
+        for (SeatState change : changes) {
+            Integer position = seats.positions().get(change.getId());
+            if (position != null) {
+                seats.index().setFree(position, change.getStatus() == SeatStatus.AVAILABLE);
+            }
+        }
+    }
+
+    private record EventSeats(FreeSeatIndex index, long[] seatIds, Map<Long, Integer> positions) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.BookedSeatDetail;
+import com.ticketing.model.BookingStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts confirmed bookings and their seats as two JDBC batches.
+ *
+ * Booking IDs are generated by the database, which keeps Hibernate from
+ * batching the inserts; here they are read back from the batch itself. Runs
+ * in the caller's transaction.
+ */
+@Component
+@RequiredArgsConstructor
+class BookingBatchInserter {
+
+    private static final String INSERT_BOOKING =
+            "INSERT INTO booking (event_id, user_name, booking_order, total_seats, total_price, "
+                    + "booking_status, booking_date, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_BOOKING_SEAT =
+            "INSERT INTO booking_seat (booking_id, seat_id, seat_price, seat_order, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert the bookings and return their generated IDs in the same order
+     */
+    public List<Long> insert(List<PendingBooking> bookings) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_BOOKING, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        PendingBooking booking = bookings.get(i);
+                        statement.setLong(1, booking.eventId());
+                        statement.setString(2, booking.userName());
+                        statement.setInt(3, booking.bookingOrder());
+                        statement.setInt(4, booking.seats().size());
+                        statement.setBigDecimal(5, booking.totalPrice());
+                        statement.setString(6, BookingStatus.CONFIRMED.name());
+                        statement.setTimestamp(7, Timestamp.valueOf(booking.bookingDate()));
+                        statement.setTimestamp(8, now);
+                        statement.setTimestamp(9, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                },
+                keys);
+
+        List<Long> bookingIds = new ArrayList<>(bookings.size());
+        for (Map<String, Object> key : keys.getKeyList()) {
+            bookingIds.add(((Number) key.values().iterator().next()).longValue());
+        }
+
+        List<Long> seatBookingIds = new ArrayList<>();
+        List<BookedSeatDetail> seats = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            for (BookedSeatDetail seat : bookings.get(i).seats()) {
+                seatBookingIds.add(bookingIds.get(i));
+                seats.add(seat);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_BOOKING_SEAT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                BookedSeatDetail seat = seats.get(i);
+                statement.setLong(1, seatBookingIds.get(i));
+                statement.setLong(2, seat.getSeatId());
+                statement.setBigDecimal(3, seat.getPrice());
+                statement.setInt(4, seat.getBookingOrder());
+                statement.setTimestamp(5, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return seats.size();
+            }
+        });
+        return bookingIds;
+    }
+}
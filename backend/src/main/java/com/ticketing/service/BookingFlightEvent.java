@@ -0,0 +1,52 @@
+package com.ticketing.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event spanning one booking attempt, with the time spent in
+ * each phase of its transaction. Phases run elsewhere, such as a group-commit
+ * batch, are not included.
+ */
+@Name("com.ticketing.Booking")
+@Label("Booking")
+@Category("Ticketing")
+@Description("One booking attempt and its phase breakdown")
+@StackTrace(false)
+final class BookingFlightEvent extends jdk.jfr.Event {
+
+    static final EventType TYPE = EventType.getEventType(BookingFlightEvent.class);
+
+    @Label("Mode")
+    String mode;
+
+    @Label("Event ID")
+    long eventId;
+
+    @Label("Seats")
+    int seats;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Seat Locks")
+    @Timespan(Timespan.NANOSECONDS)
+    long lock;
+
+    @Label("Event Counter")
+    @Timespan(Timespan.NANOSECONDS)
+    long counter;
+
+    @Label("Inserts")
+    @Timespan(Timespan.NANOSECONDS)
+    long insert;
+
+    @Label("Flush and Commit")
+    @Timespan(Timespan.NANOSECONDS)
+    long commit;
+}
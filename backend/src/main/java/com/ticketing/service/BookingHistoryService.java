@@ -0,0 +1,84 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.BookedSeatDetail;
+import com.ticketing.dto.BookingHistoryResponse;
+import com.ticketing.dto.BookingSummary;
+import com.ticketing.model.Booking;
+import com.ticketing.repository.BookingRepository;
+import com.ticketing.repository.BookingSeatRepository;
+import com.ticketing.repository.BookingSeatView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pages through a user's bookings with their seats.
+ *
+ * Pages are keyset-paginated on the booking ID, newest first, through the
+ * (user_name, id) index, so a page costs the same however far back it is.
+ * A page takes two queries whatever its size: one for the bookings and one
+ * projection for the seats of all of them; no lazy associations are touched.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingHistoryService {
+
+    private final BookingRepository bookingRepository;
+    private final BookingSeatRepository bookingSeatRepository;
+
+    @Value("${ticketing.bookings.history.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Bookings of a user older than the cursor, or the newest ones without one
+     */
+    @Transactional(readOnly = true)
+    public BookingHistoryResponse getBookings(String userName, Long cursor, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+
+        // One extra row tells whether there is another page
+        List<Booking> bookings = bookingRepository.findByUserNameBefore(
+                userName, cursor == null ? Long.MAX_VALUE : cursor, Limit.of(size + 1));
+        boolean hasMore = bookings.size() > size;
+        if (hasMore) {
+            bookings = bookings.subList(0, size);
+        }
+        if (bookings.isEmpty()) {
+            return new BookingHistoryResponse(userName, List.of(), null);
+        }
+
+        Map<Long, List<BookedSeatDetail>> seatsByBooking = new HashMap<>(bookings.size() * 2);
+        for (BookingSeatView seat : bookingSeatRepository.findViewsByBookingIdIn(
+                bookings.stream().map(Booking::getId).toList())) {
+            seatsByBooking.computeIfAbsent(seat.bookingId(), id -> new ArrayList<>())
+                    .add(new BookedSeatDetail(seat.seatId(), seat.seatNumber(), seat.seatPrice(), seat.seatOrder()));
+        }
+
+        List<BookingSummary> summaries = bookings.stream()
+                .map(booking -> new BookingSummary(
+                        booking.getId(),
+                        booking.getEventId(),
+                        booking.getBookingOrder(),
+                        booking.getBookingStatus(),
+                        booking.getTotalSeats(),
+                        booking.getTotalPrice(),
+                        booking.getBookingDate(),
+                        seatsByBooking.getOrDefault(booking.getId(), List.of())))
+                .toList();
+
+        log.debug("Fetched {} bookings of user {} before {}", summaries.size(), userName, cursor);
+        return new BookingHistoryResponse(userName, summaries,
+                hasMore ? bookings.get(bookings.size() - 1).getId() : null);
+    }
+}
@@ -0,0 +1,335 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.BookedSeatDetail;
+import com.ticketing.dto.BookingMessage;
+import com.ticketing.dto.SeatState;
+import com.ticketing.model.OutboxMessageType;
+import com.ticketing.model.SeatStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Append-only binary journal of seat holds, releases, bookings and
+ * cancellations, written to memory-mapped segment files under
+ * ticketing.journal.dir once each change has committed.
+ *
+ * Appends are a copy into the mapped segment under a short lock; the page
+ * cache writes them out, and segments are forced to disk when a snapshot is
+ * taken and on shutdown. Every ticketing.journal.snapshot-millis the state
+ * built from the journal is written as a compact snapshot and the segments
+ * before it are deleted, so recovery reads one snapshot and a short tail.
+ * Events get a baseline of their seats from the database when they are
+ * initialized, and at startup when the journal does not know them yet.
+ */
+@Service
+@ConditionalOnProperty(prefix = "ticketing.journal", name = "enabled", havingValue = "true")
+@Slf4j
+public class BookingJournal {
+
+    private static final String EVENTS_SQL = "SELECT id FROM event ORDER BY id";
+    private static final String COUNTER_SQL = "SELECT sold_seats, last_booking_order FROM event_counter WHERE id = ?";
+    private static final String SEATS_SQL = "SELECT id, seat_number, status FROM seat WHERE event_id = ? ORDER BY seat_number";
+    private static final byte[] ZEROS = new byte[64 * 1024];
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path dir;
+    private final int segmentBytes;
+    private final boolean keepSegments;
+    private final Counter records;
+
+    private JournalState state;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentBase;
+    private long position;
+    private long snapshotPosition = -1;
+    private boolean closed;
+
+    public BookingJournal(JdbcTemplate jdbcTemplate, MeterRegistry registry,
+            @Value("${ticketing.journal.dir:journal}") Path dir,
+            @Value("${ticketing.journal.segment-bytes:67108864}") int segmentBytes,
+            @Value("${ticketing.journal.keep-segments:false}") boolean keepSegments) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.keepSegments = keepSegments;
+        this.records = Counter.builder("ticketing.journal.records")
+                .description("Entries appended to the booking journal")
+                .register(registry);
+    }
+
+    /**
+     * Recover the journal's state and continue after its last valid entry
+     */
+    @PostConstruct
+    void open() throws IOException {
+        Files.createDirectories(dir);
+        BookingJournalReader.Recovery recovery;
+        try {
+            recovery = BookingJournalReader.recover(dir);
+        } catch (IOException | RuntimeException e) {
+            Path aside = dir.resolveSibling(dir.getFileName() + ".broken-" + System.currentTimeMillis());
+            log.error("Booking journal in {} cannot be recovered, moving it to {} and starting over: {}",
+                    dir, aside, e.getMessage());
+            Files.move(dir, aside);
+            Files.createDirectories(dir);
+            recovery = BookingJournalReader.recover(dir);
+        }
+        state = recovery.state();
+        position = recovery.position();
+        snapshotPosition = recovery.snapshotPosition();
+
+        List<BookingJournalReader.Segment> segments = BookingJournalReader.segments(dir);
+        BookingJournalReader.Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last != null && last.base() <= position) {
+            map(last.path(), last.base(), (int) Files.size(last.path()));
+            // Clear a torn entry so that nothing after the new appends looks valid
+            int offset = (int) (position - segmentBase);
+            while (offset < segment.capacity()) {
+                int length = Math.min(ZEROS.length, segment.capacity() - offset);
+                segment.put(offset, ZEROS, 0, length);
+                offset += length;
+            }
+        } else {
+            map(BookingJournalReader.segmentPath(dir, position), position, segmentBytes);
+        }
+        log.info("Booking journal in {} recovered {} events at position {} in {} ms ({} entries after the snapshot)",
+                dir, state.events().size(), position, recovery.elapsedMillis(), recovery.replayedRecords());
+    }
+
+    /**
+     * Baseline the events the journal does not know yet
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void baselineUnknownEvents() {
+        for (Long eventId : jdbcTemplate.queryForList(EVENTS_SQL, Long.class)) {
+            synchronized (this) {
+                if (state.event(eventId) == null) {
+                    baseline(eventId);
+                }
+            }
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsInitialized(SeatsInitializedEvent event) {
+        synchronized (this) {
+            baseline(event.eventId());
+        }
+    }
+
+    /**
+     * Journal holds and releases; seats becoming booked are journaled with
+     * their booking
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatStatusChanged(SeatStatusChangedEvent event) {
+        List<SeatState> seats = event.seats().stream()
+                .filter(seat -> seat.getStatus() != SeatStatus.BOOKED)
+                .toList();
+        if (seats.isEmpty()) {
+            return;
+        }
+        int[] seatNumbers = new int[seats.size()];
+        byte[] statuses = new byte[seats.size()];
+        for (int i = 0; i < seats.size(); i++) {
+            seatNumbers[i] = seats.get(i).getSeatNumber();
+            statuses[i] = (byte) seats.get(i).getStatus().ordinal();
+        }
+        append(new JournalRecord.SeatsChanged(System.currentTimeMillis(), event.eventId(), seatNumbers, statuses));
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingsChanged(BookingsChangedEvent event) {
+        for (BookingMessage message : event.messages()) {
+            List<BookedSeatDetail> seats = message.getSeats();
+            int[] seatNumbers = new int[seats.size()];
+            int[] seatOrders = new int[seats.size()];
+            for (int i = 0; i < seats.size(); i++) {
+                seatNumbers[i] = seats.get(i).getSeatNumber();
+                seatOrders[i] = seats.get(i).getBookingOrder();
+            }
+            long timestamp = message.getOccurredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            append(message.getType() == OutboxMessageType.BOOKING_CONFIRMED
+                    ? new JournalRecord.BookingConfirmed(timestamp, message.getEventId(), message.getBookingId(),
+                            message.getBookingOrder(), seatNumbers, seatOrders)
+                    : new JournalRecord.BookingCancelled(timestamp, message.getEventId(), message.getBookingId(),
+                            seatNumbers));
+        }
+    }
+
+    /**
+     * Copy of an event's seat state as journaled so far
+     */
+    synchronized Optional<JournalState.EventState> eventState(Long eventId) {
+        return Optional.ofNullable(state.event(eventId)).map(JournalState.EventState::copy);
+    }
+
+    /**
+     * Write a snapshot of the journaled state and drop the segments it covers
+     */
+    @Scheduled(fixedDelayString = "${ticketing.journal.snapshot-millis:60000}",
+            initialDelayString = "${ticketing.journal.snapshot-millis:60000}")
+    public void snapshot() {
+        JournalState copy;
+        long at;
+        synchronized (this) {
+            if (closed || position == snapshotPosition) {
+                return;
+            }
+            segment.force();
+            copy = state.copy();
+            at = position;
+        }
+        try {
+            long started = System.nanoTime();
+            byte[] bytes = copy.toSnapshot(at);
+            Path file = BookingJournalReader.snapshotPath(dir, at);
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            synchronized (this) {
+                snapshotPosition = at;
+            }
+            log.info("Booking journal snapshot at position {}: {} events, {} bytes in {} ms",
+                    at, copy.events().size(), bytes.length, (System.nanoTime() - started) / 1_000_000);
+            if (!keepSegments) {
+                compact(at);
+            }
+        } catch (IOException e) {
+            log.error("Booking journal snapshot at position {} failed: {}", at, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        snapshot();
+        synchronized (this) {
+            closed = true;
+            segment.force();
+            channel.close();
+        }
+    }
+
+    /**
+     * Read an event's seats and counters from the database and journal them,
+     * holding the journal lock so no change is appended in between
+     */
+    private void baseline(Long eventId) {
+        List<int[]> counters = jdbcTemplate.query(COUNTER_SQL,
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)}, eventId);
+        if (counters.isEmpty()) {
+            return;
+        }
+        List<Long> seatIds = new ArrayList<>();
+        List<SeatStatus> statuses = new ArrayList<>();
+        boolean[] numbered = {true};
+        jdbcTemplate.query(SEATS_SQL, rs -> {
+            numbered[0] &= rs.getInt(2) == seatIds.size() + 1;
+            seatIds.add(rs.getLong(1));
+            statuses.add(SeatStatus.valueOf(rs.getString(3)));
+        }, eventId);
+        if (!numbered[0]) {
+            log.warn("Seats of event {} are not numbered from 1, the event is not journaled", eventId);
+            return;
+        }
+        long[] ids = new long[seatIds.size()];
+        byte[] states = new byte[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = seatIds.get(i);
+            states[i] = (byte) statuses.get(i).ordinal();
+        }
+        append(new JournalRecord.Baseline(System.currentTimeMillis(), eventId, ids, states,
+                counters.get(0)[0], counters.get(0)[1]));
+    }
+
+    /**
+     * Append an entry and apply it to the journaled state. A write that fails
+     * is logged and the journal stops; the change itself is already committed.
+     */
+    private void append(JournalRecord record) {
+        byte[] body = JournalCodec.encode(record);
+        int checksum = JournalCodec.checksum(body, 0, body.length);
+        int frameBytes = JournalCodec.FRAME_HEADER_BYTES + body.length;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            try {
+                if (position - segmentBase + frameBytes > segment.capacity()) {
+                    segment.force();
+                    channel.close();
+                    map(BookingJournalReader.segmentPath(dir, position), position, Math.max(segmentBytes, frameBytes));
+                }
+                int offset = (int) (position - segmentBase);
+                segment.putInt(offset + Integer.BYTES, checksum);
+                segment.put(offset + JournalCodec.FRAME_HEADER_BYTES, body);
+                // The length goes last: a reader sees the whole entry or none of it
+                segment.putInt(offset, body.length);
+                position += frameBytes;
+                state.apply(record);
+                records.increment();
+            } catch (IOException | RuntimeException e) {
+                closed = true;
+                log.error("Booking journal append at position {} failed, journaling stopped: {}", position, e.getMessage());
+            }
+        }
+    }
+
+    private void map(Path path, long base, int size) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        segmentBase = base;
+    }
+
+    /**
+     * Delete older snapshots and the segments that end before the given position
+     */
+    private void compact(long at) throws IOException {
+        for (BookingJournalReader.Segment snapshot : BookingJournalReader.snapshots(dir)) {
+            if (snapshot.base() < at) {
+                Files.deleteIfExists(snapshot.path());
+            }
+        }
+        List<BookingJournalReader.Segment> segments = BookingJournalReader.segments(dir);
+        for (int i = 0; i + 1 < segments.size() && segments.get(i + 1).base() <= at; i++) {
+            Files.deleteIfExists(segments.get(i).path());
+        }
+    }
+}
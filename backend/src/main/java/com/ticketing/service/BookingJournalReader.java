@@ -0,0 +1,174 @@
+package com.ticketing.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads a booking journal directory.
+ *
+ * Segments are named after the journal position of their first byte and
+ * snapshots after the position they were taken at, so recovery loads the
+ * newest snapshot and replays the entries from that position on. Reading
+ * stops at the first missing, torn or damaged frame of the last segment; a
+ * damaged frame anywhere else leaves a gap and fails the read.
+ */
+@Slf4j
+public final class BookingJournalReader {
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".snap";
+
+    /**
+     * State rebuilt from a journal directory and the position its entries end at
+     */
+    public record Recovery(JournalState state, long snapshotPosition, long position, int replayedRecords,
+            long elapsedMillis) {
+    }
+
+    record Segment(long base, Path path) {
+    }
+
+    private BookingJournalReader() {
+    }
+
+    /**
+     * Load the newest readable snapshot and replay the journal after it
+     */
+    public static Recovery recover(Path dir) throws IOException {
+        long started = System.nanoTime();
+        JournalState state = new JournalState();
+        long snapshotPosition = 0;
+        List<Segment> snapshots = snapshots(dir);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Segment snapshot = snapshots.get(i);
+            try {
+                JournalState loaded = new JournalState();
+                snapshotPosition = JournalState.fromSnapshot(ByteBuffer.wrap(Files.readAllBytes(snapshot.path())), loaded);
+                state = loaded;
+                break;
+            } catch (RuntimeException e) {
+                log.warn("Skipping unreadable journal snapshot {}: {}", snapshot.path(), e.getMessage());
+            }
+        }
+        JournalState recovered = state;
+        int[] replayed = {0};
+        long position = read(dir, snapshotPosition, record -> {
+            recovered.apply(record);
+            replayed[0]++;
+        });
+        return new Recovery(recovered, snapshotPosition, position, replayed[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Position of the oldest entry still in the directory; entries before it
+     * were compacted into a snapshot
+     */
+    public static long firstPosition(Path dir) throws IOException {
+        List<Segment> segments = segments(dir);
+        return segments.isEmpty() ? 0 : segments.get(0).base();
+    }
+
+    /**
+     * Pass every entry from the given position on to the consumer, returning
+     * the position after the last one
+     */
+    public static long read(Path dir, long fromPosition, Consumer<JournalRecord> consumer) throws IOException {
+        List<Segment> segments = segments(dir);
+        if (segments.isEmpty()) {
+            return fromPosition;
+        }
+        long position = fromPosition;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            if (i + 1 < segments.size() && segments.get(i + 1).base() <= position) {
+                continue;
+            }
+            if (segment.base() > position) {
+                throw new IOException("Journal in " + dir + " has no entries between position " + position
+                        + " and " + segment.base());
+            }
+            position = segment.base() + scan(segment.path(), (int) (position - segment.base()), consumer);
+        }
+        return position;
+    }
+
+    /**
+     * Read a segment's frames from the given offset, returning the offset
+     * after the last valid one
+     */
+    static int scan(Path path, int offset, Consumer<JournalRecord> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        while (offset + JournalCodec.FRAME_HEADER_BYTES <= buffer.limit()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > buffer.limit() - offset - JournalCodec.FRAME_HEADER_BYTES) {
+                break;
+            }
+            ByteBuffer body = buffer.slice(offset + JournalCodec.FRAME_HEADER_BYTES, length);
+            if (JournalCodec.checksum(body) != buffer.getInt(offset + Integer.BYTES)) {
+                log.warn("Journal segment {} has a damaged entry at offset {}", path.getFileName(), offset);
+                break;
+            }
+            consumer.accept(JournalCodec.decode(body));
+            offset += JournalCodec.FRAME_HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    static List<Segment> segments(Path dir) throws IOException {
+        return list(dir, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    static List<Segment> snapshots(Path dir) throws IOException {
+        return list(dir, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    }
+
+    static Path segmentPath(Path dir, long base) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, base, SEGMENT_SUFFIX));
+    }
+
+    static Path snapshotPath(Path dir, long position) {
+        return dir.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, position, SNAPSHOT_SUFFIX));
+    }
+
+    /**
+     * Files with the given prefix and suffix, ordered by the position in their name
+     */
+    private static List<Segment> list(Path dir, String prefix, String suffix) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(suffix)
+                                && name.length() > prefix.length() + suffix.length();
+                    })
+                    .map(file -> {
+                        String name = file.getFileName().toString();
+                        return new Segment(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())),
+                                file);
+                    })
+                    .sorted(Comparator.comparingLong(Segment::base))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.SlowBooking;
+import com.ticketing.exception.SeatsUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking latency, per-phase timings and failure counts.
+ *
+ * Every meter is registered up front, so recording on the booking path is a
+ * field read and an atomic add; nothing is looked up or allocated per request.
+ * Phases are also added up per booking on the booking's thread. The total is
+ * offered to the {@link SlowBookingLog}, and is committed as flight recorder
+ * events while a recording is running.
+ */
+@Component
+public class BookingMetrics {
+
+    /**
+     * Steps of a booking transaction that can hold it up
+     */
+    public enum Phase {
+        /** Row locks on the requested seats */
+        LOCK,
+        /** Row lock and update of the event counter */
+        COUNTER,
+        /** Booking and booking seat inserts */
+        INSERT,
+        /** Flush of the seat updates and the commit itself */
+        COMMIT
+    }
+
+    private enum Outcome {
+        CONFIRMED, CONFLICT, INVALID, ERROR
+    }
+
+    /**
+     * The booking running on a thread, reused from one booking to the next
+     */
+    private static final class BookingTrace {
+
+        final long[] phaseNanos = new long[Phase.values().length];
+        boolean active;
+        Long eventId;
+        int seats;
+        BookingFlightEvent flightEvent;
+    }
+
+    private final Map<Phase, Timer> phases = new EnumMap<>(Phase.class);
+    private final Map<Outcome, Timer> bookings = new EnumMap<>(Outcome.class);
+    private final Timer batches;
+    private final Counter conflicts;
+    private final Counter invalidSeats;
+    private final Counter retries;
+    private final Counter fallbacks;
+    private final String mode;
+    private final SlowBookingLog slowBookingLog;
+    private final ThreadLocal<BookingTrace> traces = ThreadLocal.withInitial(BookingTrace::new);
+
+    public BookingMetrics(MeterRegistry registry, SlowBookingLog slowBookingLog,
+            @Value("${ticketing.booking.mode:pessimistic}") String mode) {
+        this.mode = mode;
+        this.slowBookingLog = slowBookingLog;
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, Timer.builder("ticketing.booking.phase")
+                    .description("Time spent in one phase of a booking transaction")
+                    .tag("mode", mode)
+                    .tag("phase", phase.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            bookings.put(outcome, Timer.builder("ticketing.booking")
+                    .description("Booking requests from validation to response")
+                    .tag("mode", mode)
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        batches = Timer.builder("ticketing.booking.batch")
+                .description("Group commit transactions, one per micro-batch")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(registry);
+        conflicts = Counter.builder("ticketing.booking.conflicts")
+                .description("Bookings rejected because a seat was already taken")
+                .tag("mode", mode)
+                .register(registry);
+        invalidSeats = Counter.builder("ticketing.booking.invalid.seats")
+                .description("Bookings rejected because a seat ID does not belong to the event")
+                .tag("mode", mode)
+                .register(registry);
+        retries = Counter.builder("ticketing.booking.retries")
+                .description("Optimistic booking attempts retried after losing a race for a seat")
+                .tag("mode", mode)
+                .register(registry);
+        fallbacks = Counter.builder("ticketing.booking.fallbacks")
+                .description("Times an event switched from optimistic to pessimistic locking")
+                .tag("mode", mode)
+                .register(registry);
+    }
+
+    /**
+     * Start the phase breakdown of a booking attempt on this thread
+     */
+    public void startBooking(Long eventId, int seats) {
+        BookingTrace trace = traces.get();
+        Arrays.fill(trace.phaseNanos, 0);
+        trace.active = true;
+        trace.eventId = eventId;
+        trace.seats = seats;
+        trace.flightEvent = null;
+        if (BookingFlightEvent.TYPE.isEnabled()) {
+            trace.flightEvent = new BookingFlightEvent();
+            trace.flightEvent.begin();
+        }
+    }
+
+    public void recordPhase(Phase phase, long nanos) {
+        phases.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+        BookingTrace trace = traces.get();
+        if (trace.active) {
+            trace.phaseNanos[phase.ordinal()] += nanos;
+        }
+        BookingPhaseFlightEvent flightEvent = new BookingPhaseFlightEvent();
+        if (flightEvent.isEnabled()) {
+            flightEvent.mode = mode;
+            flightEvent.phase = phase.name().toLowerCase();
+            flightEvent.elapsed = nanos;
+            flightEvent.commit();
+        }
+    }
+
+    public void recordBatch(long nanos) {
+        batches.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    public void recordFallback() {
+        fallbacks.increment();
+    }
+
+    public void recordBooking(long nanos) {
+        bookings.get(Outcome.CONFIRMED).record(nanos, TimeUnit.NANOSECONDS);
+        finishBooking(Outcome.CONFIRMED, nanos);
+    }
+
+    /**
+     * Count a failed booking by its cause and time it under that outcome
+     */
+    public void recordFailure(RuntimeException failure, long nanos) {
+        Outcome outcome;
+        if (failure instanceof SeatsUnavailableException) {
+            outcome = Outcome.CONFLICT;
+            conflicts.increment();
+        } else if (failure instanceof IllegalArgumentException) {
+            outcome = Outcome.INVALID;
+            invalidSeats.increment();
+        } else {
+            outcome = Outcome.ERROR;
+        }
+        bookings.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+        finishBooking(outcome, nanos);
+    }
+
+    private void finishBooking(Outcome outcome, long nanos) {
+        BookingTrace trace = traces.get();
+        if (!trace.active) {
+            return;
+        }
+        trace.active = false;
+        if (trace.flightEvent != null) {
+            BookingFlightEvent flightEvent = trace.flightEvent;
+            trace.flightEvent = null;
+            flightEvent.mode = mode;
+            flightEvent.eventId = trace.eventId;
+            flightEvent.seats = trace.seats;
+            flightEvent.outcome = outcome.name().toLowerCase();
+            flightEvent.lock = trace.phaseNanos[Phase.LOCK.ordinal()];
+            flightEvent.counter = trace.phaseNanos[Phase.COUNTER.ordinal()];
+            flightEvent.insert = trace.phaseNanos[Phase.INSERT.ordinal()];
+            flightEvent.commit = trace.phaseNanos[Phase.COMMIT.ordinal()];
+            flightEvent.commit();
+        }
+        slowBookingLog.offer(nanos, () -> {
+            Map<String, Double> phaseMillis = new LinkedHashMap<>();
+            for (Phase phase : Phase.values()) {
+                phaseMillis.put(phase.name().toLowerCase(), trace.phaseNanos[phase.ordinal()] / 1e6);
+            }
+            return new SlowBooking(LocalDateTime.now(), Thread.currentThread().getName(), mode, trace.eventId,
+                    trace.seats, outcome.name().toLowerCase(), nanos / 1e6, phaseMillis);
+        });
+    }
+}
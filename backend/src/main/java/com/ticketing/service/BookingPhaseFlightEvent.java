@@ -0,0 +1,31 @@
+package com.ticketing.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for one phase of a booking transaction, committed as
+ * the phase ends. Phases are timed by the booking code, so the length is in
+ * elapsed rather than in the event's own duration.
+ */
+@Name("com.ticketing.BookingPhase")
+@Label("Booking Phase")
+@Category("Ticketing")
+@Description("Seat locks, event counter, inserts or flush and commit of a booking transaction")
+@StackTrace(false)
+final class BookingPhaseFlightEvent extends jdk.jfr.Event {
+
+    @Label("Mode")
+    String mode;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
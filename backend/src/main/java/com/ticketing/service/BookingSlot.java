@@ -0,0 +1,10 @@
+package com.ticketing.service;
+
+/**
+ * Seat positions and booking order handed out to one booking
+ *
+ * @param soldBefore   seats sold before this booking; its first seat takes position soldBefore + 1
+ * @param bookingOrder cumulative order of this booking within the event
+ */
+public record BookingSlot(int soldBefore, int bookingOrder) {
+}
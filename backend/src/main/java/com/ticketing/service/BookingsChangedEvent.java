@@ -0,0 +1,12 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.BookingMessage;
+
+import java.util.List;
+
+/**
+ * Published when bookings have been confirmed or cancelled, with the same
+ * messages the outbox carries
+ */
+public record BookingsChangedEvent(List<BookingMessage> messages) {
+}
@@ -0,0 +1,426 @@
+package com.ticketing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.dto.BookedSeatDetail;
+import com.ticketing.dto.BulkBookingItem;
+import com.ticketing.dto.BulkBookingResult;
+import com.ticketing.dto.SeatState;
+import com.ticketing.exception.EventNotFoundException;
+import com.ticketing.exception.SeatsUnavailableException;
+import com.ticketing.model.EventCounter;
+import com.ticketing.model.Seat;
+import com.ticketing.model.SeatStatus;
+import com.ticketing.repository.EventCounterRepository;
+import com.ticketing.repository.EventRepository;
+import com.ticketing.repository.SeatRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Books seats for box-office and partner group sales from a stream of booking
+ * requests, one JSON object per line.
+ *
+ * Lines are read one at a time and gathered into chunks of up to
+ * ticketing.bulk-booking.chunk-seats seats or lines. Each chunk is one
+ * transaction: its seats are locked in seat ID order, as on every other
+ * booking path, each line is decided in order against the seats taken so
+ * far, and the accepted bookings are written with JDBC batches. A chunk's
+ * results are handed back as soon as it commits, so memory use depends on
+ * the chunk size and not on the length of the stream. A failed chunk is
+ * rolled back on its own and its lines can be resubmitted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkBookingService {
+
+    private final EventRepository eventRepository;
+    private final SeatRepository seatRepository;
+    private final EventCounterRepository eventCounterRepository;
+    private final BookingBatchInserter bookingBatchInserter;
+    private final PendingBookingWriter pendingBookingWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Optional<InventoryBookingService> inventoryBookingService;
+    private final PricingService pricingService;
+    private final OutboxWriter outboxWriter;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+
+    @Value("${ticketing.bulk-booking.chunk-seats:1000}")
+    private int chunkSeats;
+
+    @Value("${ticketing.bulk-booking.max-seats-per-booking:100}")
+    private int maxSeatsPerBooking;
+
+    @Value("${ticketing.bulk-booking.max-line-length:8192}")
+    private int maxLineLength;
+
+    /**
+     * A parsed line; rejected is set when it failed validation and is not booked
+     */
+    private record Line(long number, BulkBookingItem item, BulkBookingResult rejected) {
+    }
+
+    /**
+     * Result of one line in a chunk: a booking to write, or the reason it was refused
+     */
+    private record Decision(Line line, PendingBooking booking, String status, String message) {
+    }
+
+    /**
+     * Book every line read from the stream, passing each chunk's results to
+     * the consumer in line order once the chunk has committed
+     *
+     * @throws EventNotFoundException before anything is read if the event does not exist
+     */
+    public void book(Long eventId, Reader requests, Consumer<List<BulkBookingResult>> results)
+            throws IOException {
+        if (!eventRepository.existsById(eventId)) {
+            throw new EventNotFoundException(eventId);
+        }
+        long start = System.nanoTime();
+        Map<String, Integer> counts = new TreeMap<>();
+
+        List<Line> chunk = new ArrayList<>();
+        int seatsInChunk = 0;
+        long number = 0;
+        LineReader reader = new LineReader(requests, maxLineLength);
+        String text;
+        while ((text = reader.readLine()) != null) {
+            number++;
+            Line line;
+            if (reader.tooLong()) {
+                line = new Line(number, null, rejected(number, null,
+                        "Line is longer than " + maxLineLength + " characters"));
+            } else if (text.isBlank()) {
+                continue;
+            } else {
+                line = parse(number, text);
+            }
+            int seats = line.rejected() == null ? line.item().getSeatIds().size() : 0;
+            if (!chunk.isEmpty() && (seatsInChunk + seats > chunkSeats || chunk.size() >= chunkSeats)) {
+                emit(processChunk(eventId, chunk), counts, results);
+                chunk = new ArrayList<>();
+                seatsInChunk = 0;
+            }
+            chunk.add(line);
+            seatsInChunk += seats;
+        }
+        if (!chunk.isEmpty()) {
+            emit(processChunk(eventId, chunk), counts, results);
+        }
+
+        log.info("Bulk booking for event {} answered {} lines in {} ms: {}", eventId,
+                counts.values().stream().mapToInt(Integer::intValue).sum(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), counts);
+    }
+
+    private static void emit(List<BulkBookingResult> chunkResults, Map<String, Integer> counts,
+            Consumer<List<BulkBookingResult>> results) {
+        chunkResults.forEach(result -> counts.merge(result.getStatus(), 1, Integer::sum));
+        results.accept(chunkResults);
+    }
+
+    private Line parse(long number, String text) {
+        BulkBookingItem item;
+        try {
+            item = objectMapper.readValue(text, BulkBookingItem.class);
+        } catch (JsonProcessingException e) {
+            return new Line(number, null, rejected(number, null, "Malformed JSON: " + e.getOriginalMessage()));
+        }
+        if (item == null) {
+            return new Line(number, null, rejected(number, null, "Expected a booking object"));
+        }
+        Set<ConstraintViolation<BulkBookingItem>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return new Line(number, item, rejected(number, item.getReference(), violations.iterator().next().getMessage()));
+        }
+        List<Long> seatIds = item.getSeatIds();
+        if (seatIds.size() > maxSeatsPerBooking) {
+            return new Line(number, item, rejected(number, item.getReference(),
+                    "Cannot book more than " + maxSeatsPerBooking + " seats in a single booking"));
+        }
+        if (new HashSet<>(seatIds).size() != seatIds.size()) {
+            return new Line(number, item, rejected(number, item.getReference(), "Seat IDs must not repeat"));
+        }
+        return new Line(number, item, null);
+    }
+
+    /**
+     * Book the valid lines of a chunk and merge their results with the
+     * rejected lines, in line order
+     */
+    private List<BulkBookingResult> processChunk(Long eventId, List<Line> chunk) {
+        List<Line> lines = chunk.stream().filter(line -> line.rejected() == null).collect(Collectors.toList());
+        List<BulkBookingResult> booked;
+        try {
+            booked = lines.isEmpty() ? List.of()
+                    : inventoryBookingService.isPresent() ? bookInMemory(eventId, lines)
+                    : transactionTemplate.execute(status -> bookWithLocks(eventId, lines));
+        } catch (RuntimeException e) {
+            log.error("Bulk booking chunk of {} lines starting at line {} for event {} failed: {}",
+                    chunk.size(), chunk.get(0).number(), eventId, e.getMessage());
+            booked = lines.stream()
+                    .map(line -> result(line, BulkBookingResult.FAILED, "Not booked, the chunk was rolled back"))
+                    .collect(Collectors.toList());
+        }
+
+        List<BulkBookingResult> results = new ArrayList<>(chunk.size());
+        int next = 0;
+        for (Line line : chunk) {
+            results.add(line.rejected() != null ? line.rejected() : booked.get(next++));
+        }
+        return results;
+    }
+
+    /**
+     * Lock the chunk's seats and then the event counter, decide each line
+     * against the seats taken so far and write the accepted bookings
+     */
+    private List<BulkBookingResult> bookWithLocks(Long eventId, List<Line> lines) {
+        // The request keeps one persistence context across chunks (open in
+        // view), and seat statuses are changed with bulk updates, so seats
+        // loaded by earlier chunks are stale; dropping them also keeps the
+        // context from growing with the stream
+        entityManager.clear();
+        List<Long> requestedIds = lines.stream()
+                .flatMap(line -> line.item().getSeatIds().stream())
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        Map<Long, Seat> seats = seatRepository.findByIdInWithLock(eventId, requestedIds).stream()
+                .collect(Collectors.toMap(Seat::getId, Function.identity()));
+        EventCounter counter = eventCounterRepository.findByIdWithLock(eventId)
+                .orElseThrow(() -> new EventNotFoundException(eventId));
+        PriceTable prices = pricingService.priceTable(eventId);
+
+        Set<Long> taken = new HashSet<>();
+        List<SeatState> changed = new ArrayList<>();
+        List<Decision> decisions = new ArrayList<>(lines.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Line line : lines) {
+            List<Long> seatIds = line.item().getSeatIds();
+            if (!seats.keySet().containsAll(seatIds)) {
+                decisions.add(new Decision(line, null, BulkBookingResult.INVALID, "One or more seat IDs are invalid"));
+                continue;
+            }
+            String unavailable = seatIds.stream()
+                    .map(seats::get)
+                    .filter(seat -> seat.getStatus() != SeatStatus.AVAILABLE || taken.contains(seat.getId()))
+                    .map(seat -> String.valueOf(seat.getSeatNumber()))
+                    .collect(Collectors.joining(", "));
+            if (!unavailable.isEmpty()) {
+                decisions.add(new Decision(line, null, BulkBookingResult.CONFLICT, "Seats already booked: " + unavailable));
+                continue;
+            }
+
+            int seatOrder = counter.getSoldSeats();
+            int bookingOrder = counter.getLastBookingOrder() + 1;
+            BigDecimal totalPrice = PricingService.toAmount(prices.totalCents(seatOrder, seatIds.size()));
+            List<BookedSeatDetail> details = new ArrayList<>(seatIds.size());
+            for (Long seatId : seatIds) {
+                Seat seat = seats.get(seatId);
+                seatOrder++;
+                details.add(new BookedSeatDetail(seat.getId(), seat.getSeatNumber(),
+                        PricingService.toAmount(prices.priceCents(seatOrder)), seatOrder));
+                changed.add(new SeatState(seat.getId(), seat.getSeatNumber(), SeatStatus.BOOKED));
+                taken.add(seatId);
+            }
+            counter.setSoldSeats(seatOrder);
+            counter.setLastBookingOrder(bookingOrder);
+
+            decisions.add(new Decision(line, new PendingBooking(eventId, line.item().getUserName(),
+                    bookingOrder, totalPrice, now, details), BulkBookingResult.CONFIRMED, null));
+        }
+
+        List<PendingBooking> accepted = accepted(decisions);
+        List<Long> bookingIds = bookingBatchInserter.insert(accepted);
+        if (!taken.isEmpty()) {
+            seatRepository.updateStatus(new ArrayList<>(taken), SeatStatus.BOOKED);
+            eventPublisher.publishEvent(new SeatStatusChangedEvent(eventId, changed));
+        }
+        outboxWriter.bookingsConfirmed(bookingIds, accepted);
+        return results(decisions, bookingIds);
+    }
+
+    /**
+     * Claim each line's seats in the in-memory inventory, which decides
+     * bookings in that mode, then write the chunk's bookings at once rather
+     * than through the write-behind queue, so results carry booking IDs
+     */
+    private List<BulkBookingResult> bookInMemory(Long eventId, List<Line> lines) {
+        InventoryBookingService inventory = inventoryBookingService.get();
+        List<Decision> decisions = new ArrayList<>(lines.size());
+        for (Line line : lines) {
+            try {
+                decisions.add(new Decision(line, inventory.claim(eventId, line.item().getSeatIds(),
+                        line.item().getUserName()), BulkBookingResult.CONFIRMED, null));
+            } catch (SeatsUnavailableException e) {
+                decisions.add(new Decision(line, null, BulkBookingResult.CONFLICT, e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                decisions.add(new Decision(line, null, BulkBookingResult.INVALID, e.getMessage()));
+            } catch (RuntimeException e) {
+                decisions.add(new Decision(line, null, BulkBookingResult.FAILED, "Not booked: " + e.getMessage()));
+            }
+        }
+
+        List<PendingBooking> accepted = accepted(decisions);
+        List<Long> bookingIds;
+        try {
+            bookingIds = accepted.isEmpty() ? List.of() : pendingBookingWriter.write(accepted);
+            inventory.written(accepted);
+        } catch (RuntimeException e) {
+            // The seats, positions and booking orders are taken and others may
+            // have been taken after them, so nothing is given back; the
+            // write-behind stage writes these bookings instead
+            log.error("Writing {} bulk bookings for event {} failed, handing them to the write-behind stage: {}",
+                    accepted.size(), eventId, e.getMessage());
+            inventory.writeBehind(accepted);
+            bookingIds = null;
+        }
+        if (!accepted.isEmpty()) {
+            eventPublisher.publishEvent(new SeatStatusChangedEvent(eventId, accepted.stream()
+                    .flatMap(booking -> booking.seats().stream())
+                    .map(seat -> new SeatState(seat.getSeatId(), seat.getSeatNumber(), SeatStatus.BOOKED))
+                    .collect(Collectors.toList())));
+        }
+        return results(decisions, bookingIds);
+    }
+
+    private static List<PendingBooking> accepted(List<Decision> decisions) {
+        return decisions.stream()
+                .map(Decision::booking)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Results in decision order; bookingIds are those of the accepted
+     * decisions, in order, or null if they are still to be written
+     */
+    private static List<BulkBookingResult> results(List<Decision> decisions, List<Long> bookingIds) {
+        List<BulkBookingResult> results = new ArrayList<>(decisions.size());
+        int next = 0;
+        for (Decision decision : decisions) {
+            PendingBooking booking = decision.booking();
+            if (booking == null) {
+                results.add(result(decision.line(), decision.status(), decision.message()));
+                continue;
+            }
+            if (bookingIds == null) {
+                results.add(new BulkBookingResult(decision.line().number(), decision.line().item().getReference(),
+                        BulkBookingResult.PENDING, "Booking accepted for " + booking.userName()
+                                + ", it will be written shortly",
+                        null, booking.totalPrice(), booking.seats()));
+                continue;
+            }
+            results.add(new BulkBookingResult(decision.line().number(), decision.line().item().getReference(),
+                    BulkBookingResult.CONFIRMED, "Booking confirmed for " + booking.userName(),
+                    bookingIds.get(next++), booking.totalPrice(), booking.seats()));
+        }
+        return results;
+    }
+
+    private static BulkBookingResult result(Line line, String status, String message) {
+        return new BulkBookingResult(line.number(), line.item().getReference(), status, message, null, null, null);
+    }
+
+    private static BulkBookingResult rejected(long number, String reference, String message) {
+        return new BulkBookingResult(number, reference, BulkBookingResult.INVALID, message, null, null, null);
+    }
+
+    /**
+     * Reads lines of up to a maximum length. The rest of a longer line is
+     * skipped rather than buffered, and tooLong() reports it.
+     */
+    private static final class LineReader {
+
+        private final Reader in;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean tooLong;
+
+        LineReader(Reader in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * Next line without its terminator, or null at the end of the stream
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(in.read(buffer), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return read ? finish() : null;
+                    }
+                }
+                read = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                // One extra character is kept for a trailing carriage return
+                int room = maxLength + 1 - line.length();
+                if (position - start > room) {
+                    tooLong = true;
+                }
+                line.append(buffer, start, Math.min(position - start, Math.max(room, 0)));
+                if (position < limit) {
+                    position++;
+                    return finish();
+                }
+            }
+        }
+
+        boolean tooLong() {
+            return tooLong;
+        }
+
+        private String finish() {
+            if (!tooLong && line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+                line.setLength(line.length() - 1);
+            }
+            if (line.length() > maxLength) {
+                tooLong = true;
+            }
+            return tooLong ? "" : line.toString();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.BulkCancellationResponse;
+import com.ticketing.dto.CancellationResponse;
+import com.ticketing.dto.SeatState;
+import com.ticketing.exception.BookingNotFoundException;
+import com.ticketing.exception.EventNotFoundException;
+import com.ticketing.model.Booking;
+import com.ticketing.model.BookingSeat;
+import com.ticketing.model.BookingStatus;
+import com.ticketing.model.Seat;
+import com.ticketing.model.SeatStatus;
+import com.ticketing.repository.BookingRepository;
+import com.ticketing.repository.BookingSeatRepository;
+import com.ticketing.repository.EventCounterRepository;
+import com.ticketing.repository.EventRepository;
+import com.ticketing.repository.SeatRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels confirmed bookings and puts their seats back on sale.
+ *
+ * A cancellation is a handful of set-based statements in one transaction: the
+ * bookings and their seats change status, the event counter's released seats
+ * go up and the freed seats are published, so seat maps, the best-available
+ * index and the remaining-seats gauges pick them up without a rescan. Bulk
+ * cancellations run in chunks of ticketing.cancellation.batch-size, one
+ * transaction each, so locks stay short and a failed chunk does not undo the
+ * ones before it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CancellationService {
+
+    private final EventRepository eventRepository;
+    private final SeatRepository seatRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingSeatRepository bookingSeatRepository;
+    private final EventCounterRepository eventCounterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Optional<InventoryBookingService> inventoryBookingService;
+    private final OutboxWriter outboxWriter;
+
+    @Value("${ticketing.cancellation.batch-size:500}")
+    private int batchSize;
+
+    private record Cancelled(List<Booking> bookings, List<BookingSeat> bookingSeats) {
+
+        BigDecimal refundTotal() {
+            return bookings.stream()
+                    .map(Booking::getTotalPrice)
+                    .filter(Objects::nonNull)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+    }
+
+    /**
+     * Cancel one confirmed booking and release its seats
+     */
+    public CancellationResponse cancelBooking(Long bookingId) {
+        Cancelled cancelled = transactionTemplate.execute(status -> {
+            Booking booking = bookingRepository.findByIdWithLock(bookingId)
+                    .orElseThrow(() -> new BookingNotFoundException(bookingId));
+            if (booking.getBookingStatus() != BookingStatus.CONFIRMED) {
+                throw new IllegalStateException("Booking " + bookingId + " is "
+                        + booking.getBookingStatus().name().toLowerCase() + ", only confirmed bookings can be cancelled");
+            }
+            return cancel(List.of(booking));
+        });
+        releaseInMemory(cancelled.bookingSeats());
+
+        Booking booking = cancelled.bookings().get(0);
+        log.debug("Booking {} cancelled, released {} seats of event {}",
+                bookingId, cancelled.bookingSeats().size(), booking.getEventId());
+        return new CancellationResponse(
+                true,
+                "Booking " + bookingId + " cancelled",
+                bookingId,
+                booking.getEventId(),
+                cancelled.refundTotal(),
+                seatIdsOf(cancelled.bookingSeats()));
+    }
+
+    /**
+     * Cancel the confirmed bookings among the given IDs in chunks; IDs that are
+     * unknown or not confirmed are skipped
+     */
+    public BulkCancellationResponse cancelBookings(List<Long> bookingIds) {
+        List<Long> ids = bookingIds.stream().distinct().sorted().toList();
+        BulkCancellationResponse result = new BulkCancellationResponse(ids.size(), 0, 0, 0, 0, BigDecimal.ZERO);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            cancelChunk(ids.subList(from, Math.min(from + batchSize, ids.size())), result);
+        }
+        result.setSkipped(result.getRequested() - result.getCancelled() - result.getFailed());
+        log.info("Bulk cancellation of {} bookings: {} cancelled, {} skipped, {} failed",
+                result.getRequested(), result.getCancelled(), result.getSkipped(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * Cancel every confirmed booking of an event, for example when it is called
+     * off, walking the booking IDs in chunks
+     */
+    public BulkCancellationResponse cancelEventBookings(Long eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new EventNotFoundException(eventId);
+        }
+        // Bookings accepted in memory have no row to cancel until they are written
+        if (inventoryBookingService.isPresent()) {
+            try {
+                inventoryBookingService.get().awaitWriteBehind(eventId, 30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for pending bookings");
+            }
+        }
+
+        BulkCancellationResponse result = new BulkCancellationResponse(0, 0, 0, 0, 0, BigDecimal.ZERO);
+        long afterId = 0;
+        while (true) {
+            List<Long> chunk = bookingRepository.findIdsByEventIdAndStatusAfter(
+                    eventId, BookingStatus.CONFIRMED, afterId, Limit.of(batchSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            result.setRequested(result.getRequested() + chunk.size());
+            cancelChunk(chunk, result);
+            afterId = chunk.get(chunk.size() - 1);
+        }
+        result.setSkipped(result.getRequested() - result.getCancelled() - result.getFailed());
+        log.info("Cancelled {} bookings of event {} releasing {} seats, {} failed",
+                result.getCancelled(), eventId, result.getReleasedSeats(), result.getFailed());
+        return result;
+    }
+
+    private void cancelChunk(List<Long> chunk, BulkCancellationResponse result) {
+        try {
+            Cancelled cancelled = transactionTemplate.execute(status ->
+                    cancel(bookingRepository.findByIdInAndStatusWithLock(chunk, BookingStatus.CONFIRMED)));
+            releaseInMemory(cancelled.bookingSeats());
+            result.setCancelled(result.getCancelled() + cancelled.bookings().size());
+            result.setReleasedSeats(result.getReleasedSeats() + cancelled.bookingSeats().size());
+            result.setRefundTotal(result.getRefundTotal().add(cancelled.refundTotal()));
+        } catch (RuntimeException e) {
+            log.error("Failed to cancel {} bookings starting at {}: {}", chunk.size(), chunk.get(0), e.getMessage());
+            result.setFailed(result.getFailed() + chunk.size());
+        }
+    }
+
+    /**
+     * Cancel locked confirmed bookings, free their seats and count the seats as
+     * released. Counters are updated in event ID order, after the seats, the
+     * same order bookings take their locks in.
+     */
+    private Cancelled cancel(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return new Cancelled(List.of(), List.of());
+        }
+        List<Long> bookingIds = bookings.stream().map(Booking::getId).toList();
+        List<BookingSeat> bookingSeats = bookingSeatRepository.findWithSeatByBookingIdIn(bookingIds);
+
+        bookingRepository.updateStatus(bookingIds, BookingStatus.CANCELLED);
+        seatRepository.updateStatus(seatIdsOf(bookingSeats), SeatStatus.AVAILABLE);
+
+        Map<Long, List<SeatState>> freedByEvent = bookingSeats.stream()
+                .map(BookingSeat::getSeat)
+                .collect(Collectors.groupingBy(Seat::getEventId, TreeMap::new,
+                        Collectors.mapping(seat -> new SeatState(seat.getId(), seat.getSeatNumber(), SeatStatus.AVAILABLE),
+                                Collectors.toList())));
+        freedByEvent.forEach((eventId, seats) -> {
+            eventCounterRepository.addReleasedSeats(eventId, seats.size());
+            eventPublisher.publishEvent(new SeatStatusChangedEvent(eventId, seats));
+        });
+        outboxWriter.bookingsCancelled(bookings, bookingSeats);
+        return new Cancelled(bookings, bookingSeats);
+    }
+
+    /**
+     * Mirror freed seats in the inventory. The database is already committed,
+     * so a mismatch (for example after the event was re-initialized) is only logged.
+     */
+    private void releaseInMemory(List<BookingSeat> bookingSeats) {
+        inventoryBookingService.ifPresent(inventory -> bookingSeats.stream()
+                .collect(Collectors.groupingBy(bookingSeat -> bookingSeat.getSeat().getEventId(),
+                        Collectors.mapping(bookingSeat -> bookingSeat.getSeat().getId(), Collectors.toList())))
+                .forEach((eventId, seatIds) -> {
+                    try {
+                        inventory.transition(eventId, seatIds, SeatStatus.BOOKED, SeatStatus.AVAILABLE);
+                    } catch (RuntimeException e) {
+                        log.warn("Could not release seats {} of event {} in memory: {}", seatIds, eventId, e.getMessage());
+                    }
+                }));
+    }
+
+    private static List<Long> seatIdsOf(List<BookingSeat> bookingSeats) {
+        return bookingSeats.stream()
+                .map(bookingSeat -> bookingSeat.getSeat().getId())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,56 @@
+package com.ticketing.service;
+
+/**
+ * Conflict rate of optimistic bookings for one event, as an exponentially
+ * weighted average over roughly the last window attempts.
+ *
+ * Once the rate crosses the threshold the event is booked pessimistically for
+ * a cooldown period. The rate is kept across the switch, so after the
+ * cooldown a single conflict switches back while a run of clean bookings
+ * brings it down.
+ */
+final class ContentionMonitor {
+
+    private final double weight;
+    private final double threshold;
+    private final int minSamples;
+    private final long cooldownNanos;
+
+    private double rate;
+    private long samples;
+    private long pessimisticUntil;
+    private boolean pessimistic;
+
+    ContentionMonitor(double threshold, int window, long cooldownNanos) {
+        this.weight = 2d / (window + 1);
+        this.threshold = threshold;
+        this.minSamples = window;
+        this.cooldownNanos = cooldownNanos;
+    }
+
+    /**
+     * Record an optimistic attempt; returns true if it switched the event to
+     * pessimistic locking
+     */
+    synchronized boolean record(boolean conflict, long nowNanos) {
+        rate += weight * ((conflict ? 1 : 0) - rate);
+        samples++;
+        if (conflict && samples >= minSamples && rate > threshold && !isPessimistic(nowNanos)) {
+            pessimistic = true;
+            pessimisticUntil = nowNanos + cooldownNanos;
+            return true;
+        }
+        return false;
+    }
+
+    synchronized boolean isPessimistic(long nowNanos) {
+        if (pessimistic && nowNanos - pessimisticUntil >= 0) {
+            pessimistic = false;
+        }
+        return pessimistic;
+    }
+
+    synchronized double rate() {
+        return rate;
+    }
+}
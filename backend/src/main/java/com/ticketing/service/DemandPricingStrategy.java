@@ -0,0 +1,31 @@
+package com.ticketing.service;
+
+/**
+ * Price that rises with the share of the event already sold: base price for
+ * the first seat, approaching the max price for the last, along
+ * (sold / capacity) ^ exponent and rounded down to a price step
+ */
+public final class DemandPricingStrategy implements PricingStrategy {
+
+    private final long baseCents;
+    private final long maxCents;
+    private final double exponent;
+    private final long stepCents;
+
+    public DemandPricingStrategy(long baseCents, long maxCents, double exponent, long stepCents) {
+        if (maxCents < baseCents || exponent <= 0 || stepCents < 1) {
+            throw new IllegalArgumentException("Demand pricing needs max >= base price, a positive exponent and step");
+        }
+        this.baseCents = baseCents;
+        this.maxCents = maxCents;
+        this.exponent = exponent;
+        this.stepCents = stepCents;
+    }
+
+    @Override
+    public long priceCents(int position, int capacity) {
+        double sold = Math.min(1.0, (position - 1) / (double) Math.max(1, capacity));
+        long surcharge = (long) ((maxCents - baseCents) * Math.pow(sold, exponent));
+        return baseCents + surcharge / stepCents * stepCents;
+    }
+}
@@ -2,17 +2,28 @@ package com.ticketing.service;
 
 import com.ticketing.dto.BookingRequest;
 import com.ticketing.dto.BookingResponse;
+import com.ticketing.dto.CreateEventRequest;
+import com.ticketing.dto.SeatState;
+import com.ticketing.exception.EventNotFoundException;
+import com.ticketing.exception.SeatsUnavailableException;
 import com.ticketing.model.*;
 import com.ticketing.repository.BookingRepository;
+import com.ticketing.repository.BookingSeatRepository;
+import com.ticketing.repository.EventCounterRepository;
+import com.ticketing.repository.EventRepository;
 import com.ticketing.repository.SeatRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,65 +31,242 @@ import java.util.stream.Collectors;
 @Slf4j
 public class EventService {
 
+    private final EventRepository eventRepository;
     private final SeatRepository seatRepository;
     private final BookingRepository bookingRepository;
+    private final BookingSeatRepository bookingSeatRepository;
+    private final EventCounterRepository eventCounterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SeatBulkLoader seatBulkLoader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Optional<InventoryBookingService> inventoryBookingService;
+    private final Optional<GroupCommitBookingService> groupCommitBookingService;
+    private final Optional<OptimisticBookingService> optimisticBookingService;
+    private final BestAvailableSeatService bestAvailableSeatService;
+    private final PricingService pricingService;
+    private final BookingMetrics bookingMetrics;
+    private final OutboxWriter outboxWriter;
 
     private static final int TOTAL_SEATS = 100;
-    private static final BigDecimal TIER1_PRICE = new BigDecimal("50.00");
-    private static final BigDecimal TIER2_PRICE = new BigDecimal("75.00");
-    private static final BigDecimal TIER3_PRICE = new BigDecimal("100.00");
+    private static final int MAX_SEATS_PER_BOOKING = 5;
+    private static final int BEST_AVAILABLE_ATTEMPTS = 3;
+    private static final String DEFAULT_EVENT_NAME = "Default Event";
+
+    // Events are never deleted, so the default event ID is fixed once found
+    private volatile Long defaultEventId;
 
     /**
-     * Initialize event with 100 seats
+     * Create a new event with its seats and counter
      */
     @Transactional
-    public String initializeEvent(int numberOfSeats) {
-        log.info("Initializing event with {} seats", numberOfSeats);
+    public Event createEvent(CreateEventRequest request) {
+        log.info("Creating event '{}' with {} seats", request.getName(), request.getNumberOfSeats());
 
-        // Clear existing seats
-        seatRepository.deleteAll();
+        Event event = eventRepository.save(new Event(request.getName(), request.getNumberOfSeats()));
+        eventCounterRepository.save(new EventCounter(event.getId(), 0, 0));
+        createSeats(event.getId(), request.getNumberOfSeats());
+        eventPublisher.publishEvent(new SeatsInitializedEvent(event.getId(), request.getNumberOfSeats()));
+
+        log.info("Event {} created with {} seats", event.getId(), request.getNumberOfSeats());
+        return event;
+    }
 
-        // Create 100 seats using batch insert for optimization
-        List<Seat> seats = new java.util.ArrayList<>(numberOfSeats);
-        for (int i = 1; i <= numberOfSeats; i++) {
-            seats.add(new Seat(i));
+    /**
+     * Get all events
+     */
+    @Transactional(readOnly = true)
+    public List<Event> getAllEvents() {
+        return eventRepository.findAll();
+    }
+
+    /**
+     * ID of the event served by the endpoints that predate multi-event support
+     */
+    public Long getDefaultEventId() {
+        Long eventId = defaultEventId;
+        if (eventId == null) {
+            eventId = eventRepository.findFirstByOrderByIdAsc()
+                    .map(Event::getId)
+                    .orElseThrow(() -> new EventNotFoundException("No event has been initialized yet"));
+            defaultEventId = eventId;
         }
+        return eventId;
+    }
 
-        // Batch insert all seats in a single operation
-        seatRepository.saveAll(seats);
+    /**
+     * Initialize the default event, creating it on first use
+     */
+    @Transactional
+    public String initializeDefaultEvent(int numberOfSeats) {
+        return eventRepository.findFirstByOrderByIdAsc()
+                .map(event -> initializeEvent(event.getId(), numberOfSeats))
+                .orElseGet(() -> {
+                    createEvent(new CreateEventRequest(DEFAULT_EVENT_NAME, numberOfSeats));
+                    return "Event initialized with " + numberOfSeats + " seats";
+                });
+    }
+
+    /**
+     * Initialize event with 100 seats
+     */
+    @Transactional
+    public String initializeEvent(Long eventId, int numberOfSeats) {
+        log.info("Initializing event {} with {} seats", eventId, numberOfSeats);
+
+        // Stop claims in memory and make sure the bookings already accepted reach
+        // the database before seats are replaced
+        if (inventoryBookingService.isPresent()) {
+            try {
+                inventoryBookingService.get().fenceForReset(eventId, 30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for pending bookings");
+            }
+        }
 
-        log.info("Event initialized successfully with {} seats", numberOfSeats);
+        // Lock in the order the booking paths do: holds and cancellations lock
+        // bookings before seats, and every path locks seats in ID order before
+        // the counter. Bookings that already hold some of these locks finish
+        // first; later ones wait for the reset.
+        bookingRepository.lockIdsByEventId(eventId);
+        seatRepository.lockIdsByEventId(eventId);
+        EventCounter counter = lockEventCounter(eventId);
+
+        // Clear this event's bookings and seats with set-based deletes
+        bookingSeatRepository.deleteByEventId(eventId);
+        bookingRepository.deleteByEventId(eventId);
+        seatRepository.deleteByEventId(eventId);
+
+        createSeats(eventId, numberOfSeats);
+
+        Event event = eventRepository.findById(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
+        event.setTotalSeats(numberOfSeats);
+        counter.setSoldSeats(0);
+        counter.setLastBookingOrder(0);
+        counter.setReleasedSeats(0);
+
+        eventPublisher.publishEvent(new SeatsInitializedEvent(eventId, numberOfSeats));
+
+        log.info("Event {} initialized successfully with {} seats", eventId, numberOfSeats);
         return "Event initialized with " + numberOfSeats + " seats";
     }
 
     /**
-     * Get all seats with their current status
+     * Get all seats of an event with their current status
      */
     @Transactional(readOnly = true)
-    public List<Seat> getAllSeats() {
-        log.info("Fetching all seats");
-        return seatRepository.findAll();
+    public List<Seat> getAllSeats(Long eventId) {
+        log.debug("Fetching all seats for event {}", eventId);
+        List<Seat> seats = seatRepository.findByEventIdOrderBySeatNumber(eventId);
+        if (seats.isEmpty() && !eventRepository.existsById(eventId)) {
+            throw new EventNotFoundException(eventId);
+        }
+        if (inventoryBookingService.isPresent()) {
+            return inventoryBookingService.get().withCurrentStatus(eventId, seats);
+        }
+        return seats;
     }
 
     /**
-     * Book seats with dynamic pricing based on booking order
+     * Book seats with dynamic pricing based on booking order; without seat IDs
+     * the best available numberOfSeats seats are chosen
      */
-    @Transactional
-    public BookingResponse bookSeats(BookingRequest request) {
-        log.info("Processing booking request for user: {} with seats: {}",
-                request.getUserName(), request.getSeatIds());
+    public BookingResponse bookSeats(Long eventId, BookingRequest request) {
+        log.debug("Processing booking request for event {} user: {} with seats: {}",
+                eventId, request.getUserName(), request.getSeatIds());
 
+        if (request.getSeatIds() == null || request.getSeatIds().isEmpty()) {
+            return bookBestAvailable(eventId, request);
+        }
+        if (request.getSeatIds().size() > MAX_SEATS_PER_BOOKING) {
+            throw new IllegalArgumentException("Cannot book more than 5 seats in a single booking");
+        }
+        return bookSelectedSeats(eventId, request);
+    }
 
-          if(request.getSeatIds().size()>5) {
-              throw new IllegalArgumentException("Cannot book more than 5 seats in a single booking");
-          }
+    /**
+     * Pick adjacent seats and book them, picking again if another booking
+     * claimed them first
+     */
+    private BookingResponse bookBestAvailable(Long eventId, BookingRequest request) {
+        if (request.getNumberOfSeats() == null || request.getNumberOfSeats() < 1) {
+            throw new IllegalArgumentException("Either seatIds or a positive numberOfSeats is required");
+        }
+        if (request.getNumberOfSeats() > MAX_SEATS_PER_BOOKING) {
+            throw new IllegalArgumentException("Cannot book more than 5 seats in a single booking");
+        }
+        int count = request.getNumberOfSeats().intValue();
+
+        for (int attempt = 1; ; attempt++) {
+            List<Long> seatIds = bestAvailableSeatService.pick(eventId, count);
+            if (seatIds == null) {
+                throw new SeatsUnavailableException("Not enough seats available for " + count + " seats");
+            }
+            try {
+                return bookSelectedSeats(eventId,
+                        new BookingRequest(request.getNumberOfSeats(), seatIds, request.getUserName()));
+            } catch (SeatsUnavailableException e) {
+                if (attempt == BEST_AVAILABLE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Best-available seats {} for event {} were taken, picking again", seatIds, eventId);
+            } finally {
+                bestAvailableSeatService.release(eventId, seatIds);
+            }
+        }
+    }
 
-        // 1. Fetch seats with pessimistic lock to prevent concurrent booking
-        List<Seat> seats = seatRepository.findByIdInWithLock(request.getSeatIds());
+    /**
+     * Book specific seats with the configured booking mode, timing each
+     * attempt by its outcome
+     */
+    private BookingResponse bookSelectedSeats(Long eventId, BookingRequest request) {
+        long start = System.nanoTime();
+        bookingMetrics.startBooking(eventId, request.getSeatIds().size());
+        try {
+            BookingResponse response = bookWithMode(eventId, request);
+            bookingMetrics.recordBooking(System.nanoTime() - start);
+            return response;
+        } catch (RuntimeException e) {
+            bookingMetrics.recordFailure(e, System.nanoTime() - start);
+            throw e;
+        }
+    }
 
-        
+    private BookingResponse bookWithMode(Long eventId, BookingRequest request) {
+        if (inventoryBookingService.isPresent()) {
+            return inventoryBookingService.get().bookSeats(eventId, request);
+        }
+        if (groupCommitBookingService.isPresent()) {
+            return groupCommitBookingService.get().bookSeats(eventId, request);
+        }
+        // Contended events fall back to the row-locking path below
+        if (optimisticBookingService.isPresent() && !optimisticBookingService.get().isContended(eventId)) {
+            return optimisticBookingService.get().bookSeats(eventId, request);
+        }
+        long[] workDone = new long[1];
+        BookingResponse response = transactionTemplate.execute(status -> {
+            BookingResponse booked = bookSeatsWithLock(eventId, request);
+            workDone[0] = System.nanoTime();
+            return booked;
+        });
+        bookingMetrics.recordPhase(BookingMetrics.Phase.COMMIT, System.nanoTime() - workDone[0]);
+        return response;
+    }
+
+    /**
+     * Book seats inside a transaction holding row locks on the requested seats
+     */
+    private BookingResponse bookSeatsWithLock(Long eventId, BookingRequest request) {
+        // 1. Fetch seats with pessimistic lock to prevent concurrent booking
+        long phaseStart = System.nanoTime();
+        List<Seat> seats = seatRepository.findByIdInWithLock(eventId, request.getSeatIds());
+        bookingMetrics.recordPhase(BookingMetrics.Phase.LOCK, System.nanoTime() - phaseStart);
 
         // 2. Validate all seats exist
+        if (seats.isEmpty() && !eventRepository.existsById(eventId)) {
+            throw new EventNotFoundException(eventId);
+        }
         if (seats.size() != request.getSeatIds().size()) {
             throw new IllegalArgumentException("One or more seat IDs are invalid");
         }
@@ -92,19 +280,25 @@ public class EventService {
             String unavailableSeatNumbers = unavailableSeats.stream()
                     .map(seat -> String.valueOf(seat.getSeatNumber()))
                     .collect(Collectors.joining(", "));
-            throw new IllegalStateException("Seats already booked: " + unavailableSeatNumbers);
+            throw new SeatsUnavailableException("Seats already booked: " + unavailableSeatNumbers);
         }
 
-        // 4. Get current booking order
-        int currentBookedCount = seatRepository.countBookedSeats();
-        Integer maxBookingOrder = bookingRepository.findMaxBookingOrder();
-        int nextBookingOrder = (maxBookingOrder != null ? maxBookingOrder : 0) + 1;
+        // 4. Claim booking order and seat positions from the event counter
+        phaseStart = System.nanoTime();
+        EventCounter counter = lockEventCounter(eventId);
+        int currentBookedCount = counter.getSoldSeats();
+        int nextBookingOrder = counter.getLastBookingOrder() + 1;
+        counter.setSoldSeats(currentBookedCount + seats.size());
+        counter.setLastBookingOrder(nextBookingOrder);
+        bookingMetrics.recordPhase(BookingMetrics.Phase.COUNTER, System.nanoTime() - phaseStart);
 
         // 5. Calculate total price based on booking order
-        BigDecimal totalPrice = calculatePrice(currentBookedCount, seats.size());
+        PriceTable prices = pricingService.priceTable(eventId);
+        BigDecimal totalPrice = PricingService.toAmount(prices.totalCents(currentBookedCount, seats.size()));
 
         // 6. Create booking
         Booking booking = new Booking();
+        booking.setEventId(eventId);
         booking.setUserName(request.getUserName());
         booking.setBookingOrder(nextBookingOrder);
         booking.setTotalSeats(seats.size());
@@ -118,7 +312,7 @@ public class EventService {
             seatOrder++;
 
             // Calculate individual seat price
-            BigDecimal seatPrice = getSeatPrice(seatOrder);
+            BigDecimal seatPrice = PricingService.toAmount(prices.priceCents(seatOrder));
 
             // Create booking seat
             BookingSeat bookingSeat = new BookingSeat();
@@ -133,12 +327,16 @@ public class EventService {
         }
 
         // 8. Save booking (cascades to booking_seats)
+        phaseStart = System.nanoTime();
         Booking savedBooking = bookingRepository.save(booking);
+        bookingMetrics.recordPhase(BookingMetrics.Phase.INSERT, System.nanoTime() - phaseStart);
 
         // 9. Save updated seats
         seatRepository.saveAll(seats);
+        eventPublisher.publishEvent(new SeatStatusChangedEvent(eventId,
+                seats.stream().map(SeatState::of).collect(Collectors.toList())));
 
-        log.info("Booking completed successfully. Booking ID: {}, Total Price: {}",
+        log.debug("Booking completed successfully. Booking ID: {}, Total Price: {}",
                 savedBooking.getId(), totalPrice);
 
         // 10. Return response with detailed seat information
@@ -149,6 +347,8 @@ public class EventService {
                         bookingSeat.getSeatPrice(),
                         bookingSeat.getSeatOrder()))
                 .collect(Collectors.toList());
+        outboxWriter.bookingConfirmed(savedBooking.getId(), new PendingBooking(eventId, request.getUserName(),
+                nextBookingOrder, totalPrice, savedBooking.getBookingDate(), seatDetails));
 
         return new BookingResponse(
                 true,
@@ -159,34 +359,18 @@ public class EventService {
     }
 
     /**
-     * Calculate total price based on current booking count and number of seats to
-     * book
+     * Create seats numbered 1 to numberOfSeats for an event
      */
-    private BigDecimal calculatePrice(int currentBookedCount, int seatsToBook) {
-        BigDecimal totalPrice = BigDecimal.ZERO;
-
-        for (int i = 0; i < seatsToBook; i++) {
-            int position = currentBookedCount + i + 1;
-            BigDecimal seatPrice = getSeatPrice(position);
-            totalPrice = totalPrice.add(seatPrice);
-        }
-
-        log.debug("Calculated price for {} seats starting from position {}: {}",
-                seatsToBook, currentBookedCount + 1, totalPrice);
-
-        return totalPrice;
+    private void createSeats(Long eventId, int numberOfSeats) {
+        seatBulkLoader.insertSeats(eventId, numberOfSeats);
     }
 
     /**
-     * Get price for a seat based on its booking order position
+     * Lock the event counter row; bookings take it after the seat locks so it is
+     * held for as short a time as possible
      */
-    private BigDecimal getSeatPrice(int position) {
-        if (position <= 50) {
-            return TIER1_PRICE; // $50
-        } else if (position <= 80) {
-            return TIER2_PRICE; // $75
-        } else {
-            return TIER3_PRICE; // $100
-        }
+    private EventCounter lockEventCounter(Long eventId) {
+        return eventCounterRepository.findByIdWithLock(eventId)
+                .orElseThrow(() -> new EventNotFoundException(eventId));
     }
 }
@@ -0,0 +1,73 @@
+package com.ticketing.service;
+
+import com.ticketing.model.OutboxMessage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends outbox messages to a file, one JSON object per line with the
+ * message ID, type and payload. Each batch is forced to disk before it counts
+ * as delivered. Enabled by setting ticketing.outbox.sink.file.path.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ticketing.outbox.sink.file", name = "path")
+@Slf4j
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+    private final FileChannel channel;
+
+    public FileOutboxSink(@Value("${ticketing.outbox.sink.file.path}") Path path) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        log.info("Appending outbox messages to {}", path.toAbsolutePath());
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxMessage> messages) {
+        StringBuilder lines = new StringBuilder(messages.size() * 256);
+        for (OutboxMessage message : messages) {
+            // The payload is already a single line of JSON
+            lines.append("{\"id\":").append(message.getId())
+                    .append(",\"type\":\"").append(message.getType().name())
+                    .append("\",\"payload\":").append(message.getPayload())
+                    .append("}\n");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append outbox messages to " + path, e);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        channel.close();
+    }
+}
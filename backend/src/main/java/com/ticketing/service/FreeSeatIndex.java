@@ -0,0 +1,149 @@
+package com.ticketing.service;
+
+import java.util.BitSet;
+
+/**
+ * Segment tree over the seats of one event, ordered by seat number, that
+ * tracks runs of adjacent pickable seats.
+ *
+ * Each node keeps the longest free run inside its range and the free runs
+ * touching its left and right edges, so the leftmost run of a given length is
+ * found in O(log n) and a seat changes state in O(log n). A seat is pickable
+ * when it is available and not tentatively taken by a request in flight.
+ */
+final class FreeSeatIndex {
+
+    private final int size;
+    private final BitSet free;
+    private final BitSet tentative;
+    // Per node: longest run, run from the left edge, run to the right edge
+    private final int[] best;
+    private final int[] prefix;
+    private final int[] suffix;
+
+    FreeSeatIndex(BitSet free, int size) {
+        this.size = size;
+        this.free = (BitSet) free.clone();
+        this.tentative = new BitSet(size);
+        int nodes = 4 * Math.max(1, size);
+        this.best = new int[nodes];
+        this.prefix = new int[nodes];
+        this.suffix = new int[nodes];
+        if (size > 0) {
+            build(1, 0, size - 1);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    synchronized void setFree(int position, boolean isFree) {
+        free.set(position, isFree);
+        update(position);
+    }
+
+    synchronized void setTentative(int position, boolean isTentative) {
+        tentative.set(position, isTentative);
+        update(position);
+    }
+
+    /**
+     * Pick count seats and mark them tentative: the leftmost run of adjacent
+     * seats if there is one, otherwise the fewest, longest runs that add up to
+     * count. Returns positions, or null if fewer seats are pickable.
+     */
+    synchronized int[] take(int count) {
+        int[] positions = new int[count];
+        int taken = 0;
+        while (taken < count) {
+            int length = Math.min(count - taken, size == 0 ? 0 : best[1]);
+            if (length == 0) {
+                for (int i = 0; i < taken; i++) {
+                    setTentative(positions[i], false);
+                }
+                return null;
+            }
+            int start = findRun(length);
+            for (int position = start; position < start + length; position++) {
+                setTentative(position, true);
+                positions[taken++] = position;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Start of the leftmost run of at least length pickable seats, or -1
+     */
+    private int findRun(int length) {
+        if (size == 0 || length < 1 || best[1] < length) {
+            return -1;
+        }
+        int node = 1;
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int left = node * 2;
+            int right = left + 1;
+            if (best[left] >= length) {
+                node = left;
+                high = mid;
+            } else if (suffix[left] + prefix[right] >= length) {
+                return mid - suffix[left] + 1;
+            } else {
+                node = right;
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private boolean pickable(int position) {
+        return free.get(position) && !tentative.get(position);
+    }
+
+    private void build(int node, int low, int high) {
+        if (low == high) {
+            int value = pickable(low) ? 1 : 0;
+            best[node] = value;
+            prefix[node] = value;
+            suffix[node] = value;
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        build(node * 2, low, mid);
+        build(node * 2 + 1, mid + 1, high);
+        merge(node, mid - low + 1, high - mid);
+    }
+
+    private void update(int position) {
+        update(1, 0, size - 1, position);
+    }
+
+    private void update(int node, int low, int high, int position) {
+        if (low == high) {
+            int value = pickable(position) ? 1 : 0;
+            best[node] = value;
+            prefix[node] = value;
+            suffix[node] = value;
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        if (position <= mid) {
+            update(node * 2, low, mid, position);
+        } else {
+            update(node * 2 + 1, mid + 1, high, position);
+        }
+        merge(node, mid - low + 1, high - mid);
+    }
+
+    private void merge(int node, int leftLength, int rightLength) {
+        int left = node * 2;
+        int right = left + 1;
+        prefix[node] = prefix[left] == leftLength ? leftLength + prefix[right] : prefix[left];
+        suffix[node] = suffix[right] == rightLength ? rightLength + suffix[left] : suffix[right];
+        best[node] = Math.max(Math.max(best[left], best[right]), suffix[left] + prefix[right]);
+    }
+}
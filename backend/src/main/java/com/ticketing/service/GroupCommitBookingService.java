@@ -0,0 +1,324 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.BookedSeatDetail;
+import com.ticketing.dto.BookingRequest;
+import com.ticketing.dto.BookingResponse;
+import com.ticketing.dto.SeatState;
+import com.ticketing.exception.BookingOutcomeUnknownException;
+import com.ticketing.exception.EventNotFoundException;
+import com.ticketing.exception.SeatsUnavailableException;
+import com.ticketing.model.EventCounter;
+import com.ticketing.model.Seat;
+import com.ticketing.model.SeatStatus;
+import com.ticketing.repository.EventCounterRepository;
+import com.ticketing.repository.EventRepository;
+import com.ticketing.repository.SeatRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Books seats through a single writer that commits concurrent requests together.
+ *
+ * Requests are queued and drained in micro-batches. For each batch the writer
+ * locks the requested seats and the event counters once, decides every request
+ * in arrival order against the seats already taken in the batch, assigns
+ * booking order and tier prices sequentially, and writes all bookings with
+ * batched inserts in one transaction. Callers wait on their own future and get
+ * their result once the batch has committed. Enabled with
+ * {@code ticketing.booking.mode=group-commit}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "ticketing.booking", name = "mode", havingValue = "group-commit")
+@Slf4j
+public class GroupCommitBookingService {
+
+    private final SeatRepository seatRepository;
+    private final EventRepository eventRepository;
+    private final EventCounterRepository eventCounterRepository;
+    private final BookingBatchInserter bookingBatchInserter;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PricingService pricingService;
+    private final BookingMetrics bookingMetrics;
+    private final OutboxWriter outboxWriter;
+
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long timeoutMillis;
+    private final BlockingQueue<BookingCommand> queue;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    private record BookingCommand(Long eventId, BookingRequest request, CompletableFuture<BookingResponse> result) {
+    }
+
+    /**
+     * Result of one request in a batch: a booking to write, or the reason it was refused
+     */
+    private record Decision(BookingCommand command, PendingBooking booking, RuntimeException failure) {
+    }
+
+    private record Outcome(BookingCommand command, BookingResponse response, RuntimeException failure) {
+    }
+
+    public GroupCommitBookingService(SeatRepository seatRepository, EventRepository eventRepository,
+            EventCounterRepository eventCounterRepository, BookingBatchInserter bookingBatchInserter,
+            TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+            PricingService pricingService, BookingMetrics bookingMetrics, OutboxWriter outboxWriter,
+            @Value("${ticketing.group-commit.batch-size:256}") int batchSize,
+            @Value("${ticketing.group-commit.linger-millis:2}") long lingerMillis,
+            @Value("${ticketing.group-commit.queue-capacity:10000}") int queueCapacity,
+            @Value("${ticketing.group-commit.timeout-millis:30000}") long timeoutMillis) {
+        this.seatRepository = seatRepository;
+        this.eventRepository = eventRepository;
+        this.eventCounterRepository = eventCounterRepository;
+        this.bookingBatchInserter = bookingBatchInserter;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.pricingService = pricingService;
+        this.bookingMetrics = bookingMetrics;
+        this.outboxWriter = outboxWriter;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.timeoutMillis = timeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void startWriter() {
+        running = true;
+        writerThread = new Thread(this::runWriter, "group-commit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stopWriter() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Queue a booking and wait for the batch it lands in to commit
+     */
+    public BookingResponse bookSeats(Long eventId, BookingRequest request) {
+        CompletableFuture<BookingResponse> result = submit(eventId, request);
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Booking failed", e.getCause());
+        } catch (TimeoutException e) {
+            // The booking may still commit; the caller has to check before retrying
+            throw new BookingOutcomeUnknownException(
+                    "Booking outcome unknown, timed out waiting for the batch to commit", result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingOutcomeUnknownException("Interrupted while waiting for booking", result);
+        }
+    }
+
+    /**
+     * Queue a booking; the future completes when its batch has committed
+     */
+    public CompletableFuture<BookingResponse> submit(Long eventId, BookingRequest request) {
+        CompletableFuture<BookingResponse> result = new CompletableFuture<>();
+        if (!running || !queue.offer(new BookingCommand(eventId, request, result))) {
+            throw new RejectedExecutionException("Booking queue is full");
+        }
+        return result;
+    }
+
+    private void runWriter() {
+        List<BookingCommand> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                BookingCommand first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                // Give concurrent requests a short window to join a batch that is not full yet
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    BookingCommand next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Group commit of {} bookings failed", batch.size(), e);
+                batch.forEach(command -> command.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<BookingCommand> batch) {
+        long start = System.nanoTime();
+        long[] workDone = new long[1];
+        List<Outcome> outcomes = transactionTemplate.execute(status -> {
+            List<Outcome> written = decideAndWrite(batch);
+            workDone[0] = System.nanoTime();
+            return written;
+        });
+        long end = System.nanoTime();
+        bookingMetrics.recordPhase(BookingMetrics.Phase.COMMIT, end - workDone[0]);
+        bookingMetrics.recordBatch(end - start);
+
+        // Results are released only after the commit, so nobody sees a booking that could roll back
+        int written = 0;
+        for (Outcome outcome : outcomes) {
+            if (outcome.failure() != null) {
+                outcome.command().result().completeExceptionally(outcome.failure());
+            } else {
+                outcome.command().result().complete(outcome.response());
+                written++;
+            }
+        }
+        log.debug("Group commit wrote {} of {} bookings", written, batch.size());
+    }
+
+    private List<Outcome> decideAndWrite(List<BookingCommand> batch) {
+        // Events in ID order so seat and counter locks are always taken in the same order
+        Map<Long, List<BookingCommand>> commandsByEvent = batch.stream()
+                .collect(Collectors.groupingBy(BookingCommand::eventId, TreeMap::new, Collectors.toList()));
+
+        List<Decision> decisions = new ArrayList<>(batch.size());
+        for (Map.Entry<Long, List<BookingCommand>> entry : commandsByEvent.entrySet()) {
+            decisions.addAll(decideEvent(entry.getKey(), entry.getValue()));
+        }
+
+        List<Decision> accepted = decisions.stream().filter(d -> d.failure() == null).collect(Collectors.toList());
+        List<PendingBooking> acceptedBookings = accepted.stream().map(Decision::booking).collect(Collectors.toList());
+        long insertStart = System.nanoTime();
+        List<Long> bookingIds = bookingBatchInserter.insert(acceptedBookings);
+        outboxWriter.bookingsConfirmed(bookingIds, acceptedBookings);
+        bookingMetrics.recordPhase(BookingMetrics.Phase.INSERT, System.nanoTime() - insertStart);
+
+        List<Outcome> outcomes = new ArrayList<>(decisions.size());
+        int next = 0;
+        for (Decision decision : decisions) {
+            if (decision.failure() != null) {
+                outcomes.add(new Outcome(decision.command(), null, decision.failure()));
+                continue;
+            }
+            PendingBooking booking = decision.booking();
+            outcomes.add(new Outcome(decision.command(), new BookingResponse(
+                    true,
+                    "Booking confirmed for " + booking.userName(),
+                    booking.totalPrice(),
+                    booking.seats(),
+                    bookingIds.get(next++)), null));
+        }
+        return outcomes;
+    }
+
+    private List<Decision> decideEvent(Long eventId, List<BookingCommand> commands) {
+        List<Long> requestedIds = commands.stream()
+                .flatMap(command -> command.request().getSeatIds().stream())
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        long phaseStart = System.nanoTime();
+        Map<Long, Seat> seats = seatRepository.findByIdInWithLock(eventId, requestedIds).stream()
+                .collect(Collectors.toMap(Seat::getId, Function.identity()));
+        bookingMetrics.recordPhase(BookingMetrics.Phase.LOCK, System.nanoTime() - phaseStart);
+
+        List<Decision> decisions = new ArrayList<>(commands.size());
+        if (seats.isEmpty() && !eventRepository.existsById(eventId)) {
+            commands.forEach(command -> decisions.add(new Decision(command, null, new EventNotFoundException(eventId))));
+            return decisions;
+        }
+        phaseStart = System.nanoTime();
+        EventCounter counter = eventCounterRepository.findByIdWithLock(eventId)
+                .orElseThrow(() -> new EventNotFoundException(eventId));
+        bookingMetrics.recordPhase(BookingMetrics.Phase.COUNTER, System.nanoTime() - phaseStart);
+        PriceTable prices = pricingService.priceTable(eventId);
+
+        Set<Long> taken = new HashSet<>();
+        List<SeatState> changed = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (BookingCommand command : commands) {
+            List<Long> seatIds = command.request().getSeatIds();
+            if (new HashSet<>(seatIds).size() != seatIds.size() || !seats.keySet().containsAll(seatIds)) {
+                decisions.add(new Decision(command, null,
+                        new IllegalArgumentException("One or more seat IDs are invalid")));
+                continue;
+            }
+            String unavailable = seatIds.stream()
+                    .map(seats::get)
+                    .filter(seat -> seat.getStatus() != SeatStatus.AVAILABLE || taken.contains(seat.getId()))
+                    .map(seat -> String.valueOf(seat.getSeatNumber()))
+                    .collect(Collectors.joining(", "));
+            if (!unavailable.isEmpty()) {
+                decisions.add(new Decision(command, null,
+                        new SeatsUnavailableException("Seats already booked: " + unavailable)));
+                continue;
+            }
+
+            int seatOrder = counter.getSoldSeats();
+            int bookingOrder = counter.getLastBookingOrder() + 1;
+            BigDecimal totalPrice = PricingService.toAmount(prices.totalCents(seatOrder, seatIds.size()));
+            List<BookedSeatDetail> details = new ArrayList<>(seatIds.size());
+            for (Long seatId : seatIds) {
+                Seat seat = seats.get(seatId);
+                seatOrder++;
+                BigDecimal seatPrice = PricingService.toAmount(prices.priceCents(seatOrder));
+                details.add(new BookedSeatDetail(seat.getId(), seat.getSeatNumber(), seatPrice, seatOrder));
+                changed.add(new SeatState(seat.getId(), seat.getSeatNumber(), SeatStatus.BOOKED));
+                taken.add(seatId);
+            }
+            counter.setSoldSeats(seatOrder);
+            counter.setLastBookingOrder(bookingOrder);
+
+            decisions.add(new Decision(command, new PendingBooking(eventId, command.request().getUserName(),
+                    bookingOrder, totalPrice, now, details), null));
+        }
+
+        if (!taken.isEmpty()) {
+            seatRepository.updateStatus(new ArrayList<>(taken), SeatStatus.BOOKED);
+            eventPublisher.publishEvent(new SeatStatusChangedEvent(eventId, changed));
+        }
+        return decisions;
+    }
+}
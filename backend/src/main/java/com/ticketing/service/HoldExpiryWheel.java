@@ -0,0 +1,67 @@
+package com.ticketing.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel for hold expiry.
+ *
+ * Each hold is dropped into the bucket of its deadline tick, so scheduling is
+ * O(1) and each tick only looks at one bucket. Holds further away than one
+ * revolution share a bucket with nearer ones and are skipped until their
+ * round comes up.
+ */
+final class HoldExpiryWheel {
+
+    private final long tickMillis;
+    private final List<List<Entry>> buckets;
+    private long currentTick;
+
+    private record Entry(long holdId, long deadlineTick) {
+    }
+
+    HoldExpiryWheel(long tickMillis, int wheelSize, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedule a hold to expire at the first tick at or after its deadline
+     */
+    synchronized void schedule(long holdId, long deadlineMillis) {
+        long deadlineTick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick + 1);
+        buckets.get(bucketOf(deadlineTick)).add(new Entry(holdId, deadlineTick));
+    }
+
+    /**
+     * Advance the wheel to the given time and return the holds that are due
+     */
+    synchronized List<Long> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        List<Long> due = new ArrayList<>();
+
+        // After a long pause every bucket is visited once rather than once per missed tick
+        long ticks = Math.min(nowTick - currentTick, buckets.size());
+        for (long tick = nowTick - ticks + 1; tick <= nowTick; tick++) {
+            Iterator<Entry> entries = buckets.get(bucketOf(tick)).iterator();
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                if (entry.deadlineTick() <= nowTick) {
+                    due.add(entry.holdId());
+                    entries.remove();
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, nowTick);
+        return due;
+    }
+
+    private int bucketOf(long tick) {
+        return (int) (tick % buckets.size());
+    }
+}
@@ -0,0 +1,386 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.BookedSeatDetail;
+import com.ticketing.dto.BookingRequest;
+import com.ticketing.dto.BookingResponse;
+import com.ticketing.dto.HoldResponse;
+import com.ticketing.dto.SeatState;
+import com.ticketing.exception.BookingNotFoundException;
+import com.ticketing.exception.EventNotFoundException;
+import com.ticketing.exception.SeatsUnavailableException;
+import com.ticketing.model.*;
+import com.ticketing.repository.BookingRepository;
+import com.ticketing.repository.BookingSeatRepository;
+import com.ticketing.repository.EventCounterRepository;
+import com.ticketing.repository.EventRepository;
+import com.ticketing.repository.SeatRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Timed seat holds. A hold is a PENDING booking whose seats are RESERVED until
+ * it is confirmed, released or reaches its expiry time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HoldService {
+
+    private final EventRepository eventRepository;
+    private final SeatRepository seatRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingSeatRepository bookingSeatRepository;
+    private final EventCounterRepository eventCounterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Optional<InventoryBookingService> inventoryBookingService;
+    private final PricingService pricingService;
+    private final OutboxWriter outboxWriter;
+
+    @Value("${ticketing.hold.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${ticketing.hold.wheel.tick-millis:1000}")
+    private long tickMillis;
+
+    @Value("${ticketing.hold.wheel.size:512}")
+    private int wheelSize;
+
+    @Value("${ticketing.hold.expiry-batch-size:500}")
+    private int expiryBatchSize;
+
+    // Holds that are still pending; confirmed and released holds are dropped so
+    // their wheel entries expire without a database round-trip
+    private final Set<Long> activeHolds = ConcurrentHashMap.newKeySet();
+    private HoldExpiryWheel expiryWheel;
+
+    private record ConfirmedHold(Booking booking, List<BookingSeat> bookingSeats) {
+    }
+
+    @PostConstruct
+    void createExpiryWheel() {
+        expiryWheel = new HoldExpiryWheel(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+
+    /**
+     * Put holds that were pending before a restart back on the expiry wheel
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void schedulePendingHolds() {
+        List<Booking> pending = bookingRepository.findByBookingStatus(BookingStatus.PENDING);
+        pending.forEach(hold -> track(hold.getId(), hold.getExpiresAt()));
+        log.info("Scheduled expiry for {} pending holds", pending.size());
+    }
+
+    /**
+     * Reserve seats for the configured time to live
+     */
+    public HoldResponse holdSeats(Long eventId, BookingRequest request) {
+        log.debug("Processing hold request for event {} user: {} with seats: {}",
+                eventId, request.getUserName(), request.getSeatIds());
+
+        if (request.getSeatIds() == null || request.getSeatIds().isEmpty()) {
+            throw new IllegalArgumentException("Seat IDs cannot be empty");
+        }
+        if (request.getSeatIds().size() > 5) {
+            throw new IllegalArgumentException("Cannot hold more than 5 seats at once");
+        }
+
+        inventoryBookingService.ifPresent(inventory -> inventory.transition(
+                eventId, request.getSeatIds(), SeatStatus.AVAILABLE, SeatStatus.RESERVED));
+
+        Booking hold;
+        try {
+            hold = transactionTemplate.execute(status -> createHold(eventId, request));
+        } catch (RuntimeException e) {
+            inventoryBookingService.ifPresent(inventory -> inventory.transition(
+                    eventId, request.getSeatIds(), SeatStatus.RESERVED, SeatStatus.AVAILABLE));
+            throw e;
+        }
+        track(hold.getId(), hold.getExpiresAt());
+
+        log.debug("Hold {} created, expires at {}", hold.getId(), hold.getExpiresAt());
+        return new HoldResponse(
+                true,
+                "Seats held for " + request.getUserName(),
+                hold.getId(),
+                eventId,
+                hold.getExpiresAt(),
+                request.getSeatIds());
+    }
+
+    /**
+     * Turn a pending hold into a confirmed booking, pricing it at the current
+     * booking order
+     */
+    public BookingResponse confirmHold(Long holdId) {
+        ConfirmedHold confirmed = transactionTemplate.execute(status -> confirm(holdId));
+        activeHolds.remove(holdId);
+
+        Booking booking = confirmed.booking();
+        bookInMemory(holdId, booking.getEventId(), seatIdsOf(confirmed.bookingSeats()));
+
+        List<BookedSeatDetail> seatDetails = confirmed.bookingSeats().stream()
+                .map(bookingSeat -> new BookedSeatDetail(
+                        bookingSeat.getSeat().getId(),
+                        bookingSeat.getSeat().getSeatNumber(),
+                        bookingSeat.getSeatPrice(),
+                        bookingSeat.getSeatOrder()))
+                .collect(Collectors.toList());
+
+        log.debug("Hold {} confirmed with booking order {}", holdId, booking.getBookingOrder());
+        return new BookingResponse(
+                true,
+                "Booking confirmed for " + booking.getUserName(),
+                booking.getTotalPrice(),
+                seatDetails,
+                booking.getId());
+    }
+
+    /**
+     * Give up a pending hold before it expires
+     */
+    public void releaseHold(Long holdId) {
+        List<BookingSeat> released = transactionTemplate.execute(status -> {
+            Booking hold = lockPendingHold(holdId);
+            return release(List.of(hold.getId()));
+        });
+        activeHolds.remove(holdId);
+        releaseInMemory(released);
+        log.debug("Hold {} released", holdId);
+    }
+
+    /**
+     * Release every hold whose expiry tick has passed, in batches
+     */
+    @Scheduled(fixedDelayString = "${ticketing.hold.wheel.tick-millis:1000}")
+    public void expireDueHolds() {
+        List<Long> due = expiryWheel.advance(System.currentTimeMillis()).stream()
+                .filter(activeHolds::remove)
+                .collect(Collectors.toList());
+
+        for (int from = 0; from < due.size(); from += expiryBatchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + expiryBatchSize, due.size()));
+            try {
+                List<BookingSeat> released = transactionTemplate.execute(status -> release(
+                        bookingRepository.findByIdInAndStatusWithLock(batch, BookingStatus.PENDING).stream()
+                                .map(Booking::getId)
+                                .collect(Collectors.toList())));
+                releaseInMemory(released);
+                log.debug("Expired {} holds releasing {} seats", batch.size(), released.size());
+            } catch (RuntimeException e) {
+                log.error("Failed to expire {} holds, retrying on the next tick: {}", batch.size(), e.getMessage());
+                long retryAt = System.currentTimeMillis() + tickMillis;
+                batch.forEach(holdId -> {
+                    activeHolds.add(holdId);
+                    expiryWheel.schedule(holdId, retryAt);
+                });
+            }
+        }
+    }
+
+    private Booking createHold(Long eventId, BookingRequest request) {
+        List<Seat> seats = seatRepository.findByIdInWithLock(eventId, request.getSeatIds());
+
+        if (seats.isEmpty() && !eventRepository.existsById(eventId)) {
+            throw new EventNotFoundException(eventId);
+        }
+        if (seats.size() != request.getSeatIds().size()) {
+            throw new IllegalArgumentException("One or more seat IDs are invalid");
+        }
+
+        String unavailableSeatNumbers = seats.stream()
+                .filter(seat -> seat.getStatus() != SeatStatus.AVAILABLE)
+                .map(seat -> String.valueOf(seat.getSeatNumber()))
+                .collect(Collectors.joining(", "));
+        if (!unavailableSeatNumbers.isEmpty()) {
+            throw new SeatsUnavailableException("Seats not available: " + unavailableSeatNumbers);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Booking hold = new Booking();
+        hold.setEventId(eventId);
+        hold.setUserName(request.getUserName());
+        hold.setTotalSeats(seats.size());
+        hold.setBookingStatus(BookingStatus.PENDING);
+        hold.setBookingDate(now);
+        hold.setExpiresAt(now.plusSeconds(ttlSeconds));
+
+        for (Seat seat : seats) {
+            BookingSeat bookingSeat = new BookingSeat();
+            bookingSeat.setSeat(seat);
+            hold.addBookingSeat(bookingSeat);
+            seat.setStatus(SeatStatus.RESERVED);
+        }
+
+        Booking saved = bookingRepository.save(hold);
+        publishSeatChanges(saved.getBookingSeats(), SeatStatus.RESERVED);
+        return saved;
+    }
+
+    private ConfirmedHold confirm(Long holdId) {
+        Booking hold = lockPendingHold(holdId);
+        if (hold.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new IllegalStateException("Hold " + holdId + " has expired");
+        }
+
+        List<BookingSeat> bookingSeats = new ArrayList<>(bookingSeatRepository.findWithSeatByBookingIdIn(List.of(holdId)));
+        bookingSeats.sort(Comparator.comparing(bookingSeat -> bookingSeat.getSeat().getSeatNumber()));
+        seatRepository.updateStatus(seatIdsOf(bookingSeats), SeatStatus.BOOKED);
+        publishSeatChanges(bookingSeats, SeatStatus.BOOKED);
+
+        // Positions are claimed last so the counter lock is held briefly
+        BookingSlot slot = claimSlot(hold.getEventId(), bookingSeats.size());
+
+        PriceTable prices = pricingService.priceTable(hold.getEventId());
+        BigDecimal totalPrice = PricingService.toAmount(prices.totalCents(slot.soldBefore(), bookingSeats.size()));
+        int seatOrder = slot.soldBefore();
+        for (BookingSeat bookingSeat : bookingSeats) {
+            seatOrder++;
+            bookingSeat.setSeatPrice(PricingService.toAmount(prices.priceCents(seatOrder)));
+            bookingSeat.setSeatOrder(seatOrder);
+        }
+
+        hold.setBookingOrder(slot.bookingOrder());
+        hold.setTotalPrice(totalPrice);
+        hold.setBookingStatus(BookingStatus.CONFIRMED);
+        hold.setBookingDate(LocalDateTime.now());
+        hold.setExpiresAt(null);
+
+        outboxWriter.bookingConfirmed(holdId, new PendingBooking(hold.getEventId(), hold.getUserName(),
+                slot.bookingOrder(), totalPrice, hold.getBookingDate(), bookingSeats.stream()
+                        .map(bookingSeat -> new BookedSeatDetail(
+                                bookingSeat.getSeat().getId(),
+                                bookingSeat.getSeat().getSeatNumber(),
+                                bookingSeat.getSeatPrice(),
+                                bookingSeat.getSeatOrder()))
+                        .collect(Collectors.toList())));
+        return new ConfirmedHold(hold, bookingSeats);
+    }
+
+    private Booking lockPendingHold(Long holdId) {
+        Booking hold = bookingRepository.findByIdWithLock(holdId)
+                .orElseThrow(() -> new BookingNotFoundException(holdId));
+        if (hold.getBookingStatus() != BookingStatus.PENDING) {
+            throw new IllegalStateException("Hold " + holdId + " is no longer active");
+        }
+        return hold;
+    }
+
+    /**
+     * Cancel locked pending holds and make their seats available again
+     */
+    private List<BookingSeat> release(List<Long> holdIds) {
+        if (holdIds.isEmpty()) {
+            return List.of();
+        }
+        List<BookingSeat> bookingSeats = bookingSeatRepository.findWithSeatByBookingIdIn(holdIds);
+        seatRepository.updateStatus(seatIdsOf(bookingSeats), SeatStatus.AVAILABLE);
+        bookingRepository.updateStatus(holdIds, BookingStatus.CANCELLED);
+        publishSeatChanges(bookingSeats, SeatStatus.AVAILABLE);
+        return bookingSeats;
+    }
+
+    /**
+     * Hand out seat positions and the next booking order. In inventory mode the
+     * in-memory counters are authoritative, since the counter row lags behind
+     * bookings still being written; the counter row is advanced to match and
+     * the slot is given back in memory if the confirmation rolls back.
+     */
+    private BookingSlot claimSlot(Long eventId, int seats) {
+        if (inventoryBookingService.isPresent()) {
+            BookingSlot slot = inventoryBookingService.get().allocate(eventId, seats);
+            eventCounterRepository.addSoldSeats(eventId, seats, slot.bookingOrder());
+            return slot;
+        }
+
+        EventCounter counter = eventCounterRepository.findByIdWithLock(eventId)
+                .orElseThrow(() -> new EventNotFoundException(eventId));
+        BookingSlot slot = new BookingSlot(counter.getSoldSeats(), counter.getLastBookingOrder() + 1);
+        counter.setSoldSeats(counter.getSoldSeats() + seats);
+        counter.setLastBookingOrder(slot.bookingOrder());
+        return slot;
+    }
+
+    /**
+     * Move confirmed seats to booked in memory. The booking is already
+     * committed, so a failure here is repaired rather than reported.
+     */
+    private void bookInMemory(Long holdId, Long eventId, List<Long> seatIds) {
+        inventoryBookingService.ifPresent(inventory -> {
+            try {
+                inventory.transition(eventId, seatIds, SeatStatus.RESERVED, SeatStatus.BOOKED);
+            } catch (RuntimeException e) {
+                log.error("Seats {} of confirmed hold {} were not reserved in memory, marking them booked: {}",
+                        seatIds, holdId, e.getMessage());
+                try {
+                    inventory.markBooked(eventId, seatIds);
+                } catch (RuntimeException repair) {
+                    log.error("Could not mark seats {} of event {} booked in memory", seatIds, eventId, repair);
+                }
+            }
+        });
+    }
+
+    /**
+     * Mirror released seats in the inventory. The database is already committed,
+     * so a mismatch (for example after the event was re-initialized) is only logged.
+     */
+    private void releaseInMemory(List<BookingSeat> bookingSeats) {
+        inventoryBookingService.ifPresent(inventory -> {
+            Map<Long, List<Long>> seatIdsByEvent = bookingSeats.stream()
+                    .collect(Collectors.groupingBy(bookingSeat -> bookingSeat.getSeat().getEventId(),
+                            Collectors.mapping(bookingSeat -> bookingSeat.getSeat().getId(), Collectors.toList())));
+            seatIdsByEvent.forEach((eventId, seatIds) -> {
+                try {
+                    inventory.transition(eventId, seatIds, SeatStatus.RESERVED, SeatStatus.AVAILABLE);
+                } catch (RuntimeException e) {
+                    log.warn("Could not release seats {} of event {} in memory: {}", seatIds, eventId, e.getMessage());
+                }
+            });
+        });
+    }
+
+    /**
+     * Publish seat status changes, delivered to listeners once the transaction commits
+     */
+    private void publishSeatChanges(List<BookingSeat> bookingSeats, SeatStatus status) {
+        bookingSeats.stream()
+                .map(BookingSeat::getSeat)
+                .collect(Collectors.groupingBy(Seat::getEventId,
+                        Collectors.mapping(seat -> new SeatState(seat.getId(), seat.getSeatNumber(), status),
+                                Collectors.toList())))
+                .forEach((eventId, seats) -> eventPublisher.publishEvent(new SeatStatusChangedEvent(eventId, seats)));
+    }
+
+    private void track(Long holdId, LocalDateTime expiresAt) {
+        activeHolds.add(holdId);
+        expiryWheel.schedule(holdId, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private static List<Long> seatIdsOf(List<BookingSeat> bookingSeats) {
+        return bookingSeats.stream()
+                .map(bookingSeat -> bookingSeat.getSeat().getId())
+                .collect(Collectors.toList());
+    }
+}
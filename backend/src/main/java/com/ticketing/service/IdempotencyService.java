@@ -0,0 +1,360 @@
+package com.ticketing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.dto.BookingRequest;
+import com.ticketing.dto.BookingResponse;
+import com.ticketing.exception.BookingOutcomeUnknownException;
+import com.ticketing.exception.SeatsUnavailableException;
+import com.ticketing.model.IdempotencyRecord;
+import com.ticketing.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes booking requests with an Idempotency-Key safe to retry.
+ *
+ * The first request with a key claims it with a row in the idempotency_key
+ * table, books, and stores the response or the conflict it ran into.
+ * Duplicates that arrive while it runs wait for its result; later ones are
+ * answered from memory, or from the table after a restart, without going near
+ * the seat locks. Failures that say nothing about the booking, such as a full
+ * waiting room, release the key so the retry runs again.
+ *
+ * When the booking may or may not have committed (a group-commit timeout, a
+ * failed commit, or a process that died mid-request) the key stays in
+ * progress until it expires, unless the pending booking finishes and its
+ * outcome can be stored after all.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String KEY_REUSED = "Idempotency-Key was already used for a different booking request";
+    private static final String IN_PROGRESS = "A request with this Idempotency-Key is still being processed";
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final long ttlMillis;
+    private final int maxCached;
+    private final long waitMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * A key known to this process; the outcome completes when the first
+     * request with the key finishes
+     */
+    private record Entry(String fingerprint, CompletableFuture<Outcome> outcome, long expiresAtMillis) {
+
+        boolean isExpired(long now) {
+            return expiresAtMillis <= now;
+        }
+    }
+
+    /**
+     * What the first request was told: a booking, or a conflict or validation
+     * error that a retry would run into as well
+     */
+    private record Outcome(int status, BookingResponse response, String message) {
+
+        BookingResponse replay() {
+            if (status == HttpStatus.OK.value()) {
+                return response;
+            }
+            if (status == HttpStatus.CONFLICT.value()) {
+                throw new SeatsUnavailableException(message);
+            }
+            if (status == HttpStatus.GATEWAY_TIMEOUT.value()) {
+                throw new BookingOutcomeUnknownException(message, null);
+            }
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * Answer for duplicates of a request whose booking may or may not have
+     * committed; never stored, so the table row stays in progress
+     */
+    private static Outcome unknown(String message) {
+        return new Outcome(HttpStatus.GATEWAY_TIMEOUT.value(), null, message);
+    }
+
+    public IdempotencyService(IdempotencyRecordRepository repository, TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${ticketing.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${ticketing.idempotency.max-cached:100000}") int maxCached,
+            @Value("${ticketing.idempotency.wait-millis:30000}") long waitMillis) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttlMillis = TimeUnit.HOURS.toMillis(ttlHours);
+        this.maxCached = maxCached;
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * Run booking once per key; without a key it simply runs
+     */
+    public BookingResponse execute(String key, Long eventId, BookingRequest request,
+            Supplier<BookingResponse> booking) {
+        if (key == null) {
+            return booking.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprint(eventId, request);
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            Entry existing = entries.get(key);
+            if (existing != null && !existing.isExpired(now)) {
+                Outcome outcome = await(existing, fingerprint);
+                if (outcome != null) {
+                    return outcome.replay();
+                }
+                // The first request failed without an answer worth keeping; the key is free again
+                continue;
+            }
+            Entry entry = new Entry(fingerprint, new CompletableFuture<>(), now + ttlMillis);
+            boolean installed = existing == null
+                    ? entries.putIfAbsent(key, entry) == null
+                    : entries.replace(key, existing, entry);
+            if (installed) {
+                return run(key, entry, eventId, booking).replay();
+            }
+        }
+    }
+
+    /**
+     * Drop expired keys from memory and the table
+     */
+    @Scheduled(fixedDelayString = "${ticketing.idempotency.cleanup-millis:600000}")
+    public void removeExpired() {
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> e.getValue().isExpired(now) && e.getValue().outcome().isDone());
+        Integer removed = transactionTemplate.execute(status -> repository.deleteExpired(LocalDateTime.now()));
+        if (removed != null && removed > 0) {
+            log.debug("Removed {} expired idempotency keys", removed);
+        }
+    }
+
+    private Outcome await(Entry entry, String fingerprint) {
+        if (!entry.fingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException(KEY_REUSED);
+        }
+        try {
+            return entry.outcome().get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(IN_PROGRESS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private Outcome run(String key, Entry entry, Long eventId, Supplier<BookingResponse> booking) {
+        Outcome outcome;
+        try {
+            outcome = claimOrLoad(key, entry, eventId);
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            entry.outcome().completeExceptionally(e);
+            throw e;
+        }
+
+        if (outcome == null) {
+            try {
+                outcome = book(booking);
+            } catch (BookingOutcomeUnknownException e) {
+                awaitPending(key, entry, e.getPendingBooking());
+                throw e;
+            } catch (TransactionSystemException e) {
+                // The commit itself failed, so it may have gone through; leave the key claimed
+                entry.outcome().complete(unknown(e.getMessage()));
+                throw e;
+            } catch (RuntimeException e) {
+                release(key, entry);
+                entry.outcome().completeExceptionally(e);
+                throw e;
+            }
+            store(key, outcome);
+        }
+
+        complete(key, entry, outcome);
+        return outcome;
+    }
+
+    private void complete(String key, Entry entry, Outcome outcome) {
+        entry.outcome().complete(outcome);
+        if (entries.size() > maxCached) {
+            // Over the memory bound, answer later retries from the table instead
+            entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * Keep the key in progress while a booking that timed out is still
+     * pending, and record its outcome once it finishes. Only a failure that
+     * says nothing about the seats releases the key then.
+     */
+    private void awaitPending(String key, Entry entry, CompletableFuture<BookingResponse> pending) {
+        if (pending == null) {
+            entry.outcome().complete(unknown("The outcome of the original request is unknown"));
+            return;
+        }
+        // Off the thread completing the booking, which may be the group-commit writer
+        pending.whenCompleteAsync((response, failure) -> {
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            if (cause instanceof TransactionSystemException) {
+                entry.outcome().complete(unknown(cause.getMessage()));
+                return;
+            }
+            Outcome outcome = cause == null
+                    ? new Outcome(HttpStatus.OK.value(), response, null)
+                    : rejected(cause);
+            if (outcome == null) {
+                release(key, entry);
+                entry.outcome().completeExceptionally(cause);
+                return;
+            }
+            store(key, outcome);
+            complete(key, entry, outcome);
+        });
+    }
+
+    /**
+     * Claim the key in the table, or return the outcome stored by an earlier
+     * request with it
+     */
+    private Outcome claimOrLoad(String key, Entry entry, Long eventId) {
+        try {
+            return transactionTemplate.execute(status -> claimOrLoadInTransaction(key, entry, eventId));
+        } catch (DataIntegrityViolationException e) {
+            // Claimed by another instance between our read and insert
+            return transactionTemplate.execute(status -> claimOrLoadInTransaction(key, entry, eventId));
+        }
+    }
+
+    private Outcome claimOrLoadInTransaction(String key, Entry entry, Long eventId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+        IdempotencyRecord record = repository.findById(key).orElse(null);
+
+        if (record == null) {
+            repository.saveAndFlush(new IdempotencyRecord(key, eventId, entry.fingerprint(), now, expiresAt));
+            return null;
+        }
+        if (record.getExpiresAt().isBefore(now)) {
+            record.setEventId(eventId);
+            record.setRequestHash(entry.fingerprint());
+            record.setResponseStatus(null);
+            record.setResponseBody(null);
+            record.setCreatedAt(now);
+            record.setExpiresAt(expiresAt);
+            return null;
+        }
+        if (!record.getRequestHash().equals(entry.fingerprint())) {
+            throw new IllegalArgumentException(KEY_REUSED);
+        }
+        if (record.getResponseStatus() == null) {
+            throw new IllegalStateException(IN_PROGRESS);
+        }
+        return toOutcome(record);
+    }
+
+    private Outcome book(Supplier<BookingResponse> booking) {
+        try {
+            return new Outcome(HttpStatus.OK.value(), booking.get(), null);
+        } catch (SeatsUnavailableException | IllegalArgumentException e) {
+            return rejected(e);
+        }
+    }
+
+    /**
+     * The outcome of a booking that was turned down, or null if the failure
+     * says nothing about the booking and a retry should run again
+     */
+    private static Outcome rejected(Throwable failure) {
+        if (failure instanceof SeatsUnavailableException) {
+            return new Outcome(HttpStatus.CONFLICT.value(), null, failure.getMessage());
+        }
+        if (failure instanceof IllegalArgumentException) {
+            return new Outcome(HttpStatus.BAD_REQUEST.value(), null, failure.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Record the outcome; if that fails the booking still stands, and retries
+     * are answered from memory until the key expires
+     */
+    private void store(String key, Outcome outcome) {
+        try {
+            String body = outcome.response() != null
+                    ? objectMapper.writeValueAsString(outcome.response())
+                    : outcome.message();
+            transactionTemplate.execute(status -> repository.complete(key, outcome.status(), body));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("Could not store the outcome of idempotency key {}", key, e);
+        }
+    }
+
+    private void release(String key, Entry entry) {
+        entries.remove(key, entry);
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.deleteById(key));
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency key {}; it stays claimed until it expires", key, e);
+        }
+    }
+
+    private Outcome toOutcome(IdempotencyRecord record) {
+        if (record.getResponseStatus() != HttpStatus.OK.value()) {
+            return new Outcome(record.getResponseStatus(), null, record.getResponseBody());
+        }
+        try {
+            return new Outcome(HttpStatus.OK.value(),
+                    objectMapper.readValue(record.getResponseBody(), BookingResponse.class), null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for idempotency key " + record.getKey()
+                    + " cannot be read", e);
+        }
+    }
+
+    private static String fingerprint(Long eventId, BookingRequest request) {
+        String canonical = eventId + "|" + request.getUserName() + "|" + request.getSeatIds() + "|"
+                + request.getNumberOfSeats();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
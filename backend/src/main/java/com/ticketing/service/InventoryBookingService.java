@@ -0,0 +1,538 @@
+package com.ticketing.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.dto.BookedSeatDetail;
+import com.ticketing.dto.BookingRequest;
+import com.ticketing.dto.BookingResponse;
+import com.ticketing.dto.SeatState;
+import com.ticketing.exception.EventNotFoundException;
+import com.ticketing.exception.SeatsUnavailableException;
+import com.ticketing.model.Event;
+import com.ticketing.model.EventCounter;
+import com.ticketing.model.Seat;
+import com.ticketing.model.SeatStatus;
+import com.ticketing.repository.EventCounterRepository;
+import com.ticketing.repository.EventRepository;
+import com.ticketing.repository.SeatRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Books seats against an in-memory inventory and persists confirmed bookings
+ * asynchronously. Each event has its own inventory, so claims for one event
+ * never contend with another. Enabled with {@code ticketing.booking.mode=inventory}.
+ *
+ * Callers are told their booking is confirmed before it is written, so a
+ * batch is never dropped: one that keeps failing is moved to the dead-letter
+ * directory, replayed from there, and counted as booked when inventories are
+ * built at startup.
+ *
+ * Re-initializing an event fences its inventory first, so no claims are
+ * accepted for seats that are about to be deleted, and waits for the bookings
+ * already accepted to be written. Dead-lettered bookings of the event are set
+ * aside once the new seats are committed, since they can no longer be written.
+ */
+@Service
+@ConditionalOnProperty(prefix = "ticketing.booking", name = "mode", havingValue = "inventory")
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryBookingService {
+
+    private final EventRepository eventRepository;
+    private final SeatRepository seatRepository;
+    private final EventCounterRepository eventCounterRepository;
+    private final PendingBookingWriter pendingBookingWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PricingService pricingService;
+    private final Optional<BookingJournal> bookingJournal;
+    private final ObjectMapper objectMapper;
+
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    @Value("${ticketing.inventory.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${ticketing.inventory.write-behind.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${ticketing.inventory.dead-letter-dir:dead-letter}")
+    private Path deadLetterDir;
+
+    @Value("${ticketing.journal.recover-inventory:true}")
+    private boolean recoverFromJournal;
+
+    private final BlockingQueue<PendingBooking> writeBehindQueue = new LinkedBlockingQueue<>();
+    // Per event, bookings from the start of their claim until they are written or dead-lettered
+    private final Map<Long, AtomicInteger> unwrittenBookings = new ConcurrentHashMap<>();
+
+    private final Map<Long, SeatInventory> inventories = new ConcurrentHashMap<>();
+    private final Object deadLetterLock = new Object();
+    private WriteBehindDeadLetters deadLetters;
+    private volatile boolean running;
+    private Thread writeBehindThread;
+
+    @PostConstruct
+    void startWriteBehind() {
+        deadLetters = new WriteBehindDeadLetters(deadLetterDir, objectMapper);
+        running = true;
+        writeBehindThread = new Thread(this::runWriteBehind, "inventory-write-behind");
+        writeBehindThread.setDaemon(true);
+        writeBehindThread.start();
+    }
+
+    @PreDestroy
+    void stopWriteBehind() throws InterruptedException {
+        running = false;
+        writeBehindThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Rebuild seat state for every event once the application is ready.
+     * Dead-lettered bookings are replayed first; those that still cannot be
+     * written are applied to the rebuilt inventories so their seats are not
+     * sold again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        synchronized (deadLetterLock) {
+            replayDeadLetters();
+            for (Event event : eventRepository.findAll()) {
+                SeatInventory recovered = recoverFromJournal ? recover(event.getId()) : null;
+                if (recovered != null) {
+                    inventories.put(event.getId(), recovered);
+                } else {
+                    rebuild(event.getId());
+                }
+            }
+            restoreDeadLetters();
+        }
+    }
+
+    /**
+     * Write dead-lettered batches to the database, oldest first, deleting each
+     * file once its batch has committed
+     */
+    @Scheduled(fixedDelayString = "${ticketing.inventory.dead-letter.retry-millis:60000}")
+    public void replayDeadLetters() {
+        synchronized (deadLetterLock) {
+            try {
+                for (Path file : deadLetters.files()) {
+                    List<PendingBooking> batch = deadLetters.read(file);
+                    pendingBookingWriter.write(batch);
+                    deadLetters.delete(file);
+                    log.info("Replayed {} dead-lettered bookings from {}", batch.size(), file.getFileName());
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Dead-lettered bookings in {} could not be replayed yet: {}",
+                        deadLetters.dir().toAbsolutePath(), e.getMessage());
+            }
+        }
+    }
+
+    private void restoreDeadLetters() {
+        try {
+            for (Path file : deadLetters.files()) {
+                for (PendingBooking booking : deadLetters.read(file)) {
+                    SeatInventory inventory = inventories.get(booking.eventId());
+                    if (inventory == null) {
+                        log.error("Dead-lettered booking order {} is for unknown event {}",
+                                booking.bookingOrder(), booking.eventId());
+                        continue;
+                    }
+                    List<Long> seatIds = booking.seats().stream().map(BookedSeatDetail::getSeatId).toList();
+                    int lastSeatOrder = booking.seats().stream().mapToInt(BookedSeatDetail::getBookingOrder).max().orElse(0);
+                    inventory.restore(seatIds, lastSeatOrder, booking.bookingOrder());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read dead-lettered bookings in " + deadLetters.dir(), e);
+        }
+    }
+
+    /**
+     * Seat state of an event from the booking journal, when one is written and
+     * its counters agree with the database; null otherwise
+     */
+    private SeatInventory recover(Long eventId) {
+        JournalState.EventState journaled = bookingJournal.flatMap(journal -> journal.eventState(eventId)).orElse(null);
+        EventCounter counter = eventCounterRepository.findById(eventId).orElse(null);
+        if (journaled == null || counter == null) {
+            return null;
+        }
+        if (journaled.soldSeats() != counter.getSoldSeats() || journaled.lastBookingOrder() != counter.getLastBookingOrder()) {
+            log.warn("Journal of event {} is behind the database ({} sold, {} in the database), loading seats instead",
+                    eventId, journaled.soldSeats(), counter.getSoldSeats());
+            return null;
+        }
+        SeatInventory recovered = new SeatInventory(journaled.seatIds(), journaled.statuses(),
+                counter.getSoldSeats(), counter.getLastBookingOrder());
+        log.info("Seat inventory for event {} recovered from the booking journal with {} seats, {} sold",
+                eventId, recovered.size(), recovered.soldSeats());
+        return recovered;
+    }
+
+    /**
+     * Rebuild seat state after an event has been created or re-initialized.
+     * Dead-lettered bookings of the event were for seats that no longer
+     * exist, so they are set aside instead of being replayed.
+     */
+    @TransactionalEventListener
+    public void onSeatsInitialized(SeatsInitializedEvent event) {
+        synchronized (deadLetterLock) {
+            try {
+                int superseded = deadLetters.supersede(event.eventId());
+                if (superseded > 0) {
+                    log.warn("Set aside {} dead-lettered bookings of event {} made before it was re-initialized",
+                            superseded, event.eventId());
+                }
+            } catch (IOException e) {
+                log.error("Could not set aside dead-lettered bookings of event {} in {}: {}",
+                        event.eventId(), deadLetters.dir().toAbsolutePath(), e.getMessage());
+            }
+        }
+        rebuild(event.eventId());
+    }
+
+    /**
+     * Stop an event's inventory from accepting claims before the event is
+     * re-initialized in the current transaction, then wait for the bookings it
+     * already accepted to be written. The fence is lifted if the transaction
+     * rolls back; if it commits, the inventory is replaced.
+     */
+    public void fenceForReset(Long eventId, long timeout, TimeUnit unit) throws InterruptedException {
+        SeatInventory current = inventories.computeIfAbsent(eventId, this::load);
+        current.fence();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    current.unfence();
+                }
+            }
+        });
+        AtomicInteger unwritten = unwritten(eventId);
+        await(() -> unwritten.get() == 0, timeout, unit);
+    }
+
+    /**
+     * Load current seat state and booking counters of an event from the database
+     */
+    public void rebuild(Long eventId) {
+        inventories.put(eventId, load(eventId));
+    }
+
+    private SeatInventory load(Long eventId) {
+        EventCounter counter = eventCounterRepository.findById(eventId)
+                .orElseThrow(() -> new EventNotFoundException(eventId));
+        SeatInventory loaded = new SeatInventory(
+                seatRepository.findByEventIdOrderBySeatNumber(eventId),
+                counter.getSoldSeats(),
+                counter.getLastBookingOrder());
+        log.info("Seat inventory for event {} loaded with {} seats, {} sold",
+                eventId, loaded.size(), loaded.soldSeats());
+        return loaded;
+    }
+
+    /**
+     * Book seats by claiming them in memory; the booking is written to the
+     * database by the write-behind stage
+     */
+    public BookingResponse bookSeats(Long eventId, BookingRequest request) {
+        PendingBooking booking = claim(eventId, request.getSeatIds(), request.getUserName());
+        eventPublisher.publishEvent(new SeatStatusChangedEvent(eventId, booking.seats().stream()
+                .map(seat -> new SeatState(seat.getSeatId(), seat.getSeatNumber(), SeatStatus.BOOKED))
+                .collect(Collectors.toList())));
+
+        writeBehindQueue.add(booking);
+
+        log.debug("Claimed {} seats in memory for user {} with booking order {}",
+                booking.seats().size(), request.getUserName(), booking.bookingOrder());
+
+        return new BookingResponse(
+                true,
+                "Booking confirmed for " + request.getUserName(),
+                booking.totalPrice(),
+                booking.seats());
+    }
+
+    /**
+     * Claim seats in memory and price them at the next seat positions. The
+     * booking counts as unwritten until the caller hands it to the
+     * write-behind stage or reports it written; the caller also publishes the
+     * change.
+     */
+    PendingBooking claim(Long eventId, List<Long> seatIds, String userName) {
+        // Counted before the seats are claimed, so that once an inventory is
+        // fenced every booking it accepted is already counted
+        AtomicInteger unwritten = unwritten(eventId);
+        unwritten.incrementAndGet();
+        try {
+            return claimCounted(eventId, seatIds, userName);
+        } catch (RuntimeException e) {
+            unwritten.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private PendingBooking claimCounted(Long eventId, List<Long> seatIds, String userName) {
+        SeatInventory current = inventories.computeIfAbsent(eventId, this::load);
+
+        int[] indexes = current.indexesOf(seatIds);
+        if (indexes == null) {
+            throw new IllegalArgumentException("One or more seat IDs are invalid");
+        }
+
+        int unavailable = current.claim(indexes, SeatStatus.AVAILABLE, SeatStatus.BOOKED);
+        if (unavailable >= 0) {
+            throw new SeatsUnavailableException("Seats already booked: " + current.seatNumber(unavailable));
+        }
+
+        BookingSlot slot = current.allocate(indexes.length);
+        if (slot == null) {
+            current.claim(indexes, SeatStatus.BOOKED, SeatStatus.AVAILABLE);
+            throw reinitializing(eventId);
+        }
+        int seatOrder = slot.soldBefore();
+        int bookingOrder = slot.bookingOrder();
+
+        PriceTable prices = pricingService.priceTable(eventId);
+        BigDecimal totalPrice = PricingService.toAmount(prices.totalCents(seatOrder, indexes.length));
+        List<BookedSeatDetail> seatDetails = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            seatOrder++;
+            BigDecimal seatPrice = PricingService.toAmount(prices.priceCents(seatOrder));
+            seatDetails.add(new BookedSeatDetail(
+                    current.seatId(index), current.seatNumber(index), seatPrice, seatOrder));
+        }
+        return new PendingBooking(eventId, userName, bookingOrder, totalPrice, LocalDateTime.now(), seatDetails);
+    }
+
+    /**
+     * Current seat states of an event, including bookings not yet written
+     */
+    public List<SeatState> snapshot(Long eventId) {
+        SeatInventory current = inventories.computeIfAbsent(eventId, this::load);
+        List<SeatState> seats = new ArrayList<>(current.size());
+        for (int index = 0; index < current.size(); index++) {
+            seats.add(new SeatState(current.seatId(index), current.seatNumber(index), current.status(index)));
+        }
+        return seats;
+    }
+
+    /**
+     * Seats with the status held in memory, which may be ahead of the database
+     * while bookings wait in the write-behind queue. Entities are copied rather
+     * than modified.
+     */
+    public List<Seat> withCurrentStatus(Long eventId, List<Seat> seats) {
+        SeatInventory current = inventories.get(eventId);
+        if (current == null || current.size() != seats.size()) {
+            return seats;
+        }
+        List<Seat> result = new ArrayList<>(seats.size());
+        for (int index = 0; index < seats.size(); index++) {
+            Seat seat = seats.get(index);
+            SeatStatus status = current.status(index);
+            if (seat.getStatus() == status || seat.getId() != current.seatId(index)) {
+                result.add(seat);
+            } else {
+                result.add(new Seat(seat.getId(), seat.getEventId(), seat.getSeatNumber(), status,
+                        seat.getCreatedAt(), seat.getUpdatedAt(), seat.getVersion()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Move seats between statuses in memory, all or nothing
+     */
+    public void transition(Long eventId, List<Long> seatIds, SeatStatus from, SeatStatus to) {
+        SeatInventory current = inventories.computeIfAbsent(eventId, this::load);
+
+        int[] indexes = current.indexesOf(seatIds);
+        if (indexes == null) {
+            throw new IllegalArgumentException("One or more seat IDs are invalid");
+        }
+
+        int unavailable = current.claim(indexes, from, to);
+        if (unavailable >= 0) {
+            throw new SeatsUnavailableException("Seats already booked: " + current.seatNumber(unavailable));
+        }
+    }
+
+    /**
+     * Hand bookings already claimed in memory to the write-behind stage, which
+     * retries them and keeps them on disk until they are written
+     */
+    void writeBehind(List<PendingBooking> bookings) {
+        writeBehindQueue.addAll(bookings);
+    }
+
+    /**
+     * Report bookings claimed in memory as written by the caller
+     */
+    void written(List<PendingBooking> bookings) {
+        bookings.forEach(booking -> unwritten(booking.eventId()).decrementAndGet());
+    }
+
+    /**
+     * Force seats to booked in memory once their booking has been committed,
+     * whatever state they are in now
+     */
+    public void markBooked(Long eventId, List<Long> seatIds) {
+        inventories.computeIfAbsent(eventId, this::load).restore(seatIds, 0, 0);
+    }
+
+    /**
+     * Reserve seat positions and a booking order for a booking that is written
+     * to the database in the caller's transaction. If the transaction rolls
+     * back, the slot is given back so no gap is left, unless a later booking
+     * has already been allocated positions after it.
+     */
+    public BookingSlot allocate(Long eventId, int seats) {
+        SeatInventory current = inventories.computeIfAbsent(eventId, this::load);
+        BookingSlot slot = current.allocate(seats);
+        if (slot == null) {
+            throw reinitializing(eventId);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED && !current.release(slot, seats)) {
+                    log.error("Booking order {} and {} seat positions of event {} were rolled back after later "
+                            + "bookings were allocated, leaving them unused", slot.bookingOrder(), seats, eventId);
+                }
+            }
+        });
+        return slot;
+    }
+
+    /**
+     * Block until every booking accepted so far has been written
+     */
+    public void awaitWriteBehind(long timeout, TimeUnit unit) throws InterruptedException {
+        await(() -> unwrittenBookings.values().stream().allMatch(unwritten -> unwritten.get() == 0)
+                && !hasDeadLetters(), timeout, unit);
+    }
+
+    /**
+     * Block until every booking of an event accepted so far has been written
+     */
+    public void awaitWriteBehind(Long eventId, long timeout, TimeUnit unit) throws InterruptedException {
+        AtomicInteger unwritten = unwritten(eventId);
+        await(() -> unwritten.get() == 0 && !hasDeadLetters(eventId), timeout, unit);
+    }
+
+    private static void await(BooleanSupplier done, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!done.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Timed out waiting for pending bookings to be written");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private AtomicInteger unwritten(Long eventId) {
+        return unwrittenBookings.computeIfAbsent(eventId, id -> new AtomicInteger());
+    }
+
+    private static SeatsUnavailableException reinitializing(Long eventId) {
+        return new SeatsUnavailableException("Event " + eventId + " is being re-initialized");
+    }
+
+    private boolean hasDeadLetters() {
+        try {
+            return !deadLetters.isEmpty();
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private boolean hasDeadLetters(Long eventId) {
+        try {
+            return deadLetters.contains(eventId);
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private void runWriteBehind() {
+        List<PendingBooking> batch = new ArrayList<>(batchSize);
+        while (running || !writeBehindQueue.isEmpty()) {
+            try {
+                PendingBooking first = writeBehindQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                writeBehindQueue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+                written(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Write a batch, retrying with backoff. After max-attempts failures the
+     * batch is stored as a dead letter instead; if that fails too, both are
+     * retried until one succeeds.
+     */
+    private void writeBatch(List<PendingBooking> batch) throws InterruptedException {
+        long backoffMillis = 100;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                pendingBookingWriter.write(batch);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Write-behind attempt {} failed for {} bookings: {}", attempt, batch.size(), e.getMessage());
+            }
+            if (attempt >= maxAttempts) {
+                try {
+                    deadLetters.store(batch);
+                    log.error("Moved {} bookings to dead letters in {} after {} failed writes",
+                            batch.size(), deadLetters.dir().toAbsolutePath(), attempt);
+                    return;
+                } catch (IOException e) {
+                    log.error("Could not store {} unwritten bookings as dead letters, retrying: {}",
+                            batch.size(), e.getMessage());
+                }
+            }
+            Thread.sleep(backoffMillis);
+            backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.ticketing.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary encoding of journal entries.
+ *
+ * A frame is a 4-byte body length, a 4-byte CRC32C of the body and the body:
+ * a type byte, the timestamp and event ID as 8-byte longs, then the entry's
+ * fields. Integers inside the body are varints; seat IDs of a baseline are
+ * zigzag deltas, one byte each when IDs are consecutive. A zero length marks
+ * the end of the written part of a segment.
+ */
+final class JournalCodec {
+
+    static final int FRAME_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final byte BASELINE = 1;
+    private static final byte SEATS_CHANGED = 2;
+    private static final byte BOOKING_CONFIRMED = 3;
+    private static final byte BOOKING_CANCELLED = 4;
+
+    private JournalCodec() {
+    }
+
+    static byte[] encode(JournalRecord record) {
+        Output out = new Output();
+        if (record instanceof JournalRecord.Baseline baseline) {
+            out.header(BASELINE, baseline);
+            out.varint(baseline.soldSeats());
+            out.varint(baseline.lastBookingOrder());
+            out.varint(baseline.seatIds().length);
+            long previous = 0;
+            for (long seatId : baseline.seatIds()) {
+                out.varlong(zigzag(seatId - previous));
+                previous = seatId;
+            }
+            out.write(baseline.statuses(), 0, baseline.statuses().length);
+        } else if (record instanceof JournalRecord.SeatsChanged changed) {
+            out.header(SEATS_CHANGED, changed);
+            out.varint(changed.seatNumbers().length);
+            for (int i = 0; i < changed.seatNumbers().length; i++) {
+                out.varint(changed.seatNumbers()[i]);
+                out.write(changed.statuses()[i]);
+            }
+        } else if (record instanceof JournalRecord.BookingConfirmed confirmed) {
+            out.header(BOOKING_CONFIRMED, confirmed);
+            out.varlong(confirmed.bookingId());
+            out.varint(confirmed.bookingOrder());
+            out.varint(confirmed.seatNumbers().length);
+            for (int i = 0; i < confirmed.seatNumbers().length; i++) {
+                out.varint(confirmed.seatNumbers()[i]);
+                out.varint(confirmed.seatOrders()[i]);
+            }
+        } else if (record instanceof JournalRecord.BookingCancelled cancelled) {
+            out.header(BOOKING_CANCELLED, cancelled);
+            out.varlong(cancelled.bookingId());
+            out.varint(cancelled.seatNumbers().length);
+            for (int seatNumber : cancelled.seatNumbers()) {
+                out.varint(seatNumber);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    static JournalRecord decode(ByteBuffer body) {
+        byte type = body.get();
+        long timestamp = body.getLong();
+        long eventId = body.getLong();
+        switch (type) {
+            case BASELINE -> {
+                int soldSeats = varint(body);
+                int lastBookingOrder = varint(body);
+                long[] seatIds = new long[varint(body)];
+                long previous = 0;
+                for (int i = 0; i < seatIds.length; i++) {
+                    previous += unzigzag(varlong(body));
+                    seatIds[i] = previous;
+                }
+                byte[] statuses = new byte[seatIds.length];
+                body.get(statuses);
+                return new JournalRecord.Baseline(timestamp, eventId, seatIds, statuses, soldSeats, lastBookingOrder);
+            }
+            case SEATS_CHANGED -> {
+                int[] seatNumbers = new int[varint(body)];
+                byte[] statuses = new byte[seatNumbers.length];
+                for (int i = 0; i < seatNumbers.length; i++) {
+                    seatNumbers[i] = varint(body);
+                    statuses[i] = body.get();
+                }
+                return new JournalRecord.SeatsChanged(timestamp, eventId, seatNumbers, statuses);
+            }
+            case BOOKING_CONFIRMED -> {
+                long bookingId = varlong(body);
+                int bookingOrder = varint(body);
+                int[] seatNumbers = new int[varint(body)];
+                int[] seatOrders = new int[seatNumbers.length];
+                for (int i = 0; i < seatNumbers.length; i++) {
+                    seatNumbers[i] = varint(body);
+                    seatOrders[i] = varint(body);
+                }
+                return new JournalRecord.BookingConfirmed(timestamp, eventId, bookingId, bookingOrder,
+                        seatNumbers, seatOrders);
+            }
+            case BOOKING_CANCELLED -> {
+                long bookingId = varlong(body);
+                int[] seatNumbers = new int[varint(body)];
+                for (int i = 0; i < seatNumbers.length; i++) {
+                    seatNumbers[i] = varint(body);
+                }
+                return new JournalRecord.BookingCancelled(timestamp, eventId, bookingId, seatNumbers);
+            }
+            default -> throw new IllegalStateException("Unknown journal entry type " + type);
+        }
+    }
+
+    static int checksum(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    static int checksum(ByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate());
+        return (int) crc.getValue();
+    }
+
+    static int varint(ByteBuffer in) {
+        return (int) varlong(in);
+    }
+
+    static long varlong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Growable buffer with varint writes
+     */
+    static final class Output extends ByteArrayOutputStream {
+
+        Output() {
+            super(64);
+        }
+
+        void header(byte type, JournalRecord record) {
+            write(type);
+            fixedLong(record.timestampMillis());
+            fixedLong(record.eventId());
+        }
+
+        void fixedLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        void varint(int value) {
+            varlong(value & 0xFFFFFFFFL);
+        }
+
+        void varlong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
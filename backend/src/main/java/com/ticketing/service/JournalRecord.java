@@ -0,0 +1,40 @@
+package com.ticketing.service;
+
+/**
+ * Entry of the booking journal. Seat statuses are {@link com.ticketing.model.SeatStatus}
+ * ordinals; seats are identified by seat number, which runs from 1 in every
+ * event. Applying an entry twice leaves the same state, so entries that
+ * overlap a baseline do no harm.
+ */
+public sealed interface JournalRecord {
+
+    long timestampMillis();
+
+    long eventId();
+
+    /**
+     * Every seat of an event in seat-number order with its status, and the
+     * event's counters; replaces whatever was known about the event
+     */
+    record Baseline(long timestampMillis, long eventId, long[] seatIds, byte[] statuses,
+            int soldSeats, int lastBookingOrder) implements JournalRecord {
+    }
+
+    /**
+     * Seats that were held or released
+     */
+    record SeatsChanged(long timestampMillis, long eventId, int[] seatNumbers, byte[] statuses)
+            implements JournalRecord {
+    }
+
+    /**
+     * A booking and the seat positions it was priced at
+     */
+    record BookingConfirmed(long timestampMillis, long eventId, long bookingId, int bookingOrder,
+            int[] seatNumbers, int[] seatOrders) implements JournalRecord {
+    }
+
+    record BookingCancelled(long timestampMillis, long eventId, long bookingId, int[] seatNumbers)
+            implements JournalRecord {
+    }
+}
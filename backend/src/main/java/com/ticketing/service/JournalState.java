@@ -0,0 +1,203 @@
+package com.ticketing.service;
+
+import com.ticketing.model.SeatStatus;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Seat state of every journaled event, built by applying journal entries in
+ * order, and its compact snapshot form.
+ *
+ * A snapshot holds the journal position it was taken at and, per event, the
+ * counters, the seat IDs as zigzag deltas and the seat statuses packed four
+ * to a byte, followed by a CRC32C of everything before it.
+ */
+public final class JournalState {
+
+    private static final int SNAPSHOT_MAGIC = 0x544A534E;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final byte AVAILABLE = (byte) SeatStatus.AVAILABLE.ordinal();
+    private static final byte BOOKED = (byte) SeatStatus.BOOKED.ordinal();
+
+    private final Map<Long, EventState> events = new TreeMap<>();
+
+    /**
+     * Seat state of one event; seat numbers are array index + 1. The arrays are
+     * shared, not copied.
+     */
+    public static final class EventState {
+
+        private final long[] seatIds;
+        private final byte[] statuses;
+        private int soldSeats;
+        private int lastBookingOrder;
+
+        EventState(long[] seatIds, byte[] statuses, int soldSeats, int lastBookingOrder) {
+            this.seatIds = seatIds;
+            this.statuses = statuses;
+            this.soldSeats = soldSeats;
+            this.lastBookingOrder = lastBookingOrder;
+        }
+
+        public long[] seatIds() {
+            return seatIds;
+        }
+
+        public byte[] statuses() {
+            return statuses;
+        }
+
+        public int soldSeats() {
+            return soldSeats;
+        }
+
+        public int lastBookingOrder() {
+            return lastBookingOrder;
+        }
+
+        public int size() {
+            return seatIds.length;
+        }
+
+        public int count(SeatStatus status) {
+            int count = 0;
+            for (byte seatStatus : statuses) {
+                if (seatStatus == status.ordinal()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        EventState copy() {
+            return new EventState(seatIds.clone(), statuses.clone(), soldSeats, lastBookingOrder);
+        }
+
+        private void set(int seatNumber, byte status) {
+            if (seatNumber >= 1 && seatNumber <= statuses.length) {
+                statuses[seatNumber - 1] = status;
+            }
+        }
+    }
+
+    public Map<Long, EventState> events() {
+        return Collections.unmodifiableMap(events);
+    }
+
+    public EventState event(long eventId) {
+        return events.get(eventId);
+    }
+
+    /**
+     * Apply one journal entry. Entries for events without a baseline are
+     * ignored; counters only move forward, as the highest seat position and
+     * booking order seen.
+     */
+    public void apply(JournalRecord record) {
+        if (record instanceof JournalRecord.Baseline baseline) {
+            events.put(baseline.eventId(), new EventState(baseline.seatIds().clone(), baseline.statuses().clone(),
+                    baseline.soldSeats(), baseline.lastBookingOrder()));
+            return;
+        }
+        EventState event = events.get(record.eventId());
+        if (event == null) {
+            return;
+        }
+        if (record instanceof JournalRecord.SeatsChanged changed) {
+            for (int i = 0; i < changed.seatNumbers().length; i++) {
+                event.set(changed.seatNumbers()[i], changed.statuses()[i]);
+            }
+        } else if (record instanceof JournalRecord.BookingConfirmed confirmed) {
+            for (int i = 0; i < confirmed.seatNumbers().length; i++) {
+                event.set(confirmed.seatNumbers()[i], BOOKED);
+                event.soldSeats = Math.max(event.soldSeats, confirmed.seatOrders()[i]);
+            }
+            event.lastBookingOrder = Math.max(event.lastBookingOrder, confirmed.bookingOrder());
+        } else if (record instanceof JournalRecord.BookingCancelled cancelled) {
+            for (int seatNumber : cancelled.seatNumbers()) {
+                event.set(seatNumber, AVAILABLE);
+            }
+        }
+    }
+
+    public JournalState copy() {
+        JournalState copy = new JournalState();
+        events.forEach((eventId, event) -> copy.events.put(eventId, event.copy()));
+        return copy;
+    }
+
+    /**
+     * Serialize this state as a snapshot taken at the given journal position
+     */
+    byte[] toSnapshot(long position) {
+        JournalCodec.Output out = new JournalCodec.Output();
+        writeInt(out, SNAPSHOT_MAGIC);
+        writeInt(out, SNAPSHOT_VERSION);
+        out.fixedLong(position);
+        out.varint(events.size());
+        events.forEach((eventId, event) -> {
+            out.fixedLong(eventId);
+            out.varint(event.soldSeats);
+            out.varint(event.lastBookingOrder);
+            out.varint(event.size());
+            long previous = 0;
+            for (long seatId : event.seatIds) {
+                out.varlong(JournalCodec.zigzag(seatId - previous));
+                previous = seatId;
+            }
+            byte[] packed = new byte[(event.size() + 3) / 4];
+            for (int i = 0; i < event.size(); i++) {
+                packed[i >> 2] |= (byte) ((event.statuses[i] & 0x3) << ((i & 3) << 1));
+            }
+            out.write(packed, 0, packed.length);
+        });
+        writeInt(out, JournalCodec.checksum(out.buffer(), 0, out.size()));
+        return out.toByteArray();
+    }
+
+    /**
+     * Read a snapshot, returning the journal position it was taken at
+     *
+     * @throws IllegalStateException if the snapshot is damaged
+     */
+    static long fromSnapshot(ByteBuffer in, JournalState into) {
+        if (in.limit() < 3 * Integer.BYTES || in.getInt(in.limit() - Integer.BYTES)
+                != JournalCodec.checksum(in.duplicate().limit(in.limit() - Integer.BYTES))) {
+            throw new IllegalStateException("Snapshot checksum mismatch");
+        }
+        if (in.getInt() != SNAPSHOT_MAGIC || in.getInt() != SNAPSHOT_VERSION) {
+            throw new IllegalStateException("Not a journal snapshot");
+        }
+        long position = in.getLong();
+        int eventCount = JournalCodec.varint(in);
+        for (int e = 0; e < eventCount; e++) {
+            long eventId = in.getLong();
+            int soldSeats = JournalCodec.varint(in);
+            int lastBookingOrder = JournalCodec.varint(in);
+            int size = JournalCodec.varint(in);
+            long[] seatIds = new long[size];
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                previous += JournalCodec.unzigzag(JournalCodec.varlong(in));
+                seatIds[i] = previous;
+            }
+            byte[] packed = new byte[(size + 3) / 4];
+            in.get(packed);
+            byte[] statuses = new byte[size];
+            for (int i = 0; i < size; i++) {
+                statuses[i] = (byte) ((packed[i >> 2] >> ((i & 3) << 1)) & 0x3);
+            }
+            into.events.put(eventId, new EventState(seatIds, statuses, soldSeats, lastBookingOrder));
+        }
+        return position;
+    }
+
+    private static void writeInt(JournalCodec.Output out, int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write(value >>> shift);
+        }
+    }
+}
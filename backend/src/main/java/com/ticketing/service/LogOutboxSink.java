@@ -0,0 +1,29 @@
+package com.ticketing.service;
+
+import com.ticketing.model.OutboxMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes outbox messages to the ticketing.outbox log, for development and tests
+ */
+@Component
+@ConditionalOnProperty(prefix = "ticketing.outbox.sink.log", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j(topic = "ticketing.outbox")
+public class LogOutboxSink implements OutboxSink {
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            log.info("{} {}", message.getId(), message.getPayload());
+        }
+    }
+}
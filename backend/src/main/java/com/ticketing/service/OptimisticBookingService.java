@@ -0,0 +1,262 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.BookedSeatDetail;
+import com.ticketing.dto.BookingRequest;
+import com.ticketing.dto.BookingResponse;
+import com.ticketing.dto.SeatState;
+import com.ticketing.exception.EventNotFoundException;
+import com.ticketing.exception.SeatsUnavailableException;
+import com.ticketing.model.Booking;
+import com.ticketing.model.BookingSeat;
+import com.ticketing.model.BookingStatus;
+import com.ticketing.model.EventCounter;
+import com.ticketing.model.Seat;
+import com.ticketing.model.SeatStatus;
+import com.ticketing.repository.BookingRepository;
+import com.ticketing.repository.EventCounterRepository;
+import com.ticketing.repository.EventRepository;
+import com.ticketing.repository.SeatRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Books seats without locking them up front.
+ *
+ * Seats are read without locks and validated, then booked with one conditional
+ * update that only changes seats still AVAILABLE and bumps their version. If
+ * fewer rows change than were requested, a concurrent booking won the race and
+ * the transaction is rolled back and retried after a short jittered backoff;
+ * the retry sees the seats as booked and fails fast if they really are taken.
+ *
+ * Each event tracks how often attempts lose a race. Above
+ * ticketing.optimistic.fallback-conflict-rate the event is booked with
+ * pessimistic row locks for a cooldown period, where waiting on a lock is
+ * cheaper than repeated rollbacks. Enabled with
+ * {@code ticketing.booking.mode=optimistic}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "ticketing.booking", name = "mode", havingValue = "optimistic")
+@Slf4j
+public class OptimisticBookingService {
+
+    private final SeatRepository seatRepository;
+    private final EventRepository eventRepository;
+    private final EventCounterRepository eventCounterRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PricingService pricingService;
+    private final BookingMetrics bookingMetrics;
+    private final OutboxWriter outboxWriter;
+
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final double fallbackConflictRate;
+    private final int fallbackWindow;
+    private final long fallbackCooldownNanos;
+
+    private final Map<Long, ContentionMonitor> monitors = new ConcurrentHashMap<>();
+
+    /**
+     * A concurrent booking changed a seat between the read and the update
+     */
+    private static final class LostRaceException extends SeatsUnavailableException {
+
+        private static final long serialVersionUID = 1L;
+
+        LostRaceException() {
+            super("Seats were booked by a concurrent request");
+        }
+    }
+
+    public OptimisticBookingService(SeatRepository seatRepository, EventRepository eventRepository,
+            EventCounterRepository eventCounterRepository, BookingRepository bookingRepository,
+            TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+            PricingService pricingService, BookingMetrics bookingMetrics, OutboxWriter outboxWriter,
+            @Value("${ticketing.optimistic.max-attempts:4}") int maxAttempts,
+            @Value("${ticketing.optimistic.backoff-millis:5}") long backoffMillis,
+            @Value("${ticketing.optimistic.fallback-conflict-rate:0.2}") double fallbackConflictRate,
+            @Value("${ticketing.optimistic.fallback-window:50}") int fallbackWindow,
+            @Value("${ticketing.optimistic.fallback-cooldown-millis:5000}") long fallbackCooldownMillis) {
+        this.seatRepository = seatRepository;
+        this.eventRepository = eventRepository;
+        this.eventCounterRepository = eventCounterRepository;
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.pricingService = pricingService;
+        this.bookingMetrics = bookingMetrics;
+        this.outboxWriter = outboxWriter;
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+        this.fallbackConflictRate = fallbackConflictRate;
+        this.fallbackWindow = fallbackWindow;
+        this.fallbackCooldownNanos = TimeUnit.MILLISECONDS.toNanos(fallbackCooldownMillis);
+    }
+
+    /**
+     * Whether bookings for the event should take pessimistic locks for now
+     */
+    public boolean isContended(Long eventId) {
+        return monitorFor(eventId).isPessimistic(System.nanoTime());
+    }
+
+    /**
+     * Book the seats, retrying races lost to concurrent bookings up to
+     * ticketing.optimistic.max-attempts times
+     */
+    public BookingResponse bookSeats(Long eventId, BookingRequest request) {
+        ContentionMonitor monitor = monitorFor(eventId);
+        for (int attempt = 1; ; attempt++) {
+            RuntimeException conflict;
+            try {
+                long[] workDone = new long[1];
+                BookingResponse response = transactionTemplate.execute(status -> {
+                    BookingResponse booked = bookOnce(eventId, request);
+                    workDone[0] = System.nanoTime();
+                    return booked;
+                });
+                bookingMetrics.recordPhase(BookingMetrics.Phase.COMMIT, System.nanoTime() - workDone[0]);
+                monitor.record(false, System.nanoTime());
+                return response;
+            } catch (LostRaceException e) {
+                conflict = e;
+            } catch (PessimisticLockingFailureException e) {
+                // Deadlock or lock timeout between conditional updates on overlapping seats
+                conflict = new IllegalStateException("Booking could not complete under contention, please retry", e);
+            }
+
+            if (monitor.record(true, System.nanoTime())) {
+                bookingMetrics.recordFallback();
+                log.info("Conflict rate for event {} is {}, booking with pessimistic locks for {} ms",
+                        eventId, String.format("%.2f", monitor.rate()),
+                        TimeUnit.NANOSECONDS.toMillis(fallbackCooldownNanos));
+            }
+            if (attempt == maxAttempts) {
+                throw conflict;
+            }
+            bookingMetrics.recordRetry();
+            backoff(attempt);
+        }
+    }
+
+    private BookingResponse bookOnce(Long eventId, BookingRequest request) {
+        // 1. Read and validate the seats without locking them
+        long phaseStart = System.nanoTime();
+        List<Seat> seats = seatRepository.findByEventIdAndIdIn(eventId, request.getSeatIds());
+        if (seats.isEmpty() && !eventRepository.existsById(eventId)) {
+            throw new EventNotFoundException(eventId);
+        }
+        if (seats.size() != request.getSeatIds().size()) {
+            throw new IllegalArgumentException("One or more seat IDs are invalid");
+        }
+        String unavailable = seats.stream()
+                .filter(seat -> seat.getStatus() != SeatStatus.AVAILABLE)
+                .map(seat -> String.valueOf(seat.getSeatNumber()))
+                .collect(Collectors.joining(", "));
+        if (!unavailable.isEmpty()) {
+            throw new SeatsUnavailableException("Seats already booked: " + unavailable);
+        }
+
+        // 2. Book them only if they are still available
+        int updated = seatRepository.compareAndSetStatus(
+                eventId, request.getSeatIds(), SeatStatus.AVAILABLE, SeatStatus.BOOKED);
+        bookingMetrics.recordPhase(BookingMetrics.Phase.LOCK, System.nanoTime() - phaseStart);
+        if (updated != seats.size()) {
+            throw new LostRaceException();
+        }
+
+        // 3. Claim booking order and seat positions
+        phaseStart = System.nanoTime();
+        eventCounterRepository.claimPositions(eventId, seats.size());
+        EventCounter counter = eventCounterRepository.findById(eventId)
+                .orElseThrow(() -> new EventNotFoundException(eventId));
+        int seatOrder = counter.getSoldSeats() - seats.size();
+        int bookingOrder = counter.getLastBookingOrder();
+        bookingMetrics.recordPhase(BookingMetrics.Phase.COUNTER, System.nanoTime() - phaseStart);
+
+        // 4. Price and write the booking; the seat entities are left untouched,
+        // their rows were already updated above
+        PriceTable prices = pricingService.priceTable(eventId);
+        BigDecimal totalPrice = PricingService.toAmount(prices.totalCents(seatOrder, seats.size()));
+
+        Booking booking = new Booking();
+        booking.setEventId(eventId);
+        booking.setUserName(request.getUserName());
+        booking.setBookingOrder(bookingOrder);
+        booking.setTotalSeats(seats.size());
+        booking.setTotalPrice(totalPrice);
+        booking.setBookingStatus(BookingStatus.CONFIRMED);
+        booking.setBookingDate(LocalDateTime.now());
+
+        List<BookedSeatDetail> seatDetails = new ArrayList<>(seats.size());
+        List<SeatState> changedSeats = new ArrayList<>(seats.size());
+        for (Seat seat : seats) {
+            seatOrder++;
+            BigDecimal seatPrice = PricingService.toAmount(prices.priceCents(seatOrder));
+
+            BookingSeat bookingSeat = new BookingSeat();
+            bookingSeat.setSeat(seat);
+            bookingSeat.setSeatPrice(seatPrice);
+            bookingSeat.setSeatOrder(seatOrder);
+            booking.addBookingSeat(bookingSeat);
+
+            seatDetails.add(new BookedSeatDetail(seat.getId(), seat.getSeatNumber(), seatPrice, seatOrder));
+            changedSeats.add(new SeatState(seat.getId(), seat.getSeatNumber(), SeatStatus.BOOKED));
+        }
+
+        phaseStart = System.nanoTime();
+        Booking savedBooking = bookingRepository.save(booking);
+        bookingMetrics.recordPhase(BookingMetrics.Phase.INSERT, System.nanoTime() - phaseStart);
+        eventPublisher.publishEvent(new SeatStatusChangedEvent(eventId, changedSeats));
+        outboxWriter.bookingConfirmed(savedBooking.getId(), new PendingBooking(eventId, request.getUserName(),
+                bookingOrder, totalPrice, booking.getBookingDate(), seatDetails));
+
+        log.debug("Booking completed successfully. Booking ID: {}, Total Price: {}",
+                savedBooking.getId(), totalPrice);
+
+        return new BookingResponse(
+                true,
+                "Booking confirmed for " + request.getUserName(),
+                totalPrice,
+                seatDetails,
+                savedBooking.getId());
+    }
+
+    /**
+     * Sleep a random time up to backoff * 2^(attempt - 1), so racing requests
+     * spread out instead of colliding again
+     */
+    private void backoff(int attempt) {
+        long bound = backoffNanos << Math.min(attempt - 1, 10);
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(bound));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying booking");
+        }
+    }
+
+    private ContentionMonitor monitorFor(Long eventId) {
+        return monitors.computeIfAbsent(eventId,
+                id -> new ContentionMonitor(fallbackConflictRate, fallbackWindow, fallbackCooldownNanos));
+    }
+}
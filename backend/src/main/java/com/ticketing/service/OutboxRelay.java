@@ -0,0 +1,206 @@
+package com.ticketing.service;
+
+import com.ticketing.model.OutboxMessage;
+import com.ticketing.model.OutboxMessageType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox to the registered sinks on a background thread.
+ *
+ * Each round claims up to ticketing.outbox.batch-size of the oldest messages
+ * with FOR UPDATE SKIP LOCKED, so relays on several instances take disjoint
+ * batches without waiting on each other, hands them to every sink and deletes
+ * them in the same transaction. A failing sink rolls the round back and the
+ * batch is retried after a growing backoff: delivery is at least once.
+ *
+ * An event's messages are only delivered once no older message of that event
+ * is left, so when another relay holds an event's earlier messages the later
+ * ones wait for the next round instead of overtaking them.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ticketing.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+
+    private static final String CLAIM_SQL =
+            "SELECT id, event_id, type, booking_id, payload, created_at FROM outbox_message "
+                    + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String OLDEST_SQL =
+            "SELECT event_id, MIN(id) FROM outbox_message WHERE event_id IN (%s) GROUP BY event_id";
+    private static final String DELETE_SQL = "DELETE FROM outbox_message WHERE id = ?";
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private static final RowMapper<OutboxMessage> ROW_MAPPER = (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("id"),
+            rs.getLong("event_id"),
+            OutboxMessageType.valueOf(rs.getString("type")),
+            rs.getLong("booking_id"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<OutboxSink> sinks;
+    private final int batchSize;
+    private final long pollMillis;
+    private final Counter delivered;
+    private final Counter failures;
+    private final Timer lag;
+
+    private volatile boolean running;
+    private Thread relayThread;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, List<OutboxSink> sinks,
+            MeterRegistry registry,
+            @Value("${ticketing.outbox.batch-size:1000}") int batchSize,
+            @Value("${ticketing.outbox.poll-millis:200}") long pollMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sinks = sinks;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+        this.delivered = Counter.builder("ticketing.outbox.delivered")
+                .description("Outbox messages delivered to every sink")
+                .register(registry);
+        this.failures = Counter.builder("ticketing.outbox.failures")
+                .description("Outbox rounds rolled back because a sink failed")
+                .register(registry);
+        this.lag = Timer.builder("ticketing.outbox.lag")
+                .description("Time from a booking change being written to the outbox to its delivery")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Start once the schema is in place
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRelay() {
+        if (sinks.isEmpty()) {
+            log.warn("No outbox sinks configured, booking messages accumulate in outbox_message");
+            return;
+        }
+        running = true;
+        relayThread = new Thread(this::runRelay, "outbox-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
+        log.info("Relaying outbox messages to {}", sinks.stream().map(OutboxSink::name).toList());
+    }
+
+    @PreDestroy
+    void stopRelay() throws InterruptedException {
+        running = false;
+        if (relayThread != null) {
+            relayThread.interrupt();
+            relayThread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    private void runRelay() {
+        long backoffMillis = pollMillis;
+        while (running) {
+            try {
+                // Keep going while batches come back full, rest once caught up
+                if (relayBatch() < batchSize) {
+                    Thread.sleep(pollMillis);
+                }
+                backoffMillis = pollMillis;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                failures.increment();
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+                log.error("Outbox delivery failed, retrying in {} ms: {}", backoffMillis, e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claim, deliver and delete one batch; returns the number delivered
+     */
+    int relayBatch() {
+        List<OutboxMessage> ready = transactionTemplate.execute(status -> {
+            List<OutboxMessage> claimed = jdbcTemplate.query(CLAIM_SQL, ROW_MAPPER, batchSize);
+            List<OutboxMessage> deliverable = inEventOrder(claimed);
+            if (deliverable.isEmpty()) {
+                return deliverable;
+            }
+            for (OutboxSink sink : sinks) {
+                sink.deliver(deliverable);
+            }
+            jdbcTemplate.batchUpdate(DELETE_SQL, deliverable.stream()
+                    .map(message -> new Object[]{message.getId()})
+                    .collect(Collectors.toList()));
+            return deliverable;
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxMessage message : ready) {
+            lag.record(Duration.between(message.getCreatedAt(), now));
+        }
+        delivered.increment(ready.size());
+        return ready.size();
+    }
+
+    /**
+     * The claimed messages of events whose oldest pending message is among them
+     */
+    private List<OutboxMessage> inEventOrder(List<OutboxMessage> claimed) {
+        if (claimed.isEmpty()) {
+            return claimed;
+        }
+        Map<Long, Long> firstClaimed = new HashMap<>();
+        for (OutboxMessage message : claimed) {
+            firstClaimed.putIfAbsent(message.getEventId(), message.getId());
+        }
+        Set<Long> eventIds = new LinkedHashSet<>(firstClaimed.keySet());
+        Map<Long, Long> oldest = new HashMap<>();
+        jdbcTemplate.query(String.format(OLDEST_SQL, String.join(",", Collections.nCopies(eventIds.size(), "?"))),
+                rs -> {
+                    oldest.put(rs.getLong(1), rs.getLong(2));
+                }, eventIds.toArray());
+
+        List<OutboxMessage> deliverable = new ArrayList<>(claimed.size());
+        for (OutboxMessage message : claimed) {
+            if (firstClaimed.get(message.getEventId()).equals(oldest.get(message.getEventId()))) {
+                deliverable.add(message);
+            }
+        }
+        if (deliverable.size() < claimed.size()) {
+            log.debug("Holding back {} outbox messages behind older ones claimed elsewhere",
+                    claimed.size() - deliverable.size());
+        }
+        return deliverable;
+    }
+}
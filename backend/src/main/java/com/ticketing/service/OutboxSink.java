@@ -0,0 +1,23 @@
+package com.ticketing.service;
+
+import com.ticketing.model.OutboxMessage;
+
+import java.util.List;
+
+/**
+ * Destination for outbox messages, registered as a bean.
+ *
+ * Delivery is at least once: if any sink fails on a batch the whole batch is
+ * offered to every sink again, so sinks must tolerate duplicates, which carry
+ * the same message ID. Messages of one event arrive in the order they were
+ * committed.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    /**
+     * Deliver the messages, throwing if they may not all have arrived
+     */
+    void deliver(List<OutboxMessage> messages);
+}
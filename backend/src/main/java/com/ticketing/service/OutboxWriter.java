@@ -0,0 +1,130 @@
+package com.ticketing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ticketing.dto.BookedSeatDetail;
+import com.ticketing.dto.BookingMessage;
+import com.ticketing.model.Booking;
+import com.ticketing.model.BookingSeat;
+import com.ticketing.model.OutboxMessageType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Adds booking changes to the outbox in the caller's transaction, as one JDBC
+ * batch however many bookings changed, and publishes them as a
+ * {@link BookingsChangedEvent}.
+ *
+ * Callers write after updating the event counter, whose row lock they hold
+ * until commit, so messages of one event get IDs in commit order. Nothing is
+ * written with ticketing.outbox.enabled=false; the event is still published.
+ */
+@Component
+class OutboxWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_message (event_id, type, booking_id, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectWriter payloadWriter;
+    private final boolean enabled;
+
+    OutboxWriter(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+            @Value("${ticketing.outbox.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        // One line per payload whatever the API's pretty-printing setting
+        this.payloadWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.enabled = enabled;
+    }
+
+    public void bookingConfirmed(Long bookingId, PendingBooking booking) {
+        bookingsConfirmed(List.of(bookingId), List.of(booking));
+    }
+
+    /**
+     * Record confirmed bookings, given with their IDs in the same order
+     */
+    public void bookingsConfirmed(List<Long> bookingIds, List<PendingBooking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        List<BookingMessage> messages = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            PendingBooking booking = bookings.get(i);
+            messages.add(new BookingMessage(OutboxMessageType.BOOKING_CONFIRMED, bookingIds.get(i), booking.eventId(),
+                    booking.userName(), booking.bookingOrder(), booking.totalPrice(), booking.seats(),
+                    booking.bookingDate()));
+        }
+        write(messages);
+    }
+
+    /**
+     * Record cancelled bookings, with the seats they released
+     */
+    public void bookingsCancelled(List<Booking> bookings, List<BookingSeat> bookingSeats) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        Map<Long, List<BookedSeatDetail>> seatsByBooking = bookingSeats.stream()
+                .collect(Collectors.groupingBy(bookingSeat -> bookingSeat.getBooking().getId(),
+                        Collectors.mapping(bookingSeat -> new BookedSeatDetail(
+                                bookingSeat.getSeat().getId(),
+                                bookingSeat.getSeat().getSeatNumber(),
+                                bookingSeat.getSeatPrice(),
+                                bookingSeat.getSeatOrder()), Collectors.toList())));
+        LocalDateTime now = LocalDateTime.now();
+        write(bookings.stream()
+                .map(booking -> new BookingMessage(OutboxMessageType.BOOKING_CANCELLED, booking.getId(),
+                        booking.getEventId(), booking.getUserName(), booking.getBookingOrder(), booking.getTotalPrice(),
+                        seatsByBooking.getOrDefault(booking.getId(), List.of()), now))
+                .collect(Collectors.toList()));
+    }
+
+    private void write(List<BookingMessage> messages) {
+        eventPublisher.publishEvent(new BookingsChangedEvent(messages));
+        if (!enabled) {
+            return;
+        }
+        List<String> payloads = new ArrayList<>(messages.size());
+        for (BookingMessage message : messages) {
+            try {
+                payloads.add(payloadWriter.writeValueAsString(message));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Outbox message could not be serialized", e);
+            }
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                BookingMessage message = messages.get(i);
+                statement.setLong(1, message.getEventId());
+                statement.setString(2, message.getType().name());
+                statement.setLong(3, message.getBookingId());
+                statement.setString(4, payloads.get(i));
+                statement.setTimestamp(5, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return messages.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.SeatState;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary seat-map encoding.
+ *
+ * Layout, big-endian: an 8-byte version, a 4-byte seat count, then two bits
+ * per seat indexed by seat number - 1, four seats per byte starting at the
+ * low bits. Status codes are the {@link com.ticketing.model.SeatStatus}
+ * ordinals; 3 marks a seat number that does not exist.
+ */
+final class PackedSeatMap {
+
+    static final int HEADER_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int SEATS_PER_BYTE = 4;
+    private static final int NO_SEAT = 3;
+
+    private PackedSeatMap() {
+    }
+
+    /**
+     * Encode a full seat map
+     */
+    static byte[] encode(long version, Collection<SeatState> seats) {
+        int seatCount = seats.stream().mapToInt(SeatState::getSeatNumber).max().orElse(0);
+        byte[] bytes = new byte[HEADER_BYTES + (seatCount + SEATS_PER_BYTE - 1) / SEATS_PER_BYTE];
+        Arrays.fill(bytes, HEADER_BYTES, bytes.length, (byte) 0xFF);
+        ByteBuffer.wrap(bytes).putLong(version).putInt(seatCount);
+        seats.forEach(seat -> set(bytes, seat));
+        return bytes;
+    }
+
+    /**
+     * Copy an encoded map with a new version and changed seats applied, or
+     * null if a seat falls outside the map
+     */
+    static byte[] patch(byte[] previous, long version, Collection<SeatState> changes) {
+        int seatCount = ByteBuffer.wrap(previous).getInt(Long.BYTES);
+        byte[] bytes = previous.clone();
+        ByteBuffer.wrap(bytes).putLong(version);
+        for (SeatState seat : changes) {
+            if (seat.getSeatNumber() < 1 || seat.getSeatNumber() > seatCount) {
+                return null;
+            }
+            set(bytes, seat);
+        }
+        return bytes;
+    }
+
+    static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void set(byte[] bytes, SeatState seat) {
+        int position = seat.getSeatNumber() - 1;
+        int offset = HEADER_BYTES + position / SEATS_PER_BYTE;
+        int shift = (position % SEATS_PER_BYTE) * 2;
+        bytes[offset] = (byte) ((bytes[offset] & ~(NO_SEAT << shift)) | (seat.getStatus().ordinal() << shift));
+    }
+}
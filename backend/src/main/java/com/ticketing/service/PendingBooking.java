@@ -0,0 +1,19 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.BookedSeatDetail;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Booking decided in memory and waiting to be written to the database
+ */
+record PendingBooking(
+        Long eventId,
+        String userName,
+        int bookingOrder,
+        BigDecimal totalPrice,
+        LocalDateTime bookingDate,
+        List<BookedSeatDetail> seats) {
+}
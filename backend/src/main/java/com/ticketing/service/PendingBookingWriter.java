@@ -0,0 +1,57 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.BookedSeatDetail;
+import com.ticketing.model.SeatStatus;
+import com.ticketing.repository.EventCounterRepository;
+import com.ticketing.repository.SeatRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists bookings that were already decided by the in-memory inventory
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class PendingBookingWriter {
+
+    private final SeatRepository seatRepository;
+    private final BookingBatchInserter bookingBatchInserter;
+    private final EventCounterRepository eventCounterRepository;
+    private final OutboxWriter outboxWriter;
+
+    /**
+     * Write a batch of bookings and mark their seats as booked in one
+     * transaction, returning the booking IDs in the same order
+     */
+    @Transactional
+    public List<Long> write(List<PendingBooking> pendingBookings) {
+        List<Long> seatIds = new ArrayList<>();
+        Map<Long, int[]> soldSeatsAndLastOrderByEvent = new HashMap<>();
+
+        for (PendingBooking pending : pendingBookings) {
+            for (BookedSeatDetail detail : pending.seats()) {
+                seatIds.add(detail.getSeatId());
+            }
+            int[] totals = soldSeatsAndLastOrderByEvent.computeIfAbsent(pending.eventId(), id -> new int[2]);
+            totals[0] += pending.seats().size();
+            totals[1] = Math.max(totals[1], pending.bookingOrder());
+        }
+
+        List<Long> bookingIds = bookingBatchInserter.insert(pendingBookings);
+        seatRepository.updateStatus(seatIds, SeatStatus.BOOKED);
+        soldSeatsAndLastOrderByEvent.forEach((eventId, totals) ->
+                eventCounterRepository.addSoldSeats(eventId, totals[0], totals[1]));
+        outboxWriter.bookingsConfirmed(bookingIds, pendingBookings);
+
+        log.debug("Wrote {} bookings covering {} seats", pendingBookings.size(), seatIds.size());
+        return bookingIds;
+    }
+}
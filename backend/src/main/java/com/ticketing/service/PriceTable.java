@@ -0,0 +1,55 @@
+package com.ticketing.service;
+
+/**
+ * A price curve compiled for one event: prefix sums in cents over every
+ * position, so a seat price or the total of any run of positions is an O(1)
+ * lookup without allocation. Positions past the capacity, which resales of
+ * cancelled seats take, keep the last price.
+ */
+public final class PriceTable {
+
+    private final int capacity;
+    // prefix[i] is the total of positions 1..i
+    private final long[] prefix;
+
+    private PriceTable(int capacity, long[] prefix) {
+        this.capacity = capacity;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Evaluate a strategy at every position, scaled by percent
+     */
+    public static PriceTable of(PricingStrategy strategy, int capacity, int percent) {
+        int positions = Math.max(1, capacity);
+        long[] prefix = new long[positions + 1];
+        for (int position = 1; position <= positions; position++) {
+            long cents = strategy.priceCents(position, positions);
+            if (percent != 100) {
+                cents = (cents * percent + 50) / 100;
+            }
+            prefix[position] = prefix[position - 1] + cents;
+        }
+        return new PriceTable(positions, prefix);
+    }
+
+    /**
+     * Price in cents of the seat sold at the given 1-based position
+     */
+    public long priceCents(int position) {
+        int clamped = Math.min(position, capacity);
+        return prefix[clamped] - prefix[clamped - 1];
+    }
+
+    /**
+     * Total in cents of count seats sold after soldBefore seats
+     */
+    public long totalCents(int soldBefore, int count) {
+        int end = soldBefore + count;
+        if (end <= capacity) {
+            return prefix[end] - prefix[soldBefore];
+        }
+        int start = Math.min(soldBefore, capacity);
+        return prefix[capacity] - prefix[start] + (long) (end - Math.max(soldBefore, capacity)) * priceCents(capacity);
+    }
+}
@@ -0,0 +1,146 @@
+package com.ticketing.service;
+
+import com.ticketing.config.PricingProperties;
+import com.ticketing.exception.EventNotFoundException;
+import com.ticketing.model.Event;
+import com.ticketing.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prices seats by booking order with the curve configured for each event.
+ *
+ * Curves are compiled into {@link PriceTable}s on first use, one per time step,
+ * so bookings only do long arithmetic on cents; amounts become BigDecimal when
+ * they are stored or returned. Tables are rebuilt when an event is
+ * re-initialized, since its capacity may have changed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PricingService {
+
+    private static final String TIERED = "tiered";
+    private static final String DEMAND = "demand";
+
+    private final PricingProperties properties;
+    private final EventRepository eventRepository;
+    private final Map<String, PricingStrategy> customStrategies;
+
+    private final Map<Long, EventPricing> pricing = new ConcurrentHashMap<>();
+
+    /**
+     * Prices in effect now for an event
+     */
+    public PriceTable priceTable(Long eventId) {
+        return eventPricing(eventId).at(System.currentTimeMillis());
+    }
+
+    /**
+     * Last position of each price tier of an event, ending at its capacity
+     */
+    public int[] tierLimits(Long eventId) {
+        return eventPricing(eventId).tierLimits();
+    }
+
+    /**
+     * Convert cents to the amount stored on bookings and returned by the API
+     */
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsInitialized(SeatsInitializedEvent event) {
+        pricing.remove(event.eventId());
+    }
+
+    private EventPricing eventPricing(Long eventId) {
+        EventPricing eventPricing = pricing.get(eventId);
+        if (eventPricing == null) {
+            // Compiled outside the map so the event lookup does not run under a bin lock
+            EventPricing compiled = compile(eventId);
+            eventPricing = pricing.putIfAbsent(eventId, compiled);
+            if (eventPricing == null) {
+                eventPricing = compiled;
+            }
+        }
+        return eventPricing;
+    }
+
+    private EventPricing compile(Long eventId) {
+        Event event = eventRepository.findById(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
+        PricingProperties.Curve curve = properties.curveFor(eventId);
+        PricingStrategy strategy = strategyFor(curve);
+
+        List<PricingProperties.TimeStep> steps = curve.getTimeSteps().stream()
+                .sorted(Comparator.comparing(PricingProperties.TimeStep::getAfter))
+                .toList();
+        long createdAt = event.getCreatedAt() == null ? 0
+                : event.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        // Full price until the first step starts
+        boolean startsAtCreation = !steps.isEmpty() && steps.get(0).getAfter().isZero();
+        int windows = steps.size() + (startsAtCreation ? 0 : 1);
+        long[] startsAt = new long[windows];
+        PriceTable[] tables = new PriceTable[windows];
+        int window = 0;
+        if (!startsAtCreation) {
+            startsAt[window] = Long.MIN_VALUE;
+            tables[window++] = PriceTable.of(strategy, event.getTotalSeats(), 100);
+        }
+        for (PricingProperties.TimeStep step : steps) {
+            startsAt[window] = window == 0 ? Long.MIN_VALUE : createdAt + step.getAfter().toMillis();
+            tables[window++] = PriceTable.of(strategy, event.getTotalSeats(), step.getPercent());
+        }
+
+        log.info("Compiled {} pricing for event {} over {} seats with {} time windows",
+                curve.getStrategy(), eventId, event.getTotalSeats(), windows);
+        return new EventPricing(startsAt, tables, strategy.tierLimits(event.getTotalSeats()));
+    }
+
+    private PricingStrategy strategyFor(PricingProperties.Curve curve) {
+        return switch (curve.getStrategy()) {
+            case TIERED -> TieredPricingStrategy.parse(curve.getTiers());
+            case DEMAND -> new DemandPricingStrategy(
+                    cents(curve.getBasePrice()), cents(curve.getMaxPrice()),
+                    curve.getExponent(), cents(curve.getPriceStep()));
+            default -> {
+                PricingStrategy custom = customStrategies.get(curve.getStrategy());
+                if (custom == null) {
+                    throw new IllegalStateException("Unknown pricing strategy: " + curve.getStrategy());
+                }
+                yield custom;
+            }
+        };
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Price tables by the time they take effect, earliest first, and the last
+     * position of each price tier
+     */
+    private record EventPricing(long[] startsAt, PriceTable[] tables, int[] tierLimits) {
+
+        PriceTable at(long now) {
+            int window = tables.length - 1;
+            while (window > 0 && startsAt[window] > now) {
+                window--;
+            }
+            return tables[window];
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.ticketing.service;
+
+/**
+ * Price curve over the booking order of an event's seats.
+ *
+ * A strategy is evaluated once per position when an event's {@link PriceTable}
+ * is built, never on the booking path, so it can be as expensive as it needs
+ * to be. Declare one as a bean and name it in
+ * ticketing.pricing.events.{eventId}.strategy to plug it in.
+ *
+ * Positions are never reused, so once bookings have been cancelled, resold
+ * seats are sold at positions past the capacity. Those are priced at the
+ * price of the last position, the top tier, and the strategy is never asked
+ * for them.
+ */
+public interface PricingStrategy {
+
+    /**
+     * Price in cents of the seat sold at the given 1-based position, for an
+     * event with capacity seats
+     */
+    long priceCents(int position, int capacity);
+
+    /**
+     * Last position of each price tier, in increasing order and ending at
+     * capacity; strategies without tiers report the whole event as one
+     */
+    default int[] tierLimits(int capacity) {
+        return new int[] {capacity};
+    }
+}
@@ -0,0 +1,192 @@
+package com.ticketing.service;
+
+import com.ticketing.model.SeatStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Inserts the seats of an event without going through JPA.
+ *
+ * Seat IDs come from the column's sequence default, so rows can be streamed
+ * instead of being persisted one by one. On PostgreSQL rows are sent with COPY
+ * in fixed-size chunks; other databases get JDBC batches. Either way rows are
+ * generated as they are written, so memory use does not depend on the number
+ * of seats. Runs in the caller's transaction.
+ *
+ * The PostgreSQL driver is only a runtime dependency, so its copy API is
+ * looked up reflectively and COPY is skipped when the driver is absent.
+ */
+@Component
+@Slf4j
+class SeatBulkLoader {
+
+    private static final String COPY_SQL =
+            "COPY seat (event_id, seat_number, status, created_at, updated_at) FROM STDIN";
+    private static final String INSERT_SQL =
+            "INSERT INTO seat (event_id, seat_number, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+    private static final int COPY_CHUNK_CHARS = 64 * 1024;
+
+    private static final String PG_CONNECTION = "org.postgresql.PGConnection";
+    private static final String COPY_MANAGER = "org.postgresql.copy.CopyManager";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    // Null without the PostgreSQL driver
+    private final Class<?> pgConnectionType;
+    private final Method getCopyApi;
+    private final Method copyIn;
+
+    SeatBulkLoader(JdbcTemplate jdbcTemplate, @Value("${ticketing.seats.bulk-insert.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+
+        ClassLoader classLoader = getClass().getClassLoader();
+        if (ClassUtils.isPresent(PG_CONNECTION, classLoader)) {
+            pgConnectionType = ClassUtils.resolveClassName(PG_CONNECTION, classLoader);
+            getCopyApi = ClassUtils.getMethod(pgConnectionType, "getCopyAPI");
+            copyIn = ClassUtils.getMethod(ClassUtils.resolveClassName(COPY_MANAGER, classLoader),
+                    "copyIn", String.class, InputStream.class);
+        } else {
+            pgConnectionType = null;
+            getCopyApi = null;
+            copyIn = null;
+        }
+    }
+
+    /**
+     * Insert seats numbered 1 to numberOfSeats, all available
+     */
+    public void insertSeats(Long eventId, int numberOfSeats) {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        boolean copied = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (pgConnectionType == null || !connection.isWrapperFor(pgConnectionType)) {
+                return false;
+            }
+            copySeats(connection, eventId, numberOfSeats, now);
+            return true;
+        });
+        if (!copied) {
+            batchInsertSeats(eventId, numberOfSeats, now);
+        }
+        log.info("Inserted {} seats for event {} with {} in {} ms", numberOfSeats, eventId,
+                copied ? "COPY" : "JDBC batches", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * CopyManager.copyIn(sql, stream) reads the rows as they are generated and
+     * cancels the copy if it fails
+     */
+    private void copySeats(Connection connection, Long eventId, int numberOfSeats, LocalDateTime now)
+            throws SQLException {
+        try {
+            Object copyApi = getCopyApi.invoke(connection.unwrap(pgConnectionType));
+            copyIn.invoke(copyApi, COPY_SQL, new SeatRows(eventId, numberOfSeats, now));
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException cause) {
+                throw cause;
+            }
+            throw new SQLException("COPY of seats failed", e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new SQLException("PostgreSQL copy API is not accessible", e);
+        }
+    }
+
+    private void batchInsertSeats(Long eventId, int numberOfSeats, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        for (int first = 1; first <= numberOfSeats; first += batchSize) {
+            int firstSeatNumber = first;
+            int count = Math.min(batchSize, numberOfSeats - first + 1);
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    statement.setLong(1, eventId);
+                    statement.setInt(2, firstSeatNumber + i);
+                    statement.setString(3, SeatStatus.AVAILABLE.name());
+                    statement.setTimestamp(4, timestamp);
+                    statement.setTimestamp(5, timestamp);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return count;
+                }
+            });
+        }
+    }
+
+    /**
+     * COPY text rows of seats numbered 1 to numberOfSeats, generated one
+     * chunk at a time as the driver reads them
+     */
+    private static final class SeatRows extends InputStream {
+
+        private final String prefix;
+        private final String suffix;
+        private final int numberOfSeats;
+        private final StringBuilder chunk = new StringBuilder(COPY_CHUNK_CHARS + 128);
+        private int nextSeatNumber = 1;
+        private byte[] buffer = new byte[0];
+        private int position;
+
+        SeatRows(Long eventId, int numberOfSeats, LocalDateTime now) {
+            this.prefix = eventId + "\t";
+            // Row suffix is the same for every seat
+            this.suffix = "\t" + SeatStatus.AVAILABLE.name() + "\t" + now + "\t" + now + "\n";
+            this.numberOfSeats = numberOfSeats;
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.length - position);
+            System.arraycopy(buffer, position, target, offset, read);
+            position += read;
+            return read;
+        }
+
+        private boolean fill() {
+            if (position < buffer.length) {
+                return true;
+            }
+            if (nextSeatNumber > numberOfSeats) {
+                return false;
+            }
+            chunk.setLength(0);
+            while (nextSeatNumber <= numberOfSeats && chunk.length() < COPY_CHUNK_CHARS) {
+                chunk.append(prefix).append(nextSeatNumber++).append(suffix);
+            }
+            buffer = chunk.toString().getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.ticketing.service;
+
+import com.ticketing.model.Seat;
+import com.ticketing.model.SeatStatus;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory seat state for one event.
+ *
+ * Seat states are packed two bits per seat into an {@link AtomicLongArray}, so
+ * claims are lock-free compare-and-set operations on a single word. Seats are
+ * indexed by their position when ordered by seat number.
+ */
+final class SeatInventory {
+
+    private static final int BITS_PER_SEAT = 2;
+    private static final int SEATS_PER_WORD = Long.SIZE / BITS_PER_SEAT;
+    private static final long SEAT_MASK = (1L << BITS_PER_SEAT) - 1;
+    private static final SeatStatus[] STATUSES = SeatStatus.values();
+    // Top bit of the counters while the inventory is fenced
+    private static final long FENCED = Long.MIN_VALUE;
+
+    private final long[] seatIds;
+    private final int[] seatNumbers;
+    private final Map<Long, Integer> indexBySeatId;
+    private final AtomicLongArray states;
+    // Last booking order in the high half, seats sold in the low half, so a
+    // booking takes its positions and its order in one atomic step
+    private final AtomicLong counters;
+
+    /**
+     * Build inventory from seats ordered by seat number
+     */
+    SeatInventory(List<Seat> seats, int soldSeats, int lastBookingOrder) {
+        int size = seats.size();
+        this.seatIds = new long[size];
+        this.seatNumbers = new int[size];
+        this.indexBySeatId = new HashMap<>(size * 2);
+        this.states = new AtomicLongArray((size + SEATS_PER_WORD - 1) / SEATS_PER_WORD);
+        this.counters = new AtomicLong(pack(soldSeats, lastBookingOrder));
+
+        for (int i = 0; i < size; i++) {
+            Seat seat = seats.get(i);
+            seatIds[i] = seat.getId();
+            seatNumbers[i] = seat.getSeatNumber();
+            indexBySeatId.put(seat.getId(), i);
+            if (seat.getStatus() != SeatStatus.AVAILABLE) {
+                forceStatus(i, seat.getStatus());
+            }
+        }
+    }
+
+    /**
+     * Build inventory from seat IDs in seat-number order, numbered from 1, and
+     * their status ordinals
+     */
+    SeatInventory(long[] seatIds, byte[] statuses, int soldSeats, int lastBookingOrder) {
+        int size = seatIds.length;
+        this.seatIds = seatIds.clone();
+        this.seatNumbers = new int[size];
+        this.indexBySeatId = new HashMap<>(size * 2);
+        this.states = new AtomicLongArray((size + SEATS_PER_WORD - 1) / SEATS_PER_WORD);
+        this.counters = new AtomicLong(pack(soldSeats, lastBookingOrder));
+
+        for (int i = 0; i < size; i++) {
+            seatNumbers[i] = i + 1;
+            indexBySeatId.put(seatIds[i], i);
+            if (statuses[i] != SeatStatus.AVAILABLE.ordinal()) {
+                forceStatus(i, STATUSES[statuses[i]]);
+            }
+        }
+    }
+
+    int size() {
+        return seatIds.length;
+    }
+
+    /**
+     * Resolve seat IDs to sorted inventory indexes, or null if any ID is unknown
+     */
+    int[] indexesOf(List<Long> ids) {
+        int[] indexes = new int[ids.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            Integer index = indexBySeatId.get(ids.get(i));
+            if (index == null) {
+                return null;
+            }
+            indexes[i] = index;
+        }
+        Arrays.sort(indexes);
+        return indexes;
+    }
+
+    long seatId(int index) {
+        return seatIds[index];
+    }
+
+    int seatNumber(int index) {
+        return seatNumbers[index];
+    }
+
+    SeatStatus status(int index) {
+        long word = states.get(index / SEATS_PER_WORD);
+        return STATUSES[(int) ((word >>> shift(index)) & SEAT_MASK)];
+    }
+
+    /**
+     * Atomically move a single seat from one status to another
+     */
+    boolean compareAndSet(int index, SeatStatus expected, SeatStatus update) {
+        int wordIndex = index / SEATS_PER_WORD;
+        int shift = shift(index);
+        long expectedBits = (long) expected.ordinal() << shift;
+        long updateBits = (long) update.ordinal() << shift;
+        long mask = SEAT_MASK << shift;
+
+        while (true) {
+            long word = states.get(wordIndex);
+            if ((word & mask) != expectedBits) {
+                return false;
+            }
+            if (states.compareAndSet(wordIndex, word, (word & ~mask) | updateBits)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Claim all seats or none. Indexes must be sorted so competing claims on
+     * overlapping seats always contend on the lowest seat first.
+     *
+     * @return -1 on success, otherwise the index of the first unavailable seat
+     */
+    int claim(int[] indexes, SeatStatus from, SeatStatus to) {
+        for (int i = 0; i < indexes.length; i++) {
+            if (!compareAndSet(indexes[i], from, to)) {
+                for (int j = 0; j < i; j++) {
+                    compareAndSet(indexes[j], to, from);
+                }
+                return indexes[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reserve a range of cumulative booking positions together with the next
+     * booking order, so a later booking order never gets earlier positions
+     *
+     * @return the slot, or null if the inventory is fenced
+     */
+    BookingSlot allocate(int count) {
+        long increment = pack(count, 1);
+        while (true) {
+            long previous = counters.get();
+            if ((previous & FENCED) != 0) {
+                return null;
+            }
+            if (counters.compareAndSet(previous, previous + increment)) {
+                return new BookingSlot((int) previous, (int) (previous >>> Integer.SIZE) + 1);
+            }
+        }
+    }
+
+    /**
+     * Give back an allocation of count positions that was never used, which is
+     * only possible while no later allocation has been made
+     *
+     * @return whether the slot was given back
+     */
+    boolean release(BookingSlot slot, int count) {
+        long allocated = pack(slot.soldBefore() + count, slot.bookingOrder());
+        long before = pack(slot.soldBefore(), slot.bookingOrder() - 1);
+        while (true) {
+            long current = counters.get();
+            if ((current & ~FENCED) != allocated) {
+                return false;
+            }
+            if (counters.compareAndSet(current, (current & FENCED) | before)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Refuse allocations from now on. Every allocation that succeeded did so
+     * before this returned.
+     */
+    void fence() {
+        counters.getAndUpdate(current -> current | FENCED);
+    }
+
+    void unfence() {
+        counters.getAndUpdate(current -> current & ~FENCED);
+    }
+
+    /**
+     * Mark a booking decided before this inventory was built as booked;
+     * counters only move forward. Unknown seat IDs are ignored.
+     */
+    void restore(List<Long> seatIds, int soldSeats, int bookingOrder) {
+        for (Long seatId : seatIds) {
+            Integer index = indexBySeatId.get(seatId);
+            if (index != null) {
+                forceStatus(index, SeatStatus.BOOKED);
+            }
+        }
+        counters.updateAndGet(current -> (current & FENCED) | pack(Math.max((int) current, soldSeats),
+                Math.max((int) ((current & ~FENCED) >>> Integer.SIZE), bookingOrder)));
+    }
+
+    int soldSeats() {
+        return (int) counters.get();
+    }
+
+    int lastBookingOrder() {
+        return (int) ((counters.get() & ~FENCED) >>> Integer.SIZE);
+    }
+
+    private void forceStatus(int index, SeatStatus status) {
+        while (!compareAndSet(index, status(index), status)) {
+            // retry until the word is stable
+        }
+    }
+
+    private static long pack(int soldSeats, int bookingOrder) {
+        return ((long) bookingOrder << Integer.SIZE) | (soldSeats & 0xFFFFFFFFL);
+    }
+
+    private static int shift(int index) {
+        return (index % SEATS_PER_WORD) * BITS_PER_SEAT;
+    }
+}
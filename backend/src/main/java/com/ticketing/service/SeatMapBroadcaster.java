@@ -0,0 +1,345 @@
+package com.ticketing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ticketing.dto.SeatMapMessage;
+import com.ticketing.dto.SeatState;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams seat-map changes to browsers over Server-Sent Events.
+ *
+ * Each subscriber gets a snapshot on connect and then only deltas. Changes are
+ * coalesced per seat and fanned out once per flush interval, serialized once
+ * for all subscribers of an event. Every subscriber has a bounded buffer; a
+ * client that falls behind is disconnected and resynchronizes from a fresh
+ * snapshot when its EventSource reconnects.
+ *
+ * Sends block on the client's socket, so they run as managed blocks in a
+ * fork-join pool that adds threads while senders are blocked; a slow client
+ * never holds up the others. One whose send takes longer than the send
+ * timeout is disconnected.
+ */
+@Service
+@Slf4j
+public class SeatMapBroadcaster {
+
+    private static final String SNAPSHOT = "snapshot";
+    private static final String DELTA = "delta";
+
+    private final SeatMapCache seatMapCache;
+    private final Optional<InventoryBookingService> inventoryBookingService;
+    private final ObjectWriter writer;
+    private final ForkJoinPool senders;
+
+    @Value("${ticketing.stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${ticketing.stream.timeout-millis:1800000}")
+    private long timeoutMillis;
+
+    @Value("${ticketing.stream.send-timeout-millis:10000}")
+    private long sendTimeoutMillis;
+
+    private final Map<Long, Set<Subscriber>> subscribersByEvent = new ConcurrentHashMap<>();
+    // Pending changes per event, keyed by seat ID so bursts collapse to the latest status
+    private final Map<Long, Map<Long, SeatState>> pendingChanges = new ConcurrentHashMap<>();
+
+    public SeatMapBroadcaster(SeatMapCache seatMapCache, Optional<InventoryBookingService> inventoryBookingService,
+            ObjectMapper objectMapper, @Value("${ticketing.stream.sender-threads:4}") int senderThreads,
+            @Value("${ticketing.stream.max-blocked-senders:256}") int maxBlockedSenders) {
+        this.seatMapCache = seatMapCache;
+        this.inventoryBookingService = inventoryBookingService;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        // Past the limit blocked senders are no longer replaced and the rest wait
+        this.senders = new ForkJoinPool(senderThreads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("seat-map-sender-" + thread.getPoolIndex());
+            return thread;
+        }, null, true, 0, senderThreads + maxBlockedSenders, 1, pool -> true, 60, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        subscribersByEvent.values().forEach(subscribers -> subscribers.forEach(Subscriber::close));
+    }
+
+    /**
+     * Open a stream for an event; the first message is a full snapshot
+     */
+    public SseEmitter subscribe(Long eventId) {
+        return subscribe(eventId, new SseEmitter(timeoutMillis));
+    }
+
+    /**
+     * The subscriber is registered before the snapshot is read, so a change
+     * committed in between is either in the snapshot or in a later delta.
+     * Deltas buffered meanwhile are held back until the snapshot is sent.
+     */
+    SseEmitter subscribe(Long eventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(eventId, emitter, bufferSize);
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(subscriber));
+        subscriber.emitter.onError(error -> unsubscribe(subscriber));
+
+        subscribersByEvent.computeIfAbsent(eventId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        try {
+            subscriber.start(serialize(new SeatMapMessage(eventId, snapshot(eventId))));
+        } catch (RuntimeException e) {
+            unsubscribe(subscriber);
+            throw e;
+        }
+        log.debug("Seat-map subscriber added for event {}", eventId);
+        return subscriber.emitter;
+    }
+
+    public int subscriberCount(Long eventId) {
+        Set<Subscriber> subscribers = subscribersByEvent.get(eventId);
+        return subscribers == null ? 0 : subscribers.size();
+    }
+
+    /**
+     * Runs after the version tracker, so once a change is skipped here for
+     * lack of subscribers, snapshots already include it
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onSeatStatusChanged(SeatStatusChangedEvent event) {
+        if (!subscribersByEvent.containsKey(event.eventId())) {
+            return;
+        }
+        pendingChanges.compute(event.eventId(), (eventId, changes) -> {
+            Map<Long, SeatState> merged = changes != null ? changes : new LinkedHashMap<>();
+            event.seats().forEach(seat -> merged.put(seat.getId(), seat));
+            return merged;
+        });
+    }
+
+    /**
+     * Seat IDs change on re-initialization, so subscribers get a new snapshot
+     */
+    @TransactionalEventListener
+    public void onSeatsInitialized(SeatsInitializedEvent event) {
+        Set<Subscriber> subscribers = subscribersByEvent.get(event.eventId());
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        pendingChanges.remove(event.eventId());
+        String payload = serialize(new SeatMapMessage(event.eventId(), snapshot(event.eventId())));
+        subscribers.forEach(subscriber -> subscriber.offer(SNAPSHOT, payload));
+    }
+
+    /**
+     * Fan out coalesced changes, one message per event per interval, and
+     * disconnect subscribers stuck in a send
+     */
+    @Scheduled(fixedDelayString = "${ticketing.stream.flush-millis:250}")
+    public void flush() {
+        long stuckSince = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        for (Set<Subscriber> subscribers : subscribersByEvent.values()) {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.isStuck(stuckSince)) {
+                    log.debug("Seat-map subscriber for event {} stopped reading, disconnecting", subscriber.eventId);
+                    unsubscribe(subscriber);
+                    subscriber.abandon();
+                }
+            }
+        }
+        for (Long eventId : new ArrayList<>(pendingChanges.keySet())) {
+            Map<Long, SeatState> changes = pendingChanges.remove(eventId);
+            Set<Subscriber> subscribers = subscribersByEvent.get(eventId);
+            if (changes == null || changes.isEmpty() || subscribers == null || subscribers.isEmpty()) {
+                continue;
+            }
+            String payload = serialize(new SeatMapMessage(eventId, new ArrayList<>(changes.values())));
+            subscribers.forEach(subscriber -> subscriber.offer(DELTA, payload));
+        }
+    }
+
+    /**
+     * In inventory mode the database lags behind memory, so snapshots are taken
+     * from the inventory
+     */
+    private List<SeatState> snapshot(Long eventId) {
+        if (inventoryBookingService.isPresent()) {
+            List<SeatState> seats = inventoryBookingService.get().snapshot(eventId);
+            if (!seats.isEmpty()) {
+                return seats;
+            }
+        }
+        return seatMapCache.get(eventId).states();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        Set<Subscriber> subscribers = subscribersByEvent.get(subscriber.eventId);
+        if (subscribers != null) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private String serialize(SeatMapMessage message) {
+        try {
+            return writer.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize seat map", e);
+        }
+    }
+
+    private record Frame(String name, String data) {
+    }
+
+    private final class Subscriber {
+
+        private final Long eventId;
+        private final SseEmitter emitter;
+        private final BlockingDeque<Frame> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean started;
+        private volatile boolean abandoned;
+        // System.nanoTime() when the send in progress began, 0 between sends
+        private volatile long sendingSince;
+
+        private Subscriber(Long eventId, SseEmitter emitter, int bufferSize) {
+            this.eventId = eventId;
+            this.emitter = emitter;
+            this.buffer = new LinkedBlockingDeque<>(bufferSize);
+        }
+
+        /**
+         * Put the snapshot ahead of any deltas buffered since registering and
+         * start sending
+         */
+        void start(String snapshot) {
+            if (!buffer.offerFirst(new Frame(SNAPSHOT, snapshot))) {
+                fallBehind();
+                return;
+            }
+            started = true;
+            scheduleDrain();
+        }
+
+        void offer(String name, String data) {
+            if (!buffer.offer(new Frame(name, data))) {
+                fallBehind();
+                return;
+            }
+            if (started) {
+                scheduleDrain();
+            }
+        }
+
+        boolean isStuck(long sinceNanos) {
+            long since = sendingSince;
+            return since != 0 && since - sinceNanos < 0;
+        }
+
+        /**
+         * Drop pending frames; the emitter is completed by the sender once its
+         * send returns, since completing waits for the send
+         */
+        void abandon() {
+            abandoned = true;
+            buffer.clear();
+        }
+
+        private void fallBehind() {
+            log.debug("Seat-map subscriber for event {} fell behind, disconnecting", eventId);
+            unsubscribe(this);
+            close();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Frame frame;
+                while ((frame = buffer.poll()) != null) {
+                    send(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(this);
+                buffer.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                unsubscribe(this);
+                buffer.clear();
+            } finally {
+                sendingSince = 0;
+                draining.set(false);
+            }
+            if (abandoned) {
+                close();
+            } else if (!buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void send(Frame frame) throws IOException, InterruptedException {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(frame.name()).data(frame.data());
+            IOException[] failure = new IOException[1];
+            sendingSince = System.nanoTime() | 1;
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                private boolean sent;
+
+                @Override
+                public boolean block() {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                    sent = true;
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return sent;
+                }
+            });
+            sendingSince = 0;
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+
+        void close() {
+            buffer.clear();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // already completed
+            }
+        }
+    }
+}
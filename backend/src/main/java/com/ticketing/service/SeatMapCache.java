@@ -0,0 +1,240 @@
+package com.ticketing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ticketing.dto.SeatState;
+import com.ticketing.exception.EventNotFoundException;
+import com.ticketing.model.Seat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-through cache of each event's seat map as served by GET /api/seats.
+ *
+ * A snapshot holds the seats and their JSON, both immutable, tagged with the
+ * seat-map version read before it was built. Committed seat changes bump the
+ * version, which makes the snapshot stale. The next reader brings it up to
+ * date once for everyone: from the change log when it still covers the gap,
+ * otherwise from the database. Re-initialization drops the snapshot, since
+ * seat IDs change. Snapshots are evicted least recently read first once they
+ * take more than ticketing.seats.cache.max-bytes.
+ */
+@Service
+@Slf4j
+public class SeatMapCache {
+
+    private final EventService eventService;
+    private final SeatVersionTracker seatVersionTracker;
+    private final ObjectWriter writer;
+    private final long maxBytes;
+    private final Counter hits;
+    private final Counter patches;
+    private final Counter loads;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, ReentrantLock> loadLocks = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    /**
+     * Seats of an event in seat-number order and their JSON, shared between
+     * requests and never modified
+     */
+    public record SeatMapSnapshot(long version, List<Seat> seats, byte[] json) {
+
+        public List<SeatState> states() {
+            return seats.stream().map(SeatState::of).toList();
+        }
+    }
+
+    private static final class Entry {
+
+        final SeatMapSnapshot snapshot;
+        final Map<Long, Integer> positions;
+        volatile long lastRead;
+
+        Entry(SeatMapSnapshot snapshot, Map<Long, Integer> positions) {
+            this.snapshot = snapshot;
+            this.positions = positions;
+            this.lastRead = System.nanoTime();
+        }
+    }
+
+    public SeatMapCache(EventService eventService, SeatVersionTracker seatVersionTracker, ObjectMapper objectMapper,
+            MeterRegistry registry, @Value("${ticketing.seats.cache.max-bytes:268435456}") long maxBytes) {
+        this.eventService = eventService;
+        this.seatVersionTracker = seatVersionTracker;
+        // Cached bytes are sent as they are, so they are never pretty-printed
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.maxBytes = maxBytes;
+        this.hits = cacheCounter(registry, "hit");
+        this.patches = cacheCounter(registry, "patch");
+        this.loads = cacheCounter(registry, "load");
+    }
+
+    /**
+     * Seat map at least as new as the current version
+     */
+    public SeatMapSnapshot get(Long eventId) {
+        long version = seatVersionTracker.currentVersion(eventId);
+        Entry entry = entries.get(eventId);
+        if (entry != null && entry.snapshot.version() >= version) {
+            entry.lastRead = System.nanoTime();
+            hits.increment();
+            if (SeatMapFlightEvent.TYPE.isEnabled()) {
+                commitHit(eventId, entry.snapshot, new SeatMapFlightEvent());
+            }
+            return entry.snapshot;
+        }
+        SeatMapFlightEvent flightEvent = new SeatMapFlightEvent();
+        flightEvent.begin();
+        flightEvent.eventId = eventId;
+        // Readers of a stale map wait for a single refresh, under a lock rather
+        // than ConcurrentHashMap.compute so the database read holds no bin lock
+        ReentrantLock lock = loadLocks.computeIfAbsent(eventId, id -> new ReentrantLock());
+        long waitStart = System.nanoTime();
+        lock.lock();
+        flightEvent.lockWait = System.nanoTime() - waitStart;
+        try {
+            Entry previous = entries.get(eventId);
+            if (previous != null && previous.snapshot.version() >= version) {
+                previous.lastRead = System.nanoTime();
+                hits.increment();
+                commitHit(eventId, previous.snapshot, flightEvent);
+                return previous.snapshot;
+            }
+            Entry next = refresh(eventId, previous, version, flightEvent);
+            install(eventId, next);
+            flightEvent.bytes = next.snapshot.json().length;
+            flightEvent.commit();
+            return next.snapshot;
+        } catch (EventNotFoundException e) {
+            loadLocks.remove(eventId, lock);
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void commitHit(Long eventId, SeatMapSnapshot snapshot, SeatMapFlightEvent flightEvent) {
+        flightEvent.eventId = eventId;
+        flightEvent.result = "hit";
+        flightEvent.bytes = snapshot.json().length;
+        flightEvent.commit();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSeatsInitialized(SeatsInitializedEvent event) {
+        Entry removed = entries.remove(event.eventId());
+        if (removed != null) {
+            cachedBytes.addAndGet(-removed.snapshot.json().length);
+        }
+    }
+
+    private Entry refresh(Long eventId, Entry previous, long version, SeatMapFlightEvent flightEvent) {
+        if (previous != null) {
+            List<SeatState> changes = seatVersionTracker.changesSince(eventId, previous.snapshot.version());
+            List<Seat> patched = changes == null ? null : patch(previous, changes);
+            if (patched != null) {
+                patches.increment();
+                flightEvent.result = "patch";
+                return new Entry(new SeatMapSnapshot(version, patched, toJson(patched, flightEvent)), previous.positions);
+            }
+        }
+        long queryStart = System.nanoTime();
+        List<Seat> seats = List.copyOf(eventService.getAllSeats(eventId));
+        flightEvent.query = System.nanoTime() - queryStart;
+        flightEvent.result = "load";
+        Map<Long, Integer> positions = new HashMap<>(seats.size() * 2);
+        for (int position = 0; position < seats.size(); position++) {
+            positions.put(seats.get(position).getId(), position);
+        }
+        loads.increment();
+        log.debug("Loaded seat map for event {} from the database, {} seats", eventId, seats.size());
+        return new Entry(new SeatMapSnapshot(version, seats, toJson(seats, flightEvent)), positions);
+    }
+
+    /**
+     * Copy of the snapshot's seats with the changed ones replaced, or null if a
+     * change is for a seat the snapshot does not know
+     */
+    private static List<Seat> patch(Entry previous, List<SeatState> changes) {
+        List<Seat> seats = new ArrayList<>(previous.snapshot.seats());
+        LocalDateTime now = LocalDateTime.now();
+        for (SeatState change : changes) {
+            Integer position = previous.positions.get(change.getId());
+            if (position == null) {
+                return null;
+            }
+            Seat seat = seats.get(position);
+            if (seat.getStatus() != change.getStatus()) {
+                // The database stamps its own time; this is when the change was applied here
+                seats.set(position, new Seat(seat.getId(), seat.getEventId(), seat.getSeatNumber(),
+                        change.getStatus(), seat.getCreatedAt(), now, seat.getVersion()));
+            }
+        }
+        return List.copyOf(seats);
+    }
+
+    private void install(Long eventId, Entry next) {
+        Entry replaced = entries.put(eventId, next);
+        cachedBytes.addAndGet(next.snapshot.json().length - (replaced == null ? 0 : replaced.snapshot.json().length));
+        if (cachedBytes.get() > maxBytes) {
+            evict(eventId);
+        }
+    }
+
+    /**
+     * Drop the least recently read snapshots until under budget, keeping the
+     * one just installed
+     */
+    private void evict(Long keep) {
+        List<Map.Entry<Long, Entry>> candidates = entries.entrySet().stream()
+                .filter(e -> !e.getKey().equals(keep))
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastRead))
+                .toList();
+        for (Map.Entry<Long, Entry> candidate : candidates) {
+            if (cachedBytes.get() <= maxBytes) {
+                return;
+            }
+            if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                cachedBytes.addAndGet(-candidate.getValue().snapshot.json().length);
+                log.debug("Evicted seat map of event {} from the cache", candidate.getKey());
+            }
+        }
+    }
+
+    private byte[] toJson(List<Seat> seats, SeatMapFlightEvent flightEvent) {
+        long start = System.nanoTime();
+        try {
+            return writer.writeValueAsBytes(seats);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Seat map could not be serialized", e);
+        } finally {
+            flightEvent.serialization = System.nanoTime() - start;
+        }
+    }
+
+    private static Counter cacheCounter(MeterRegistry registry, String result) {
+        return Counter.builder("ticketing.seats.cache")
+                .description("Seat map reads by how they were answered")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ticketing.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event spanning one seat map read from the cache: how it
+ * was answered, the wait for a refresh by another reader, the database query
+ * and the JSON serialization.
+ */
+@Name("com.ticketing.SeatMap")
+@Label("Seat Map")
+@Category("Ticketing")
+@Description("A seat map read and how long its refresh took")
+@StackTrace(false)
+final class SeatMapFlightEvent extends jdk.jfr.Event {
+
+    static final EventType TYPE = EventType.getEventType(SeatMapFlightEvent.class);
+
+    @Label("Event ID")
+    long eventId;
+
+    @Label("Result")
+    String result;
+
+    @Label("Refresh Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+
+    @Label("Query")
+    @Timespan(Timespan.NANOSECONDS)
+    long query;
+
+    @Label("Serialization")
+    @Timespan(Timespan.NANOSECONDS)
+    long serialization;
+
+    @Label("JSON Size")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,83 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.SeatState;
+import com.ticketing.exception.EventNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps a rendered binary seat map per event.
+ *
+ * A map is rendered once per version and the same bytes are served to every
+ * reader until the next change. A new version is rendered by patching the
+ * previous bytes with the seats from the change log, so the seat map cache is
+ * only read for the first render or when the log no longer covers the gap.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatMapRenderer {
+
+    public static final String MEDIA_TYPE = "application/vnd.ticketing.seat-map";
+
+    private final SeatMapCache seatMapCache;
+    private final SeatVersionTracker seatVersionTracker;
+
+    private final Map<Long, RenderedSeatMap> rendered = new ConcurrentHashMap<>();
+    private final Map<Long, ReentrantLock> renderLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Encoded seat map and its gzip-compressed form, both shared between
+     * requests and never modified
+     */
+    public record RenderedSeatMap(long version, byte[] bytes, byte[] gzipped) {
+    }
+
+    public RenderedSeatMap render(Long eventId) {
+        long version = seatVersionTracker.currentVersion(eventId);
+        RenderedSeatMap current = rendered.get(eventId);
+        if (current != null && current.version() >= version) {
+            return current;
+        }
+        // Concurrent readers of a stale map wait for a single render. A lock rather
+        // than ConcurrentHashMap.compute, which would pin virtual threads during the read.
+        ReentrantLock lock = renderLocks.computeIfAbsent(eventId, id -> new ReentrantLock());
+        lock.lock();
+        try {
+            RenderedSeatMap previous = rendered.get(eventId);
+            if (previous != null && previous.version() >= version) {
+                return previous;
+            }
+            RenderedSeatMap next = render(eventId, previous, version);
+            rendered.put(eventId, next);
+            return next;
+        } catch (EventNotFoundException e) {
+            renderLocks.remove(eventId, lock);
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private RenderedSeatMap render(Long eventId, RenderedSeatMap previous, long version) {
+        byte[] bytes = null;
+        if (previous != null) {
+            List<SeatState> changes = seatVersionTracker.changesSince(eventId, previous.version());
+            if (changes != null) {
+                bytes = PackedSeatMap.patch(previous.bytes(), version, changes);
+            }
+        }
+        if (bytes == null) {
+            List<SeatState> seats = seatMapCache.get(eventId).states();
+            bytes = PackedSeatMap.encode(version, seats);
+            log.debug("Rendered seat map for event {} from the seat map cache, {} seats", eventId, seats.size());
+        }
+        return new RenderedSeatMap(version, bytes, PackedSeatMap.gzip(bytes));
+    }
+}
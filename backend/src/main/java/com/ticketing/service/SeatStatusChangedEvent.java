@@ -0,0 +1,11 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.SeatState;
+
+import java.util.List;
+
+/**
+ * Published when seats of an event change status
+ */
+public record SeatStatusChangedEvent(Long eventId, List<SeatState> seats) {
+}
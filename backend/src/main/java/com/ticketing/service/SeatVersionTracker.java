@@ -0,0 +1,142 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.SeatState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks a version per event's seat map and a bounded log of recent changes.
+ *
+ * The version is bumped after every committed seat change, so a client that
+ * knows the current version can skip the fetch entirely, and a client with a
+ * recent version only needs the seats changed since. Versions start from the
+ * boot time scaled to microseconds, which keeps them increasing across
+ * restarts without persisting anything.
+ */
+@Service
+public class SeatVersionTracker {
+
+    private final long initialVersion = System.currentTimeMillis() * 1000;
+    private final int changeLogSize;
+    private final Map<Long, EventVersion> versions = new ConcurrentHashMap<>();
+
+    public SeatVersionTracker(@Value("${ticketing.seats.change-log-size:1024}") int changeLogSize) {
+        this.changeLogSize = changeLogSize;
+    }
+
+    public long currentVersion(Long eventId) {
+        EventVersion eventVersion = versions.get(eventId);
+        return eventVersion == null ? initialVersion : eventVersion.version();
+    }
+
+    public String etag(Long eventId, long version) {
+        return "\"" + eventId + "-" + version + "\"";
+    }
+
+    /**
+     * ETag of another representation of the same seat-map version
+     */
+    public String etag(Long eventId, long version, String variant) {
+        return "\"" + eventId + "-" + version + "-" + variant + "\"";
+    }
+
+    /**
+     * Seats changed after the given version, latest status per seat, or null
+     * if that version is no longer covered by the change log
+     */
+    public List<SeatState> changesSince(Long eventId, long sinceVersion) {
+        EventVersion eventVersion = versions.get(eventId);
+        if (eventVersion == null) {
+            return sinceVersion == initialVersion ? List.of() : null;
+        }
+        return eventVersion.changesSince(sinceVersion);
+    }
+
+    /**
+     * Runs before other listeners, so anything reacting to a change already
+     * sees the version that includes it
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onSeatStatusChanged(SeatStatusChangedEvent event) {
+        versionOf(event.eventId()).record(event.seats());
+    }
+
+    /**
+     * Seat IDs change on re-initialization, so older versions can only be
+     * answered with a full snapshot
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsInitialized(SeatsInitializedEvent event) {
+        versionOf(event.eventId()).reset();
+    }
+
+    private EventVersion versionOf(Long eventId) {
+        return versions.computeIfAbsent(eventId, id -> new EventVersion(initialVersion, changeLogSize));
+    }
+
+    private record Change(long version, List<SeatState> seats) {
+    }
+
+    private static final class EventVersion {
+
+        private final int capacity;
+        private final Deque<Change> log = new ArrayDeque<>();
+        private long version;
+        // Oldest version the log can answer from
+        private long floor;
+
+        private EventVersion(long initialVersion, int capacity) {
+            this.capacity = capacity;
+            this.version = initialVersion;
+            this.floor = initialVersion;
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized void record(List<SeatState> seats) {
+            version++;
+            if (log.size() == capacity) {
+                floor = log.removeFirst().version();
+            }
+            log.addLast(new Change(version, seats));
+        }
+
+        synchronized void reset() {
+            version++;
+            log.clear();
+            floor = version;
+        }
+
+        synchronized List<SeatState> changesSince(long sinceVersion) {
+            if (sinceVersion < floor || sinceVersion > version) {
+                return null;
+            }
+            // Newest first, so the first status seen for a seat is its latest
+            Map<Long, SeatState> changed = new LinkedHashMap<>();
+            Iterator<Change> changes = log.descendingIterator();
+            while (changes.hasNext()) {
+                Change change = changes.next();
+                if (change.version() <= sinceVersion) {
+                    break;
+                }
+                change.seats().forEach(seat -> changed.putIfAbsent(seat.getId(), seat));
+            }
+            return new ArrayList<>(changed.values());
+        }
+    }
+}
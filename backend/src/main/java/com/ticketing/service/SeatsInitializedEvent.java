@@ -0,0 +1,7 @@
+package com.ticketing.service;
+
+/**
+ * Published when an event's seats have been created or cleared and recreated
+ */
+public record SeatsInitializedEvent(Long eventId, int numberOfSeats) {
+}
@@ -0,0 +1,67 @@
+package com.ticketing.service;
+
+import com.ticketing.model.EventCounter;
+import com.ticketing.repository.EventCounterRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seats left in each price tier of each event.
+ *
+ * Refreshed on a schedule from the event counters with one query, instead of
+ * per gauge on every scrape. In inventory mode the counters trail the seats
+ * claimed in memory by the write-behind delay.
+ */
+@Component
+@Slf4j
+public class SeatsRemainingMetrics {
+
+    private final EventCounterRepository eventCounterRepository;
+    private final PricingService pricingService;
+    private final MultiGauge seatsRemaining;
+
+    public SeatsRemainingMetrics(EventCounterRepository eventCounterRepository, PricingService pricingService,
+            MeterRegistry registry) {
+        this.eventCounterRepository = eventCounterRepository;
+        this.pricingService = pricingService;
+        this.seatsRemaining = MultiGauge.builder("ticketing.seats.remaining")
+                .description("Unsold seats in a price tier of an event")
+                .baseUnit("seats")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${ticketing.metrics.seats-remaining.refresh-millis:10000}")
+    public void refresh() {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        for (EventCounter counter : eventCounterRepository.findAll()) {
+            int[] limits;
+            try {
+                limits = pricingService.tierLimits(counter.getId());
+            } catch (RuntimeException e) {
+                log.debug("No pricing for event {} yet: {}", counter.getId(), e.getMessage());
+                continue;
+            }
+            // Seats left are sold at the next positions, so they fill the tiers
+            // from the allocator onwards; released seats run past the last limit
+            int sold = counter.getSoldSeats();
+            int capacity = limits[limits.length - 1];
+            int available = Math.max(0, capacity - (sold - counter.getReleasedSeats()));
+            int tierStart = 0;
+            for (int tier = 0; tier < limits.length; tier++) {
+                int tierEnd = tier == limits.length - 1 ? Integer.MAX_VALUE : limits[tier];
+                int remaining = Math.max(0, Math.min(tierEnd, sold + available) - Math.max(sold, tierStart));
+                rows.add(MultiGauge.Row.of(
+                        Tags.of("event", counter.getId().toString(), "tier", String.valueOf(tier + 1)), remaining));
+                tierStart = limits[tier];
+            }
+        }
+        seatsRemaining.register(rows, true);
+    }
+}
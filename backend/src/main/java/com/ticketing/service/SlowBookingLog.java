@@ -0,0 +1,74 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.SlowBooking;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Supplier;
+
+/**
+ * The slowest booking attempts since startup or the last reset, at most
+ * ticketing.booking.slow-log.size of them.
+ *
+ * Once full, an attempt no slower than the fastest one kept is turned away
+ * with one volatile read, so only the rare slow attempt takes the lock and
+ * builds its entry.
+ */
+@Component
+public class SlowBookingLog {
+
+    private record Entry(long nanos, SlowBooking booking) {
+    }
+
+    private final int size;
+    private final PriorityQueue<Entry> slowest = new PriorityQueue<>(Comparator.comparingLong(Entry::nanos));
+    private volatile long admitAboveNanos;
+
+    public SlowBookingLog(@Value("${ticketing.booking.slow-log.size:50}") int size) {
+        this.size = size;
+    }
+
+    /**
+     * Keep the attempt if it is among the slowest so far; the entry is only
+     * built when it is
+     */
+    void offer(long nanos, Supplier<SlowBooking> booking) {
+        if (size <= 0 || nanos <= admitAboveNanos) {
+            return;
+        }
+        synchronized (slowest) {
+            if (slowest.size() == size && nanos <= slowest.peek().nanos()) {
+                return;
+            }
+            slowest.add(new Entry(nanos, booking.get()));
+            if (slowest.size() > size) {
+                slowest.poll();
+            }
+            if (slowest.size() == size) {
+                admitAboveNanos = slowest.peek().nanos();
+            }
+        }
+    }
+
+    /**
+     * The kept attempts, slowest first
+     */
+    public List<SlowBooking> slowest() {
+        synchronized (slowest) {
+            return slowest.stream()
+                    .sorted(Comparator.comparingLong(Entry::nanos).reversed())
+                    .map(Entry::booking)
+                    .toList();
+        }
+    }
+
+    public void clear() {
+        synchronized (slowest) {
+            slowest.clear();
+            admitAboveNanos = 0;
+        }
+    }
+}
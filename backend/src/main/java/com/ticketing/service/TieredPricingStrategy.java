@@ -0,0 +1,64 @@
+package com.ticketing.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed prices by position band, e.g. the first 50 seats sold at $50, the next
+ * 30 at $75 and the rest at $100
+ */
+public final class TieredPricingStrategy implements PricingStrategy {
+
+    private final int[] upTo;
+    private final long[] cents;
+
+    public TieredPricingStrategy(int[] upTo, long[] cents) {
+        if (upTo.length != cents.length || upTo.length == 0) {
+            throw new IllegalArgumentException("Every tier needs an upper position and a price");
+        }
+        this.upTo = upTo.clone();
+        this.cents = cents.clone();
+    }
+
+    /**
+     * Parse "upToPosition:price" entries; "*" as the position covers all the
+     * remaining seats
+     */
+    public static TieredPricingStrategy parse(List<String> tiers) {
+        int[] upTo = new int[tiers.size()];
+        long[] cents = new long[tiers.size()];
+        for (int i = 0; i < tiers.size(); i++) {
+            String[] parts = tiers.get(i).trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid price tier '" + tiers.get(i) + "', expected upTo:price");
+            }
+            upTo[i] = "*".equals(parts[0].trim()) ? Integer.MAX_VALUE : Integer.parseInt(parts[0].trim());
+            cents[i] = new BigDecimal(parts[1].trim()).movePointRight(2).longValueExact();
+            if (i > 0 && upTo[i] <= upTo[i - 1]) {
+                throw new IllegalArgumentException("Price tiers must be in increasing position order");
+            }
+        }
+        return new TieredPricingStrategy(upTo, cents);
+    }
+
+    @Override
+    public long priceCents(int position, int capacity) {
+        int tier = Arrays.binarySearch(upTo, position);
+        if (tier < 0) {
+            tier = -tier - 1;
+        }
+        return cents[Math.min(tier, cents.length - 1)];
+    }
+
+    @Override
+    public int[] tierLimits(int capacity) {
+        int tiers = 0;
+        while (tiers < upTo.length && upTo[tiers] < capacity) {
+            tiers++;
+        }
+        int[] limits = Arrays.copyOf(upTo, tiers + 1);
+        limits[tiers] = capacity;
+        return limits;
+    }
+}
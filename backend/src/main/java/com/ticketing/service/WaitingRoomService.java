@@ -0,0 +1,205 @@
+package com.ticketing.service;
+
+import com.ticketing.dto.QueueStatus;
+import com.ticketing.exception.AdmissionDeniedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Virtual waiting room in front of the booking endpoints.
+ *
+ * Each event admits requests at a fixed rate with a small burst. Requests over
+ * the rate are turned away at once with a queue ticket instead of waiting on
+ * row locks; the ticket is admitted in order as capacity frees up and is then
+ * sent back with the booking, for up to requests-per-ticket requests.
+ * Everything is in memory, so checking a ticket costs no database access.
+ */
+@Service
+@Slf4j
+public class WaitingRoomService {
+
+    private static final String HMAC = "HmacSHA256";
+    private static final String QUEUE_FULL = "The queue is full, please try again later";
+
+    private final boolean enabled;
+    private final double admissionRate;
+    private final int burst;
+    private final long maxQueueSize;
+    private final long ticketTtlSeconds;
+    private final int requestsPerTicket;
+    private final SecretKeySpec tokenKey;
+
+    private final Map<Long, AdmissionGate> gates = new ConcurrentHashMap<>();
+    private final AtomicLong gateGenerations = new AtomicLong();
+
+    public WaitingRoomService(
+            @Value("${ticketing.waiting-room.enabled:true}") boolean enabled,
+            @Value("${ticketing.waiting-room.admission-rate:50}") double admissionRate,
+            @Value("${ticketing.waiting-room.burst:100}") int burst,
+            @Value("${ticketing.waiting-room.max-queue-size:100000}") long maxQueueSize,
+            @Value("${ticketing.waiting-room.ticket-ttl-seconds:300}") long ticketTtlSeconds,
+            @Value("${ticketing.waiting-room.requests-per-ticket:3}") int requestsPerTicket) {
+        this.enabled = enabled;
+        this.admissionRate = admissionRate;
+        this.burst = burst;
+        this.maxQueueSize = maxQueueSize;
+        this.ticketTtlSeconds = ticketTtlSeconds;
+        this.requestsPerTicket = requestsPerTicket;
+        // Tokens are only valid for this process; after a restart the queue starts over
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.tokenKey = new SecretKeySpec(key, HMAC);
+    }
+
+    /**
+     * Let a booking request through, or reject it with a place in the queue
+     */
+    public void admit(Long eventId, String token) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        AdmissionGate gate = gateFor(eventId);
+
+        long ticket = parse(eventId, gate, token);
+        if (ticket > 0 && gate.isIssued(ticket)) {
+            if (gate.tryUse(ticket, now)) {
+                return;
+            }
+            if (gate.position(ticket, now) > 0) {
+                throw new AdmissionDeniedException("Still waiting in the queue", status(eventId, gate, ticket, token, now));
+            }
+            // Used up or admitted too long ago; fall through and take a new place
+        }
+
+        if (gate.tryEnter(now)) {
+            return;
+        }
+        QueueStatus status = enqueue(eventId, gate, now);
+        throw new AdmissionDeniedException(status.getToken() != null
+                ? "Too many booking requests, you have been placed in the queue"
+                : QUEUE_FULL, status);
+    }
+
+    /**
+     * Take a place in an event's queue
+     */
+    public QueueStatus join(Long eventId) {
+        long now = System.nanoTime();
+        QueueStatus status = enqueue(eventId, gateFor(eventId), now);
+        if (status.getToken() == null) {
+            throw new AdmissionDeniedException(QUEUE_FULL, status);
+        }
+        return status;
+    }
+
+    /**
+     * Current position of a queue token
+     */
+    public QueueStatus status(String token) {
+        Long eventId = eventIdOf(token);
+        AdmissionGate gate = eventId == null ? null : gates.get(eventId);
+        long ticket = gate == null ? -1 : parse(eventId, gate, token);
+        if (gate == null || ticket <= 0 || !gate.isIssued(ticket)) {
+            throw new IllegalArgumentException("Invalid or expired queue token");
+        }
+        return status(eventId, gate, ticket, token, System.nanoTime());
+    }
+
+    /**
+     * Drop gates of events that have no queue and a full bucket. Tokens of a
+     * dropped gate stop working, since its generation is signed into them.
+     */
+    @Scheduled(fixedDelayString = "${ticketing.waiting-room.cleanup-millis:60000}")
+    public void removeIdleGates() {
+        long now = System.nanoTime();
+        gates.values().removeIf(gate -> gate.isIdle(now));
+    }
+
+    private AdmissionGate gateFor(Long eventId) {
+        return gates.computeIfAbsent(eventId, id ->
+                new AdmissionGate(gateGenerations.incrementAndGet(), admissionRate, burst, maxQueueSize,
+                        ticketTtlSeconds, requestsPerTicket, System.nanoTime()));
+    }
+
+    private QueueStatus enqueue(Long eventId, AdmissionGate gate, long now) {
+        long ticket = gate.issue(now);
+        if (ticket < 0) {
+            return new QueueStatus(eventId, null, maxQueueSize, false, gate.secondsToAdmit(maxQueueSize));
+        }
+        return status(eventId, gate, ticket, sign(eventId, gate, ticket), now);
+    }
+
+    private QueueStatus status(Long eventId, AdmissionGate gate, long ticket, String token, long now) {
+        long position = gate.position(ticket, now);
+        return new QueueStatus(eventId, token, position, position == 0, gate.secondsToAdmit(position));
+    }
+
+    private String sign(Long eventId, AdmissionGate gate, long ticket) {
+        String payload = eventId + "." + gate.generation() + "." + ticket;
+        return payload + "." + mac(payload);
+    }
+
+    /**
+     * Ticket number of a token for the given event and gate, or -1 if it is
+     * missing, malformed, forged, for another event or for an earlier gate
+     */
+    private long parse(Long eventId, AdmissionGate gate, String token) {
+        if (token == null) {
+            return -1;
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 4 || !parts[0].equals(String.valueOf(eventId))
+                || !parts[1].equals(String.valueOf(gate.generation()))) {
+            return -1;
+        }
+        String payload = parts[0] + "." + parts[1] + "." + parts[2];
+        if (!MessageDigest.isEqual(mac(payload).getBytes(StandardCharsets.US_ASCII),
+                parts[3].getBytes(StandardCharsets.US_ASCII))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Long eventIdOf(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        try {
+            return dot > 0 ? Long.valueOf(token.substring(0, dot)) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String mac(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(tokenKey);
+            byte[] digest = mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            // 128 bits are plenty for a token that only lives as long as the process
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign queue token", e);
+        }
+    }
+}
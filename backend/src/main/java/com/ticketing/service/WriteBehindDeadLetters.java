@@ -0,0 +1,154 @@
+package com.ticketing.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind batches that could not be written to the database, kept on
+ * disk until they are.
+ *
+ * Each file holds one batch, one booking per line. It is written under a
+ * temporary name, forced to disk and then renamed, so every file found in the
+ * directory is complete. Names sort in the order the batches were stored.
+ * Bookings made before their event was re-initialized are moved to files
+ * with the superseded- prefix, which are kept but never replayed.
+ */
+final class WriteBehindDeadLetters {
+
+    private static final String PREFIX = "write-behind-";
+    private static final String SUFFIX = ".ndjson";
+    private static final String SUPERSEDED_PREFIX = "superseded-";
+
+    private final Path dir;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final AtomicLong sequence = new AtomicLong();
+
+    WriteBehindDeadLetters(Path dir, ObjectMapper objectMapper) {
+        this.dir = dir;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.reader = objectMapper.readerFor(PendingBooking.class);
+    }
+
+    Path dir() {
+        return dir;
+    }
+
+    /**
+     * Store a batch durably
+     */
+    void store(List<PendingBooking> batch) throws IOException {
+        Files.createDirectories(dir);
+        write(dir.resolve(String.format("%s%013d-%06d%s",
+                PREFIX, System.currentTimeMillis(), sequence.incrementAndGet(), SUFFIX)), batch);
+    }
+
+    /**
+     * Move an event's bookings out of the stored batches; returns how many
+     */
+    int supersede(Long eventId) throws IOException {
+        int moved = 0;
+        for (Path file : files()) {
+            List<PendingBooking> batch = read(file);
+            List<PendingBooking> superseded = batch.stream()
+                    .filter(booking -> eventId.equals(booking.eventId()))
+                    .toList();
+            if (superseded.isEmpty()) {
+                continue;
+            }
+            write(file.resolveSibling(SUPERSEDED_PREFIX + file.getFileName()), superseded);
+            List<PendingBooking> remaining = batch.stream()
+                    .filter(booking -> !eventId.equals(booking.eventId()))
+                    .toList();
+            if (remaining.isEmpty()) {
+                delete(file);
+            } else {
+                write(file, remaining);
+            }
+            moved += superseded.size();
+        }
+        return moved;
+    }
+
+    boolean contains(Long eventId) throws IOException {
+        for (Path file : files()) {
+            for (PendingBooking booking : read(file)) {
+                if (eventId.equals(booking.eventId())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write a file under a temporary name and rename it, replacing any file
+     * of the same name
+     */
+    private void write(Path file, List<PendingBooking> batch) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (PendingBooking booking : batch) {
+                ByteBuffer line = ByteBuffer.wrap((writer.writeValueAsString(booking) + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                while (line.hasRemaining()) {
+                    channel.write(line);
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Stored batches, oldest first
+     */
+    List<Path> files() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    boolean isEmpty() throws IOException {
+        return files().isEmpty();
+    }
+
+    List<PendingBooking> read(Path file) throws IOException {
+        List<PendingBooking> batch = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                batch.add(reader.readValue(line));
+            }
+        }
+        return batch;
+    }
+
+    void delete(Path file) throws IOException {
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,129 @@
+package com.ticketing.service;
+
+import com.ticketing.model.SeatStatus;
+import org.junit.jupiter.api.RepeatedTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires thousands of overlapping claims at a small venue, claiming and
+ * allocating the same way {@link InventoryBookingService} does
+ */
+class SeatInventoryConcurrencyTest {
+
+    private static final int CAPACITY = 200;
+    private static final int RANDOM_CLAIMS = 5_000;
+    private static final int THREADS = 32;
+
+    private record Claim(int[] indexes, BookingSlot slot) {
+    }
+
+    @RepeatedTest(5)
+    void neverSellsASeatTwiceAndSellsOutExactly() throws Exception {
+        long[] seatIds = new long[CAPACITY];
+        for (int i = 0; i < CAPACITY; i++) {
+            seatIds[i] = 1_000 + i;
+        }
+        SeatInventory inventory = new SeatInventory(seatIds, new byte[CAPACITY], 0, 0);
+
+        // Random groups of 1-4 seats, plus one single-seat claim per seat so
+        // that every seat is requested by someone and the venue sells out.
+        // A claim can lose to a competing claim that is later rolled back, so
+        // like a real client a request is retried while none of its seats has
+        // been sold.
+        List<List<Long>> requests = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < RANDOM_CLAIMS; i++) {
+            List<Long> seats = new ArrayList<>();
+            int size = random.nextInt(1, 5);
+            while (seats.size() < size) {
+                long seatId = seatIds[random.nextInt(CAPACITY)];
+                if (!seats.contains(seatId)) {
+                    seats.add(seatId);
+                }
+            }
+            requests.add(seats);
+        }
+        for (long seatId : seatIds) {
+            requests.add(List.of(seatId));
+        }
+        Collections.shuffle(requests);
+
+        AtomicIntegerArray owners = new AtomicIntegerArray(CAPACITY);
+        Queue<Claim> claims = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int r = 0; r < requests.size(); r++) {
+                int requestId = r + 1;
+                List<Long> seats = requests.get(r);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int[] indexes = inventory.indexesOf(seats);
+                    while (unsold(owners, indexes)) {
+                        if (inventory.claim(indexes, SeatStatus.AVAILABLE, SeatStatus.BOOKED) < 0) {
+                            claims.add(new Claim(indexes, inventory.allocate(indexes.length)));
+                            for (int index : indexes) {
+                                assertThat(owners.compareAndSet(index, 0, requestId))
+                                        .as("seat %d sold twice", seatIds[index])
+                                        .isTrue();
+                            }
+                            break;
+                        }
+                        Thread.onSpinWait();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int sold = claims.stream().mapToInt(claim -> claim.indexes().length).sum();
+        assertThat(sold).isEqualTo(CAPACITY);
+        assertThat(inventory.soldSeats()).isEqualTo(CAPACITY);
+        assertThat(inventory.lastBookingOrder()).isEqualTo(claims.size());
+        for (int index = 0; index < CAPACITY; index++) {
+            assertThat(inventory.status(index)).isEqualTo(SeatStatus.BOOKED);
+            assertThat(owners.get(index)).isNotZero();
+        }
+
+        // Positions are handed out in booking order without gaps or overlaps
+        List<Claim> byOrder = new ArrayList<>(claims);
+        byOrder.sort((a, b) -> Integer.compare(a.slot().bookingOrder(), b.slot().bookingOrder()));
+        int expectedSoldBefore = 0;
+        for (int i = 0; i < byOrder.size(); i++) {
+            Claim claim = byOrder.get(i);
+            assertThat(claim.slot().bookingOrder()).isEqualTo(i + 1);
+            assertThat(claim.slot().soldBefore()).isEqualTo(expectedSoldBefore);
+            expectedSoldBefore += claim.indexes().length;
+        }
+    }
+
+    private static boolean unsold(AtomicIntegerArray owners, int[] indexes) {
+        for (int index : indexes) {
+            if (owners.get(index) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ticketing.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeatInventoryTest {
+
+    private final SeatInventory inventory = new SeatInventory(new long[] {1, 2, 3, 4}, new byte[4], 0, 0);
+
+    @Test
+    void rolledBackSlotIsGivenBackWhileItIsTheLatest() {
+        BookingSlot first = inventory.allocate(2);
+        BookingSlot second = inventory.allocate(1);
+
+        assertThat(inventory.release(first, 2)).isFalse();
+        assertThat(inventory.release(second, 1)).isTrue();
+        assertThat(inventory.soldSeats()).isEqualTo(2);
+        assertThat(inventory.lastBookingOrder()).isEqualTo(1);
+
+        assertThat(inventory.allocate(1)).isEqualTo(new BookingSlot(2, 2));
+    }
+
+    @Test
+    void fencedInventoryRefusesAllocationsUntilUnfenced() {
+        inventory.allocate(1);
+        inventory.fence();
+
+        assertThat(inventory.allocate(1)).isNull();
+        assertThat(inventory.lastBookingOrder()).isEqualTo(1);
+
+        inventory.unfence();
+        assertThat(inventory.allocate(1)).isEqualTo(new BookingSlot(1, 2));
+    }
+}
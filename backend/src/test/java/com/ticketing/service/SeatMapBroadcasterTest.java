@@ -0,0 +1,136 @@
+package com.ticketing.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.dto.SeatState;
+import com.ticketing.model.SeatStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SeatMapBroadcasterTest {
+
+    private static final long EVENT_ID = 1L;
+
+    private final InventoryBookingService inventory = mock(InventoryBookingService.class);
+    private SeatMapBroadcaster broadcaster;
+
+    /**
+     * Records what would be written to the socket, optionally blocking the
+     * first send like a client that stopped reading
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        final List<String> frames = new CopyOnWriteArrayList<>();
+        private final CountDownLatch stall;
+
+        RecordingEmitter(CountDownLatch stall) {
+            this.stall = stall;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (stall != null) {
+                try {
+                    stall.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            frames.add(builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .map(Object::toString)
+                    .collect(Collectors.joining()));
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new SeatMapBroadcaster(mock(SeatMapCache.class), Optional.of(inventory), new ObjectMapper(),
+                4, 256);
+        ReflectionTestUtils.setField(broadcaster, "bufferSize", 64);
+        ReflectionTestUtils.setField(broadcaster, "timeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(broadcaster, "sendTimeoutMillis", 200L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void changeCommittedWhileSubscribingIsDelivered() throws Exception {
+        List<SeatState> before = List.of(new SeatState(10L, 1, SeatStatus.AVAILABLE));
+        SeatState booked = new SeatState(10L, 1, SeatStatus.BOOKED);
+        // The change commits after the subscriber registered but before the
+        // snapshot it gets was read
+        when(inventory.snapshot(anyLong())).thenAnswer(invocation -> {
+            broadcaster.onSeatStatusChanged(new SeatStatusChangedEvent(EVENT_ID, List.of(booked)));
+            return before;
+        });
+
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        broadcaster.subscribe(EVENT_ID, emitter);
+        broadcaster.flush();
+
+        await(() -> emitter.frames.size() == 2);
+        assertThat(emitter.frames.get(0)).contains("event:snapshot").contains("AVAILABLE");
+        assertThat(emitter.frames.get(1)).contains("event:delta").contains("BOOKED");
+    }
+
+    @Test
+    void tenThousandSubscribersAreNotHeldUpBySlowOnes() throws Exception {
+        when(inventory.snapshot(anyLong())).thenReturn(List.of(new SeatState(10L, 1, SeatStatus.AVAILABLE)));
+        CountDownLatch stall = new CountDownLatch(1);
+        try {
+            // More stalled clients than sender threads, connected first
+            for (int i = 0; i < 20; i++) {
+                broadcaster.subscribe(EVENT_ID, new RecordingEmitter(stall));
+            }
+            List<RecordingEmitter> fast = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                RecordingEmitter emitter = new RecordingEmitter(null);
+                fast.add(emitter);
+                broadcaster.subscribe(EVENT_ID, emitter);
+            }
+            await(() -> fast.stream().allMatch(emitter -> emitter.frames.size() == 1));
+
+            broadcaster.onSeatStatusChanged(new SeatStatusChangedEvent(EVENT_ID,
+                    List.of(new SeatState(10L, 1, SeatStatus.BOOKED))));
+            broadcaster.flush();
+            await(() -> fast.stream().allMatch(emitter -> emitter.frames.size() == 2));
+            assertThat(fast).allSatisfy(emitter -> assertThat(emitter.frames.get(1)).contains("BOOKED"));
+
+            // Stalled clients are disconnected once their send times out
+            Thread.sleep(300);
+            broadcaster.flush();
+            assertThat(broadcaster.subscriberCount(EVENT_ID)).isEqualTo(10_000);
+        } finally {
+            stall.countDown();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("timed out waiting").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
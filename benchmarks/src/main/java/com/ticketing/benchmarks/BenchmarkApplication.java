@@ -0,0 +1,67 @@
+package com.ticketing.benchmarks;
+
+import com.ticketing.EventTicketingApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the backend on an in-memory H2 database in PostgreSQL mode, without a
+ * web server for service-level benchmarks or on a random port for load runs
+ */
+public final class BenchmarkApplication {
+
+    private static final List<String> DEFAULTS = List.of(
+            "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+            "spring.datasource.driver-class-name=org.h2.Driver",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.main.banner-mode=off",
+            "logging.level.root=WARN",
+            "logging.level.com.ticketing=WARN",
+            "logging.level.org.hibernate.SQL=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, "server.port=0", properties);
+    }
+
+    /**
+     * Start with a web server on a free port, read back from local.server.port
+     */
+    public static ConfigurableApplicationContext startServer(String... properties) {
+        return start(WebApplicationType.SERVLET, "server.port=0", properties);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String port, String... properties) {
+        // Later entries win; repeating a key on the command line would join the values
+        Map<String, String> merged = new LinkedHashMap<>();
+        DEFAULTS.forEach(property -> put(merged, property));
+        put(merged, port);
+        List.of(properties).forEach(property -> put(merged, property));
+
+        // Passed as arguments so they override application.properties
+        return new SpringApplicationBuilder(EventTicketingApplication.class)
+                .web(type)
+                .run(merged.entrySet().stream()
+                        .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                        .toArray(String[]::new));
+    }
+
+    private static void put(Map<String, String> properties, String property) {
+        int separator = property.indexOf('=');
+        if (separator < 1) {
+            throw new IllegalArgumentException("Expected key=value but got '" + property + "'");
+        }
+        properties.put(property.substring(0, separator), property.substring(separator + 1));
+    }
+}
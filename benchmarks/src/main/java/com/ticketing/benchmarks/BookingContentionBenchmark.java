@@ -0,0 +1,146 @@
+package com.ticketing.benchmarks;
+
+import com.ticketing.dto.BookingRequest;
+import com.ticketing.dto.BookingResponse;
+import com.ticketing.dto.CreateEventRequest;
+import com.ticketing.exception.SeatsUnavailableException;
+import com.ticketing.model.Seat;
+import com.ticketing.service.EventService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Pessimistic against optimistic booking from eight threads against H2.
+ *
+ * With low contention every attempt books its own pair of seats; with high
+ * contention all threads race for the same pair and only one of them wins it.
+ * The score counts attempts; the confirmed and conflicts counters split them
+ * by outcome. The event is refilled between iterations once half sold, and
+ * inside an iteration only if it sells out.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 8, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class BookingContentionBenchmark {
+
+    private static final int VENUE_SIZE = 50_000;
+    private static final int SEATS_PER_BOOKING = 2;
+
+    @Param({"pessimistic", "optimistic"})
+    public String mode;
+
+    @Param({"low", "high"})
+    public String contention;
+
+    private ConfigurableApplicationContext context;
+    private EventService eventService;
+    private Long eventId;
+    private volatile List<Long> seatIds;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final ReadWriteLock refillLock = new ReentrantReadWriteLock();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long confirmed;
+        public long conflicts;
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start("ticketing.booking.mode=" + mode);
+        eventService = context.getBean(EventService.class);
+        eventId = eventService.createEvent(new CreateEventRequest("Contention", VENUE_SIZE)).getId();
+        loadSeats();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void refillWhenHalfSold() {
+        if (cursor.get() > VENUE_SIZE / 2) {
+            refill();
+        }
+    }
+
+    @Benchmark
+    public BookingResponse book(Outcomes outcomes) {
+        refillLock.readLock().lock();
+        try {
+            int position = "low".equals(contention)
+                    ? cursor.getAndAdd(SEATS_PER_BOOKING)
+                    : cursor.get();
+            if (position + SEATS_PER_BOOKING > VENUE_SIZE) {
+                refillLock.readLock().unlock();
+                try {
+                    refillIfSoldOut();
+                } finally {
+                    refillLock.readLock().lock();
+                }
+                return null;
+            }
+            List<Long> selected = seatIds.subList(position, position + SEATS_PER_BOOKING);
+            try {
+                BookingResponse response = eventService.bookSeats(eventId,
+                        new BookingRequest(null, List.copyOf(selected), "benchmark"));
+                // Under high contention the winner moves everyone on to the next pair
+                cursor.compareAndSet(position, position + SEATS_PER_BOOKING);
+                outcomes.confirmed++;
+                return response;
+            } catch (SeatsUnavailableException e) {
+                outcomes.conflicts++;
+                return null;
+            }
+        } finally {
+            refillLock.readLock().unlock();
+        }
+    }
+
+    private void refillIfSoldOut() {
+        refillLock.writeLock().lock();
+        try {
+            if (cursor.get() + SEATS_PER_BOOKING > VENUE_SIZE) {
+                refill();
+            }
+        } finally {
+            refillLock.writeLock().unlock();
+        }
+    }
+
+    private void refill() {
+        eventService.initializeEvent(eventId, VENUE_SIZE);
+        loadSeats();
+    }
+
+    private void loadSeats() {
+        seatIds = eventService.getAllSeats(eventId).stream().map(Seat::getId).toList();
+        cursor.set(0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.ticketing.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ticketing.dto.BookedSeatDetail;
+import com.ticketing.dto.BookingResponse;
+import com.ticketing.model.Booking;
+import com.ticketing.model.BookingSeat;
+import com.ticketing.model.Seat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Building a BookingResponse from a saved booking, as EventService does, and
+ * writing it with the indented output the API is configured with and without
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookingResponseMappingBenchmark {
+
+    @Param({"1", "5"})
+    public int seats;
+
+    private Booking booking;
+    private BookingResponse response;
+    private ObjectWriter indentedWriter;
+    private ObjectWriter compactWriter;
+
+    @Setup
+    public void setUp() {
+        booking = new Booking();
+        booking.setId(42L);
+        booking.setUserName("Benchmark User");
+        booking.setTotalPrice(new BigDecimal("50.00").multiply(BigDecimal.valueOf(seats)));
+        for (int i = 1; i <= seats; i++) {
+            Seat seat = new Seat(1L, i);
+            seat.setId((long) i);
+            BookingSeat bookingSeat = new BookingSeat();
+            bookingSeat.setSeat(seat);
+            bookingSeat.setSeatPrice(new BigDecimal("50.00"));
+            bookingSeat.setSeatOrder(i);
+            booking.addBookingSeat(bookingSeat);
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        indentedWriter = objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT);
+        compactWriter = objectMapper.writer();
+        response = map();
+    }
+
+    @Benchmark
+    public BookingResponse map() {
+        List<BookedSeatDetail> seatDetails = booking.getBookingSeats().stream()
+                .map(bookingSeat -> new BookedSeatDetail(
+                        bookingSeat.getSeat().getId(),
+                        bookingSeat.getSeat().getSeatNumber(),
+                        bookingSeat.getSeatPrice(),
+                        bookingSeat.getSeatOrder()))
+                .collect(Collectors.toList());
+        return new BookingResponse(true, "Booking confirmed for " + booking.getUserName(),
+                booking.getTotalPrice(), seatDetails, booking.getId());
+    }
+
+    @Benchmark
+    public byte[] serializeIndented() throws Exception {
+        return indentedWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeCompact() throws Exception {
+        return compactWriter.writeValueAsBytes(response);
+    }
+}
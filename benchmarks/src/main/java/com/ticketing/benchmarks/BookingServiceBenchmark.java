@@ -0,0 +1,132 @@
+package com.ticketing.benchmarks;
+
+import com.ticketing.dto.BookingRequest;
+import com.ticketing.dto.BookingResponse;
+import com.ticketing.dto.CreateEventRequest;
+import com.ticketing.model.Seat;
+import com.ticketing.service.EventService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventService.bookSeats end to end against H2, per booking mode and venue
+ * size, from a single thread. Seats are booked in order and the event is
+ * re-initialized outside the measurement when it sells out; concurrent load
+ * is the load simulator's job. The Hibernate paths take about 20 seconds to
+ * reach steady state, hence the long warmup. Group commit waits out its
+ * linger time on every booking when there is only one caller.
+ *
+ * pessimistic-count-max is the baseline for the event counter: a pessimistic
+ * booking that also runs the COUNT over seat and MAX over booking that used to
+ * hand out positions, in the same transaction while the locks are held.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 8, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Thread)
+public class BookingServiceBenchmark {
+
+    private static final int SEATS_PER_BOOKING = 2;
+
+    private static final String COUNT_MAX_BASELINE = "pessimistic-count-max";
+
+    @Param({"pessimistic", COUNT_MAX_BASELINE, "optimistic", "inventory", "group-commit"})
+    public String mode;
+
+    @Param({"100", "10000", "100000"})
+    public int venueSize;
+
+    private ConfigurableApplicationContext context;
+    private EventService eventService;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private Long eventId;
+    private List<Long> seatIds;
+    private int booked;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        boolean baseline = COUNT_MAX_BASELINE.equals(mode);
+        context = BenchmarkApplication.start("ticketing.booking.mode=" + (baseline ? "pessimistic" : mode));
+        eventService = context.getBean(EventService.class);
+        if (baseline) {
+            transactionTemplate = context.getBean(TransactionTemplate.class);
+            entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                    context.getBean(EntityManagerFactory.class));
+        }
+        eventId = eventService.createEvent(new CreateEventRequest("Benchmark", venueSize)).getId();
+        loadSeats();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    /**
+     * Runs before every booking but only re-initializes once the event is sold out
+     */
+    @Setup(Level.Invocation)
+    public void refillWhenSoldOut() {
+        if (booked + SEATS_PER_BOOKING > venueSize) {
+            eventService.initializeEvent(eventId, venueSize);
+            loadSeats();
+        }
+    }
+
+    @Benchmark
+    public BookingResponse bookSelectedSeats() {
+        List<Long> selected = new ArrayList<>(seatIds.subList(booked, booked + SEATS_PER_BOOKING));
+        booked += SEATS_PER_BOOKING;
+        return book(new BookingRequest(null, selected, "benchmark"));
+    }
+
+    @Benchmark
+    public BookingResponse bookBestAvailable() {
+        booked += SEATS_PER_BOOKING;
+        return book(new BookingRequest((long) SEATS_PER_BOOKING, null, "benchmark"));
+    }
+
+    private BookingResponse book(BookingRequest request) {
+        if (transactionTemplate == null) {
+            return eventService.bookSeats(eventId, request);
+        }
+        // The pessimistic path joins this transaction, so its seat and counter
+        // locks are still held while the old queries run
+        return transactionTemplate.execute(status -> {
+            BookingResponse response = eventService.bookSeats(eventId, request);
+            entityManager.createQuery("SELECT COUNT(s) FROM Seat s WHERE s.status = 'BOOKED'", Long.class)
+                    .getSingleResult();
+            entityManager.createQuery("SELECT COALESCE(MAX(b.bookingOrder), 0) FROM Booking b", Integer.class)
+                    .getSingleResult();
+            return response;
+        });
+    }
+
+    private void loadSeats() {
+        seatIds = eventService.getAllSeats(eventId).stream().map(Seat::getId).toList();
+        booked = 0;
+    }
+}
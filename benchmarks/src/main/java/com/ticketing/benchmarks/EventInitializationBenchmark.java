@@ -0,0 +1,57 @@
+package com.ticketing.benchmarks;
+
+import com.ticketing.dto.CreateEventRequest;
+import com.ticketing.service.EventService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-initializing an event, which deletes its seats and bulk-inserts new
+ * ones; H2 takes the JDBC batch path, PostgreSQL would use COPY
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Thread)
+public class EventInitializationBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int venueSize;
+
+    private ConfigurableApplicationContext context;
+    private EventService eventService;
+    private Long eventId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start();
+        eventService = context.getBean(EventService.class);
+        eventId = eventService.createEvent(new CreateEventRequest("Benchmark", 1)).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public String initializeEvent() {
+        return eventService.initializeEvent(eventId, venueSize);
+    }
+}
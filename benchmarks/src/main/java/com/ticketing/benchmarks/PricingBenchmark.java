@@ -0,0 +1,110 @@
+package com.ticketing.benchmarks;
+
+import com.ticketing.service.PriceTable;
+import com.ticketing.service.PricingService;
+import com.ticketing.service.TieredPricingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing one booking: the BigDecimal tier loop that used to live in
+ * EventService against the prefix-sum price table
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PricingBenchmark {
+
+    private static final BigDecimal TIER1_PRICE = new BigDecimal("50.00");
+    private static final BigDecimal TIER2_PRICE = new BigDecimal("75.00");
+    private static final BigDecimal TIER3_PRICE = new BigDecimal("100.00");
+
+    @Param({"1", "5"})
+    public int seats;
+
+    @Param({"100", "100000"})
+    public int capacity;
+
+    private PriceTable table;
+    private int soldBefore;
+
+    @Setup
+    public void setUp() {
+        table = PriceTable.of(TieredPricingStrategy.parse(List.of("50:50.00", "80:75.00", "*:100.00")), capacity, 100);
+    }
+
+    @Benchmark
+    public BigDecimal legacyTotal() {
+        int sold = nextSoldBefore();
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (int i = 0; i < seats; i++) {
+            totalPrice = totalPrice.add(legacySeatPrice(sold + i + 1));
+        }
+        return totalPrice;
+    }
+
+    @Benchmark
+    public long tableTotalCents() {
+        return table.totalCents(nextSoldBefore(), seats);
+    }
+
+    /**
+     * Total plus per-seat prices converted for the response, as the booking
+     * paths do
+     */
+    @Benchmark
+    public void tableTotalAndSeatAmounts(Blackhole blackhole) {
+        int sold = nextSoldBefore();
+        blackhole.consume(PricingService.toAmount(table.totalCents(sold, seats)));
+        for (int i = 1; i <= seats; i++) {
+            blackhole.consume(PricingService.toAmount(table.priceCents(sold + i)));
+        }
+    }
+
+    @Benchmark
+    public void legacyTotalAndSeatAmounts(Blackhole blackhole) {
+        int sold = nextSoldBefore();
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (int i = 1; i <= seats; i++) {
+            BigDecimal seatPrice = legacySeatPrice(sold + i);
+            totalPrice = totalPrice.add(seatPrice);
+            blackhole.consume(seatPrice);
+        }
+        blackhole.consume(totalPrice);
+    }
+
+    private int nextSoldBefore() {
+        soldBefore += seats;
+        if (soldBefore + seats > capacity) {
+            soldBefore = 0;
+        }
+        return soldBefore;
+    }
+
+    private static BigDecimal legacySeatPrice(int position) {
+        if (position <= 50) {
+            return TIER1_PRICE;
+        } else if (position <= 80) {
+            return TIER2_PRICE;
+        } else {
+            return TIER3_PRICE;
+        }
+    }
+}
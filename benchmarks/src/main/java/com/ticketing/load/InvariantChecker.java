@@ -0,0 +1,171 @@
+package com.ticketing.load;
+
+import com.ticketing.service.PriceTable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks the database after a run against what clients were told: no seat
+ * sold twice, every price matching the pricing rules for its position, and
+ * booking and seat order without gaps
+ */
+final class InvariantChecker {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PriceTable prices;
+    private final Long eventId;
+    private final List<String> violations = new ArrayList<>();
+
+    InvariantChecker(JdbcTemplate jdbcTemplate, PriceTable prices, Long eventId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.prices = prices;
+        this.eventId = eventId;
+    }
+
+    /**
+     * Run every check; returns the violations found, empty if all hold
+     */
+    List<String> check(int confirmedBookings, Set<Long> confirmedBookingIds, Set<Long> confirmedSeatIds) {
+        checkNoSeatSoldTwice();
+        checkClientsMatchDatabase(confirmedBookings, confirmedBookingIds, confirmedSeatIds);
+        checkSeatStatus();
+        checkPrices();
+        checkOrderIsGapFree();
+        return violations;
+    }
+
+    private void checkNoSeatSoldTwice() {
+        List<Long> oversold = jdbcTemplate.queryForList(
+                "SELECT bs.seat_id FROM booking_seat bs JOIN booking b ON b.id = bs.booking_id "
+                        + "WHERE b.event_id = ? AND b.booking_status = 'CONFIRMED' "
+                        + "GROUP BY bs.seat_id HAVING COUNT(*) > 1",
+                Long.class, eventId);
+        if (!oversold.isEmpty()) {
+            violations.add("Seats sold more than once: " + oversold);
+        }
+    }
+
+    /**
+     * Booking IDs are only compared when responses carry them; bookings
+     * written behind are confirmed before they have an ID
+     */
+    private void checkClientsMatchDatabase(int confirmedBookings, Set<Long> confirmedBookingIds,
+            Set<Long> confirmedSeatIds) {
+        List<Long> bookingIds = jdbcTemplate.queryForList(
+                "SELECT id FROM booking WHERE event_id = ? AND booking_status = 'CONFIRMED'", Long.class, eventId);
+        if (bookingIds.size() != confirmedBookings) {
+            violations.add("Clients were told " + confirmedBookings + " bookings succeeded, the database has "
+                    + bookingIds.size());
+        } else if (!bookingIds.containsAll(confirmedBookingIds)) {
+            violations.add("Some booking IDs returned to clients are not confirmed in the database");
+        }
+        List<Long> seatIds = jdbcTemplate.queryForList(
+                "SELECT bs.seat_id FROM booking_seat bs JOIN booking b ON b.id = bs.booking_id "
+                        + "WHERE b.event_id = ? AND b.booking_status = 'CONFIRMED'",
+                Long.class, eventId);
+        if (seatIds.size() != confirmedSeatIds.size() || !confirmedSeatIds.containsAll(seatIds)) {
+            violations.add("Clients were given " + confirmedSeatIds.size() + " seats, the database booked "
+                    + seatIds.size());
+        }
+    }
+
+    private void checkSeatStatus() {
+        String confirmed = "SELECT 1 FROM booking_seat bs JOIN booking b ON b.id = bs.booking_id "
+                + "WHERE bs.seat_id = s.id AND b.booking_status = 'CONFIRMED'";
+        Integer mismatched = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM seat s WHERE s.event_id = ? AND ("
+                        + "(s.status = 'BOOKED' AND NOT EXISTS (" + confirmed + ")) "
+                        + "OR (s.status <> 'BOOKED' AND EXISTS (" + confirmed + ")))",
+                Integer.class, eventId);
+        if (mismatched != null && mismatched > 0) {
+            violations.add(mismatched + " seats have a status that does not match their bookings");
+        }
+    }
+
+    private void checkPrices() {
+        Map<Long, BigDecimal> bookingTotals = new HashMap<>();
+        Map<Long, Long> seatTotalsCents = new HashMap<>();
+        int[] wrongSeatPrices = {0};
+        jdbcTemplate.query(
+                "SELECT b.id, b.total_price, bs.seat_price, bs.seat_order FROM booking b "
+                        + "JOIN booking_seat bs ON bs.booking_id = b.id "
+                        + "WHERE b.event_id = ? AND b.booking_status = 'CONFIRMED'",
+                row -> {
+                    long bookingId = row.getLong(1);
+                    long seatCents = row.getBigDecimal(3).movePointRight(2).longValueExact();
+                    if (seatCents != prices.priceCents(row.getInt(4))) {
+                        wrongSeatPrices[0]++;
+                    }
+                    bookingTotals.put(bookingId, row.getBigDecimal(2));
+                    seatTotalsCents.merge(bookingId, seatCents, Long::sum);
+                },
+                eventId);
+        if (wrongSeatPrices[0] > 0) {
+            violations.add(wrongSeatPrices[0] + " seats were not priced by the pricing rules for their position");
+        }
+        long wrongTotals = bookingTotals.entrySet().stream()
+                .filter(entry -> entry.getValue().movePointRight(2).longValueExact()
+                        != seatTotalsCents.get(entry.getKey()))
+                .count();
+        if (wrongTotals > 0) {
+            violations.add(wrongTotals + " booking totals differ from the sum of their seat prices");
+        }
+    }
+
+    private void checkOrderIsGapFree() {
+        List<Integer> bookingOrders = jdbcTemplate.queryForList(
+                "SELECT booking_order FROM booking WHERE event_id = ? AND booking_status = 'CONFIRMED' "
+                        + "ORDER BY booking_order",
+                Integer.class, eventId);
+        int firstGap = firstGap(bookingOrders);
+        if (firstGap >= 0) {
+            violations.add("Booking order is not 1.." + bookingOrders.size() + ", first gap at " + (firstGap + 1));
+        }
+
+        List<Integer> seatOrders = jdbcTemplate.queryForList(
+                "SELECT bs.seat_order FROM booking_seat bs JOIN booking b ON b.id = bs.booking_id "
+                        + "WHERE b.event_id = ? AND b.booking_status = 'CONFIRMED' ORDER BY bs.seat_order",
+                Integer.class, eventId);
+        firstGap = firstGap(seatOrders);
+        if (firstGap >= 0) {
+            violations.add("Seat order is not 1.." + seatOrders.size() + ", first gap at " + (firstGap + 1));
+        }
+
+        // Each booking takes a contiguous block of positions
+        Integer split = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT bs.booking_id FROM booking_seat bs JOIN booking b ON b.id = bs.booking_id "
+                        + "WHERE b.event_id = ? AND b.booking_status = 'CONFIRMED' GROUP BY bs.booking_id "
+                        + "HAVING MAX(bs.seat_order) - MIN(bs.seat_order) + 1 <> COUNT(*)) split_bookings",
+                Integer.class, eventId);
+        if (split != null && split > 0) {
+            violations.add(split + " bookings have non-contiguous seat positions");
+        }
+
+        Map<String, Object> counter = jdbcTemplate.queryForMap(
+                "SELECT sold_seats, last_booking_order FROM event_counter WHERE id = ?", eventId);
+        if (((Number) counter.get("sold_seats")).intValue() != seatOrders.size()
+                || ((Number) counter.get("last_booking_order")).intValue() != bookingOrders.size()) {
+            violations.add("Event counter " + counter + " does not match " + bookingOrders.size() + " bookings and "
+                    + seatOrders.size() + " seats");
+        }
+    }
+
+    /**
+     * Index of the first value that is not its 1-based position, or -1
+     */
+    private static int firstGap(List<Integer> sortedOrders) {
+        for (int i = 0; i < sortedOrders.size(); i++) {
+            Integer order = sortedOrders.get(i);
+            if (order == null || order != i + 1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
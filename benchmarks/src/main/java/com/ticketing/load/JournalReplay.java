@@ -0,0 +1,289 @@
+package com.ticketing.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ticketing.model.SeatStatus;
+import com.ticketing.service.BookingJournalReader;
+import com.ticketing.service.JournalRecord;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads a booking journal directory written with ticketing.journal.enabled=true.
+ *
+ * With only --journal it recovers the per-event seat state from the newest
+ * snapshot and the journal tail and prints it with the time recovery took.
+ * With --target it also replays one event's bookings and cancellations
+ * against a running instance, at the recorded pace scaled by --speed (0 for
+ * as fast as possible), for capacity testing. Seats are matched by seat
+ * number, so the target event needs at least as many seats and should be
+ * freshly initialized; holds are not replayed. Keep the segments with
+ * ticketing.journal.keep-segments=true to replay more than the tail. Run with
+ * mvn package exec:exec@replay -Dreplay.args="--journal=../backend/journal --target=http://localhost:8080 --event=1 --speed=2"
+ */
+public final class JournalReplay {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Map<Long, CompletableFuture<Long>> replayedBookings = new ConcurrentHashMap<>();
+    private final LatencyRecorder bookLatencies = new LatencyRecorder();
+    private final LatencyRecorder cancelLatencies = new LatencyRecorder();
+    private final LatencyRecorder scheduleLag = new LatencyRecorder();
+    private final AtomicInteger confirmed = new AtomicInteger();
+    private final AtomicInteger cancelled = new AtomicInteger();
+    private final AtomicInteger conflicts = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    private record Options(Path journal, String target, Long event, Long targetEvent, double speed, int concurrency) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --option=value but got '" + arg + "'");
+                }
+                values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+            for (String key : values.keySet()) {
+                if (!List.of("journal", "target", "event", "target-event", "speed", "concurrency").contains(key)) {
+                    throw new IllegalArgumentException("Unknown option --" + key);
+                }
+            }
+            if (!values.containsKey("journal")) {
+                throw new IllegalArgumentException("--journal=DIR is required");
+            }
+            Long event = values.containsKey("event") ? Long.valueOf(values.get("event")) : null;
+            return new Options(
+                    Path.of(values.get("journal")),
+                    values.get("target"),
+                    event,
+                    values.containsKey("target-event") ? Long.valueOf(values.get("target-event")) : event,
+                    Double.parseDouble(values.getOrDefault("speed", "1")),
+                    Integer.parseInt(values.getOrDefault("concurrency", "32")));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+
+        BookingJournalReader.Recovery recovery = BookingJournalReader.recover(options.journal());
+        System.out.printf("Recovered %d events from %s in %d ms: snapshot at position %d, %d entries replayed up to %d%n",
+                recovery.state().events().size(), options.journal(), recovery.elapsedMillis(),
+                recovery.snapshotPosition(), recovery.replayedRecords(), recovery.position());
+        recovery.state().events().forEach((eventId, event) -> System.out.printf(
+                "  event %-6d seats %-7d booked %-7d reserved %-7d available %-7d sold %-7d last booking order %d%n",
+                eventId, event.size(), event.count(SeatStatus.BOOKED), event.count(SeatStatus.RESERVED),
+                event.count(SeatStatus.AVAILABLE), event.soldSeats(), event.lastBookingOrder()));
+
+        if (options.target() == null) {
+            return;
+        }
+        if (options.event() == null) {
+            throw new IllegalArgumentException("--event=ID selects the journaled event to replay");
+        }
+        List<JournalRecord> entries = new ArrayList<>();
+        BookingJournalReader.read(options.journal(), BookingJournalReader.firstPosition(options.journal()), record -> {
+            if (record.eventId() == options.event() && (record instanceof JournalRecord.BookingConfirmed
+                    || record instanceof JournalRecord.BookingCancelled)) {
+                entries.add(record);
+            }
+        });
+        new JournalReplay().replay(options, entries);
+    }
+
+    private void replay(Options options, List<JournalRecord> entries) throws Exception {
+        String baseUrl = options.target().replaceAll("/+$", "") + "/api";
+        long[] seatIds = seatIdsByNumber(baseUrl + "/events/" + options.targetEvent() + "/seats");
+        System.out.printf("Replaying %d bookings and cancellations of event %d against event %d at %s, speed %s, %d connections%n",
+                entries.size(), options.event(), options.targetEvent(), options.target(),
+                options.speed() == 0 ? "unpaced" : options.speed() + "x", options.concurrency());
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(options.concurrency());
+        List<CompletableFuture<Void>> requests = new ArrayList<>(entries.size());
+        long firstTimestamp = entries.get(0).timestampMillis();
+        long started = System.nanoTime();
+        for (JournalRecord entry : entries) {
+            long due = started + (options.speed() == 0 ? 0
+                    : (long) (TimeUnit.MILLISECONDS.toNanos(entry.timestampMillis() - firstTimestamp) / options.speed()));
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            if (entry instanceof JournalRecord.BookingConfirmed booking) {
+                CompletableFuture<Long> replayed = CompletableFuture.supplyAsync(
+                        () -> book(baseUrl + "/events/" + options.targetEvent() + "/book", booking, seatIds, due), pool);
+                replayedBookings.put(booking.bookingId(), replayed);
+                requests.add(replayed.thenApply(bookingId -> null));
+            } else if (entry instanceof JournalRecord.BookingCancelled cancellation) {
+                CompletableFuture<Long> replayed = replayedBookings.get(cancellation.bookingId());
+                if (replayed == null) {
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                requests.add(replayed.thenAcceptAsync(bookingId -> cancel(baseUrl, bookingId, due), pool));
+            }
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+        pool.shutdown();
+        report(System.nanoTime() - started);
+    }
+
+    /**
+     * Seat IDs of the target event indexed by seat number
+     */
+    private long[] seatIdsByNumber(String url) throws Exception {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + url + " returned " + response.statusCode());
+        }
+        JsonNode seats = objectMapper.readTree(response.body());
+        long[] seatIds = new long[seats.size() + 1];
+        for (JsonNode seat : seats) {
+            int seatNumber = seat.path("seatNumber").asInt();
+            if (seatNumber > 0 && seatNumber < seatIds.length) {
+                seatIds[seatNumber] = seat.path("id").asLong();
+            }
+        }
+        return seatIds;
+    }
+
+    /**
+     * Book the same seats as the journaled booking; returns the target's booking ID, or null
+     */
+    private Long book(String url, JournalRecord.BookingConfirmed booking, long[] seatIds, long due) {
+        behindSchedule(due);
+        ObjectNode body = objectMapper.createObjectNode().put("userName", "replay-" + booking.bookingId());
+        ArrayNode ids = body.putArray("seatIds");
+        for (int seatNumber : booking.seatNumbers()) {
+            if (seatNumber >= seatIds.length || seatIds[seatNumber] == 0) {
+                skipped.incrementAndGet();
+                return null;
+            }
+            ids.add(seatIds[seatNumber]);
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            synchronized (bookLatencies) {
+                bookLatencies.record(System.nanoTime() - start);
+            }
+            if (response.statusCode() == 200) {
+                confirmed.incrementAndGet();
+                return objectMapper.readTree(response.body()).path("bookingId").asLong();
+            }
+            count(response.statusCode());
+        } catch (Exception e) {
+            errors.incrementAndGet();
+        }
+        return null;
+    }
+
+    private void cancel(String baseUrl, Long bookingId, long due) {
+        behindSchedule(due);
+        if (bookingId == null) {
+            skipped.incrementAndGet();
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = client.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/" + bookingId)).DELETE().build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            synchronized (cancelLatencies) {
+                cancelLatencies.record(System.nanoTime() - start);
+            }
+            if (response.statusCode() == 200) {
+                cancelled.incrementAndGet();
+            } else {
+                count(response.statusCode());
+            }
+        } catch (Exception e) {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * How late a request starts against its recorded time
+     */
+    private void behindSchedule(long due) {
+        synchronized (scheduleLag) {
+            scheduleLag.record(Math.max(0, System.nanoTime() - due));
+        }
+    }
+
+    private void count(int statusCode) {
+        switch (statusCode) {
+            case 409 -> conflicts.incrementAndGet();
+            case 429 -> queued.incrementAndGet();
+            default -> errors.incrementAndGet();
+        }
+    }
+
+    private void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        int requests = confirmed.get() + cancelled.get() + conflicts.get() + queued.get() + errors.get();
+        System.out.println();
+        System.out.printf("Duration            %.2f s%n", seconds);
+        System.out.printf("Requests            %d (%.1f/s)%n", requests, requests / seconds);
+        System.out.printf("  confirmed         %d%n", confirmed.get());
+        System.out.printf("  cancelled         %d%n", cancelled.get());
+        System.out.printf("  conflicts (409)   %d%n", conflicts.get());
+        System.out.printf("  queued (429)      %d%n", queued.get());
+        System.out.printf("  errors            %d%n", errors.get());
+        System.out.printf("  skipped           %d (seat unknown on the target or booking not replayed)%n", skipped.get());
+        printLatencies("Book latency ms   ", bookLatencies);
+        printLatencies("Cancel latency ms ", cancelLatencies);
+        printLatencies("Behind schedule ms", scheduleLag);
+        System.out.println();
+    }
+
+    private static void printLatencies(String label, LatencyRecorder recorder) {
+        long[] sorted;
+        synchronized (recorder) {
+            sorted = LatencyRecorder.mergeSorted(List.of(recorder));
+        }
+        StringBuilder line = new StringBuilder(label);
+        for (double percentile : PERCENTILES) {
+            line.append(String.format("  p%s=%.2f", percentile == 100 ? "max" : trim(percentile),
+                    LatencyRecorder.percentileMillis(sorted, percentile)));
+        }
+        System.out.println(line.append("  (n=").append(sorted.length).append(')'));
+    }
+
+    private static String trim(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,479 @@
+package com.ticketing.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ticketing.benchmarks.BenchmarkApplication;
+import com.ticketing.service.InventoryBookingService;
+import com.ticketing.service.PricingService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Replays an on-sale against the application on an in-memory database.
+ *
+ * Simulated buyers refresh the seat map from GET /api/events/{id}/seats, pick
+ * seats and POST /api/events/{id}/book until the events sell out or the time
+ * runs out, honouring the waiting room's Retry-After. Afterwards it reports
+ * throughput, latency percentiles and conflict rate, then checks the database
+ * for overselling, mispricing and gaps in booking order. Exits with 1 if an
+ * invariant fails, so it can gate concurrency changes.
+ *
+ * With --events=1,4,16 it runs one on-sale per event count, the same buyers
+ * spread evenly over that many events of --seats seats each, and ends with
+ * throughput per event count. With --threads=platform,virtual it repeats
+ * everything on a fresh application per thread model, the second with the
+ * virtual-threads profile, and compares them side by side. Run with
+ * mvn package exec:exec@simulate -Dload.args="--seats=2000 --pick=front --ticketing.booking.mode=inventory"
+ */
+public final class OnSaleSimulator {
+
+    private static final String QUEUE_TOKEN_HEADER = "X-Queue-Token";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+
+    private static final String VIRTUAL = "virtual";
+
+    private final SimulationOptions options;
+    private final ConfigurableApplicationContext context;
+    private final String threads;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OnSaleSimulator(SimulationOptions options, ConfigurableApplicationContext context, String threads) {
+        this.options = options;
+        this.context = context;
+        this.threads = threads;
+        this.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        SimulationOptions options = SimulationOptions.parse(args);
+        // Without --threads the application runs as configured
+        List<String> threadModes = options.threadModes().isEmpty() ? List.of("") : options.threadModes();
+        if (threadModes.contains(VIRTUAL) && Runtime.version().feature() < 21) {
+            System.out.println("Java " + Runtime.version().feature() + " has no virtual threads; the virtual run "
+                    + "gets the virtual-threads profile's pool and limiter on platform threads");
+        }
+
+        List<RoundResult> results = new ArrayList<>();
+        for (String threads : threadModes) {
+            List<String> properties = new ArrayList<>();
+            // Every 409 would otherwise be logged as an error
+            properties.add("logging.level.com.ticketing.exception.GlobalExceptionHandler=OFF");
+            if (!threads.isEmpty()) {
+                properties.add(VIRTUAL.equals(threads)
+                        ? "spring.profiles.active=virtual-threads"
+                        : "spring.threads.virtual.enabled=false");
+            }
+            properties.addAll(options.applicationProperties());
+            ConfigurableApplicationContext context = BenchmarkApplication.startServer(properties.toArray(String[]::new));
+            try {
+                results.addAll(new OnSaleSimulator(options, context, threads).run());
+            } finally {
+                context.close();
+            }
+        }
+        if (results.size() > 1) {
+            reportScaling(results, threadModes.size() > 1);
+        }
+        System.exit(results.stream().allMatch(RoundResult::invariantsHeld) ? 0 : 1);
+    }
+
+    private List<RoundResult> run() throws Exception {
+        List<RoundResult> results = new ArrayList<>();
+        for (int events : options.eventCounts()) {
+            results.add(new Round(events).run());
+        }
+        return results;
+    }
+
+    /**
+     * One line per thread model and event count, so contention across events
+     * shows as throughput that does not grow with the number of events
+     */
+    private static void reportScaling(List<RoundResult> results, boolean byThreads) {
+        System.out.println(byThreads ? "Throughput by thread model and event count" : "Throughput by event count");
+        System.out.printf("%10s %8s %10s %12s %14s %12s %12s %12s%n", byThreads ? "threads" : "",
+                "events", "seats", "duration s", "confirmed/s", "seats/s", "book p99 ms", "conflicts %");
+        for (RoundResult result : results) {
+            System.out.printf("%10s %8d %10d %12.2f %14.1f %12.1f %12.2f %12.1f%n", result.threads(),
+                    result.events(), result.seatsSold(), result.seconds(), result.bookings() / result.seconds(),
+                    result.seatsSold() / result.seconds(), result.bookP99Millis(), result.conflictPercent());
+        }
+        System.out.println();
+    }
+
+    private static void printLatencies(String label, long[] sorted) {
+        StringBuilder line = new StringBuilder(label);
+        for (double percentile : PERCENTILES) {
+            line.append(String.format("  p%s=%.2f", percentile == 100 ? "max" : trim(percentile),
+                    LatencyRecorder.percentileMillis(sorted, percentile)));
+        }
+        System.out.println(line.append("  (n=").append(sorted.length).append(')'));
+    }
+
+    private static String trim(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile);
+    }
+
+    private static double percent(int part, int whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.timeout(Duration.ofSeconds(60)).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private record SeatMap(long[] available, String etag) {
+    }
+
+    private record RoundResult(String threads, int events, int seatsSold, double seconds, int bookings,
+            double bookP99Millis, double conflictPercent, boolean invariantsHeld) {
+    }
+
+    /**
+     * An on-sale of a number of fresh events, each with its own seat map and
+     * an even share of the buyers
+     */
+    private final class Round {
+
+        private final int events;
+        private final Long[] eventIds;
+        private final AtomicReferenceArray<SeatMap> seatMaps;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private final Set<Long> confirmedSeatIds = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger seatsGivenTwice = new AtomicInteger();
+
+        private Round(int events) {
+            this.events = events;
+            this.eventIds = new Long[events];
+            this.seatMaps = new AtomicReferenceArray<>(events);
+        }
+
+        RoundResult run() throws Exception {
+            for (int i = 0; i < events; i++) {
+                ObjectNode request = objectMapper.createObjectNode()
+                        .put("name", "On-sale " + (i + 1) + " of " + events)
+                        .put("numberOfSeats", options.seats());
+                HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/events"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request))));
+                eventIds[i] = objectMapper.readTree(response.body()).path("id").asLong();
+                seatMaps.set(i, new SeatMap(new long[0], null));
+            }
+
+            LatencyRecorder seatMapLatencies = new LatencyRecorder();
+            for (int i = 0; i < events; i++) {
+                refreshSeatMap(i, seatMapLatencies);
+            }
+            Thread refresher = new Thread(() -> refreshUntilDone(seatMapLatencies), "seat-map-refresher");
+            refresher.start();
+
+            System.out.printf("%sOn-sale of %d event(s) of %d seats, %d buyers picking %s seats, %d-%d per booking, "
+                            + "think time %d ms, %s%n",
+                    threads.isEmpty() ? "" : "[" + threads + " threads] ", events, options.seats(), options.concurrency(), options.pick().name().toLowerCase(),
+                    options.minSeatsPerBooking(), options.maxSeatsPerBooking(), options.thinkMillis(),
+                    options.applicationProperties());
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+            List<Buyer> buyers = new ArrayList<>(options.concurrency());
+            List<Thread> threads = new ArrayList<>(options.concurrency());
+            long started = System.nanoTime();
+            for (int i = 0; i < options.concurrency(); i++) {
+                Buyer buyer = new Buyer(i, i % events, new SplittableRandom(options.seed() + i), deadline);
+                buyers.add(buyer);
+                Thread thread = new Thread(buyer, "buyer-" + i);
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long elapsedNanos = System.nanoTime() - started;
+            done.set(true);
+            refresher.join();
+
+            // Bookings accepted in memory must reach the database before it is checked
+            InventoryBookingService inventory = context.getBeanProvider(InventoryBookingService.class).getIfAvailable();
+            if (inventory != null) {
+                inventory.awaitWriteBehind(60, TimeUnit.SECONDS);
+            }
+
+            RoundResult result = report(buyers, seatMapLatencies, elapsedNanos);
+            return checkInvariants(buyers) ? result : new RoundResult(result.threads(), result.events(),
+                    result.seatsSold(), result.seconds(), result.bookings(), result.bookP99Millis(),
+                    result.conflictPercent(), false);
+        }
+
+        private boolean checkInvariants(List<Buyer> buyers) {
+            List<String> violations = new ArrayList<>();
+            if (seatsGivenTwice.get() > 0) {
+                violations.add(seatsGivenTwice.get() + " seats were confirmed to more than one buyer");
+            }
+            for (int i = 0; i < events; i++) {
+                int event = i;
+                List<Buyer> eventBuyers = buyers.stream().filter(buyer -> buyer.event == event).toList();
+                InvariantChecker checker = new InvariantChecker(context.getBean(JdbcTemplate.class),
+                        context.getBean(PricingService.class).priceTable(eventIds[i]), eventIds[i]);
+                int confirmedBookings = eventBuyers.stream().mapToInt(buyer -> buyer.bookings).sum();
+                Set<Long> bookingIds = new HashSet<>();
+                Set<Long> seatIds = new HashSet<>();
+                eventBuyers.forEach(buyer -> {
+                    bookingIds.addAll(buyer.bookingIds);
+                    seatIds.addAll(buyer.seatIds);
+                });
+                String prefix = events == 1 ? "" : "Event " + eventIds[i] + ": ";
+                checker.check(confirmedBookings, bookingIds, seatIds)
+                        .forEach(violation -> violations.add(prefix + violation));
+            }
+            if (violations.isEmpty()) {
+                System.out.println("Invariants: OK (no seat sold twice, prices match the rules, booking order gap-free)");
+                System.out.println();
+                return true;
+            }
+            System.out.println("Invariants: FAILED");
+            violations.forEach(violation -> System.out.println("  - " + violation));
+            System.out.println();
+            return false;
+        }
+
+        private RoundResult report(List<Buyer> buyers, LatencyRecorder seatMapLatencies, long elapsedNanos) {
+            int bookings = buyers.stream().mapToInt(buyer -> buyer.bookings).sum();
+            int conflicts = buyers.stream().mapToInt(buyer -> buyer.conflicts).sum();
+            int admissionDenied = buyers.stream().mapToInt(buyer -> buyer.admissionDenied).sum();
+            int unavailable = buyers.stream().mapToInt(buyer -> buyer.unavailable).sum();
+            int errors = buyers.stream().mapToInt(buyer -> buyer.errors).sum();
+            int requests = bookings + conflicts + admissionDenied + unavailable + errors;
+            double seconds = elapsedNanos / 1e9;
+            long[] bookLatencies = LatencyRecorder.mergeSorted(buyers.stream().map(buyer -> buyer.latencies).toList());
+
+            System.out.println();
+            System.out.printf("Duration            %.2f s%n", seconds);
+            System.out.printf("Seats sold          %d of %d%n", confirmedSeatIds.size(), options.seats() * events);
+            System.out.printf("Book requests       %d (%.1f/s)%n", requests, requests / seconds);
+            System.out.printf("  confirmed         %d (%.1f/s)%n", bookings, bookings / seconds);
+            System.out.printf("  conflicts (409)   %d (%.1f%% of requests)%n", conflicts, percent(conflicts, requests));
+            System.out.printf("  queued (429)      %d%n", admissionDenied);
+            System.out.printf("  busy (503)        %d%n", unavailable);
+            System.out.printf("  errors            %d%n", errors);
+            printLatencies("Book latency ms   ", bookLatencies);
+            printLatencies("Seats latency ms  ", LatencyRecorder.mergeSorted(List.of(seatMapLatencies)));
+
+            // 1.0 when every buyer got the same number of bookings
+            double sum = 0;
+            double sumOfSquares = 0;
+            for (Buyer buyer : buyers) {
+                sum += buyer.bookings;
+                sumOfSquares += (double) buyer.bookings * buyer.bookings;
+            }
+            System.out.printf("Fairness (Jain)     %.3f across buyers%n",
+                    sumOfSquares == 0 ? 1.0 : sum * sum / (buyers.size() * sumOfSquares));
+            System.out.println();
+            return new RoundResult(threads, events, confirmedSeatIds.size(), seconds, bookings,
+                    LatencyRecorder.percentileMillis(bookLatencies, 99), percent(conflicts, requests), true);
+        }
+
+        private void refreshUntilDone(LatencyRecorder latencies) {
+            while (!done.get()) {
+                try {
+                    Thread.sleep(options.refreshMillis());
+                    for (int i = 0; i < events; i++) {
+                        refreshSeatMap(i, latencies);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    System.err.println("Seat map refresh failed: " + e);
+                }
+            }
+        }
+
+        /**
+         * Fetch the seat map like a browser would, revalidating with the last ETag
+         */
+        private void refreshSeatMap(int event, LatencyRecorder latencies) throws Exception {
+            SeatMap current = seatMaps.get(event);
+            HttpRequest.Builder request = HttpRequest.newBuilder(
+                    URI.create(baseUrl + "/events/" + eventIds[event] + "/seats")).GET();
+            if (current.etag() != null) {
+                request.header("If-None-Match", current.etag());
+            }
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            latencies.record(System.nanoTime() - start);
+            if (response.statusCode() != 200) {
+                return;
+            }
+            // Ordered by seat number, so index order is front to back
+            List<Long> available = new ArrayList<>();
+            for (JsonNode seat : objectMapper.readTree(response.body())) {
+                if ("AVAILABLE".equals(seat.path("status").asText())) {
+                    available.add(seat.path("id").asLong());
+                }
+            }
+            seatMaps.set(event, new SeatMap(available.stream().mapToLong(Long::longValue).toArray(),
+                    response.headers().firstValue("ETag").orElse(null)));
+        }
+
+        private final class Buyer implements Runnable {
+
+            private final int id;
+            private final int event;
+            private final SplittableRandom random;
+            private final long deadline;
+            private final LatencyRecorder latencies = new LatencyRecorder();
+            private final List<Long> bookingIds = new ArrayList<>();
+            private final List<Long> seatIds = new ArrayList<>();
+            private String queueToken;
+            private int attempt;
+
+            int bookings;
+            int conflicts;
+            int admissionDenied;
+            int unavailable;
+            int errors;
+
+            private Buyer(int id, int event, SplittableRandom random, long deadline) {
+                this.id = id;
+                this.event = event;
+                this.random = random;
+                this.deadline = deadline;
+            }
+
+            @Override
+            public void run() {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        think();
+                        long[] available = seatMaps.get(event).available();
+                        if (available.length == 0) {
+                            return;
+                        }
+                        int count = Math.min(available.length,
+                                random.nextInt(options.minSeatsPerBooking(), options.maxSeatsPerBooking() + 1));
+                        book(pick(available, count), count);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    errors++;
+                    System.err.println("Buyer " + id + " stopped: " + e);
+                }
+            }
+
+            private void think() throws InterruptedException {
+                if (options.thinkMillis() > 0) {
+                    // Exponential think times, as independent buyers arrive
+                    long pause = (long) (-Math.log(1 - random.nextDouble()) * options.thinkMillis());
+                    Thread.sleep(Math.min(pause, options.thinkMillis() * 10));
+                }
+            }
+
+            private long[] pick(long[] available, int count) {
+                return switch (options.pick()) {
+                    case BEST -> null;
+                    case RANDOM -> {
+                        long[] picked = new long[count];
+                        Set<Integer> used = new HashSet<>();
+                        for (int i = 0; i < count; i++) {
+                            int index;
+                            do {
+                                index = random.nextInt(available.length);
+                            } while (!used.add(index));
+                            picked[i] = available[index];
+                        }
+                        yield picked;
+                    }
+                    case FRONT -> {
+                        // Cubing a uniform draw crowds the starts toward the front
+                        int start = (int) (Math.pow(random.nextDouble(), 3) * available.length);
+                        start = Math.min(start, available.length - count);
+                        long[] picked = new long[count];
+                        System.arraycopy(available, start, picked, 0, count);
+                        yield picked;
+                    }
+                };
+            }
+
+            private void book(long[] seatIds, int count) throws Exception {
+                ObjectNode body = objectMapper.createObjectNode().put("userName", "buyer-" + id + "-" + (++attempt));
+                if (seatIds == null) {
+                    body.put("numberOfSeats", count);
+                } else {
+                    body.putArray("seatIds").addAll(Arrays.stream(seatIds)
+                            .mapToObj(objectMapper.getNodeFactory()::numberNode).toList());
+                }
+                HttpRequest.Builder request = HttpRequest.newBuilder(
+                                URI.create(baseUrl + "/events/" + eventIds[event] + "/book"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+                if (queueToken != null) {
+                    request.header(QUEUE_TOKEN_HEADER, queueToken);
+                }
+
+                long start = System.nanoTime();
+                HttpResponse<byte[]> response = send(request);
+                latencies.record(System.nanoTime() - start);
+
+                switch (response.statusCode()) {
+                    case 200 -> confirmed(objectMapper.readTree(response.body()));
+                    case 409 -> conflicts++;
+                    case 429 -> {
+                        admissionDenied++;
+                        JsonNode queue = objectMapper.readTree(response.body()).path("queue");
+                        queueToken = queue.path("token").asText(null);
+                        Thread.sleep(TimeUnit.SECONDS.toMillis(Math.max(1, queue.path("retryAfterSeconds").asLong(1))));
+                    }
+                    case 503 -> {
+                        unavailable++;
+                        Thread.sleep(response.headers().firstValueAsLong("Retry-After").orElse(1) * 1000);
+                    }
+                    default -> {
+                        errors++;
+                        if (errors <= 3) {
+                            System.err.println("Unexpected " + response.statusCode() + ": " + new String(response.body()));
+                        }
+                    }
+                }
+            }
+
+            private void confirmed(JsonNode response) {
+                bookings++;
+                if (response.hasNonNull("bookingId")) {
+                    bookingIds.add(response.get("bookingId").asLong());
+                }
+                for (JsonNode seat : response.path("seats")) {
+                    long seatId = seat.path("seatId").asLong();
+                    seatIds.add(seatId);
+                    if (!confirmedSeatIds.add(seatId)) {
+                        seatsGivenTwice.incrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.ticketing.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command-line options of the on-sale simulator. Options it does not know
+ * that start with --spring. or --ticketing. are passed to the application,
+ * e.g. --ticketing.booking.mode=inventory.
+ */
+record SimulationOptions(
+        List<String> threadModes,
+        List<Integer> eventCounts,
+        int seats,
+        int concurrency,
+        SeatPick pick,
+        int minSeatsPerBooking,
+        int maxSeatsPerBooking,
+        long thinkMillis,
+        long refreshMillis,
+        long durationSeconds,
+        long seed,
+        List<String> applicationProperties) {
+
+    enum SeatPick {
+        // Uniformly random available seats
+        RANDOM,
+        // Contiguous seats, heavily skewed toward the lowest seat numbers
+        FRONT,
+        // Only numberOfSeats, the server chooses
+        BEST
+    }
+
+    static SimulationOptions parse(String[] args) {
+        List<String> threadModes = List.of();
+        List<Integer> eventCounts = List.of(1);
+        int seats = 1000;
+        int concurrency = 64;
+        SeatPick pick = SeatPick.FRONT;
+        int minSeats = 1;
+        int maxSeats = 4;
+        long thinkMillis = 20;
+        long refreshMillis = 250;
+        long durationSeconds = 120;
+        long seed = 42;
+        List<String> properties = new ArrayList<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --option=value but got '" + arg + "'");
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (key) {
+                case "threads" -> threadModes = Arrays.stream(value.split(",")).map(String::trim)
+                        .map(String::toLowerCase).toList();
+                case "events" -> eventCounts = Arrays.stream(value.split(",")).map(String::trim)
+                        .map(Integer::valueOf).toList();
+                case "seats" -> seats = Integer.parseInt(value);
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "pick" -> pick = SeatPick.valueOf(value.toUpperCase());
+                case "seats-per-booking" -> {
+                    String[] range = value.split("-");
+                    minSeats = Integer.parseInt(range[0]);
+                    maxSeats = Integer.parseInt(range[range.length - 1]);
+                }
+                case "think-millis" -> thinkMillis = Long.parseLong(value);
+                case "refresh-millis" -> refreshMillis = Long.parseLong(value);
+                case "duration-seconds" -> durationSeconds = Long.parseLong(value);
+                case "seed" -> seed = Long.parseLong(value);
+                default -> {
+                    if (!key.startsWith("spring.") && !key.startsWith("ticketing.")) {
+                        throw new IllegalArgumentException("Unknown option --" + key);
+                    }
+                    properties.add(key + "=" + value);
+                }
+            }
+        }
+        if (minSeats < 1 || maxSeats < minSeats || maxSeats > 5) {
+            throw new IllegalArgumentException("Seats per booking must be a range within 1-5");
+        }
+        if (threadModes.stream().anyMatch(mode -> !mode.equals("platform") && !mode.equals("virtual"))) {
+            throw new IllegalArgumentException("Thread models must be platform or virtual");
+        }
+        int buyers = concurrency;
+        if (eventCounts.isEmpty() || eventCounts.stream().anyMatch(events -> events < 1 || events > buyers)) {
+            throw new IllegalArgumentException("Event counts must be between 1 and the number of buyers");
+        }
+        return new SimulationOptions(threadModes, eventCounts, seats, concurrency, pick, minSeats, maxSeats, thinkMillis, refreshMillis,
+                durationSeconds, seed, properties);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ticketing.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Best-available picks on a partly sold venue: take a run of seats and give
+ * it back, so the index stays in the same state across invocations
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FreeSeatIndexBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int venueSize;
+
+    @Param({"2", "5"})
+    public int count;
+
+    // Share of seats already sold, scattered at random
+    @Param({"0.5", "0.9"})
+    public double soldShare;
+
+    private FreeSeatIndex index;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        BitSet free = new BitSet(venueSize);
+        for (int position = 0; position < venueSize; position++) {
+            free.set(position, random.nextDouble() >= soldShare);
+        }
+        index = new FreeSeatIndex(free, venueSize);
+    }
+
+    @Benchmark
+    public int takeAndRelease() {
+        int[] positions = index.take(count);
+        if (positions == null) {
+            return -1;
+        }
+        for (int position : positions) {
+            index.setTentative(position, false);
+        }
+        return positions[0];
+    }
+
+    @Benchmark
+    public int flipSeat() {
+        index.setFree(venueSize / 2, false);
+        index.setFree(venueSize / 2, true);
+        return venueSize;
+    }
+}
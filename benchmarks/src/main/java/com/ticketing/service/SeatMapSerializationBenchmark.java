@@ -0,0 +1,102 @@
+package com.ticketing.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ticketing.dto.SeatState;
+import com.ticketing.model.Seat;
+import com.ticketing.model.SeatStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Seat-map payloads at different venue sizes: the JSON entity list served by
+ * GET /api/seats, the slimmer SeatState list used by the stream, and the
+ * packed binary map with and without gzip. Lives in the service package to
+ * reach PackedSeatMap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SeatMapSerializationBenchmark {
+
+    private static final int CHANGES_PER_PATCH = 10;
+
+    @Param({"100", "10000", "100000"})
+    public int venueSize;
+
+    private List<Seat> seats;
+    private List<SeatState> states;
+    private List<SeatState> changes;
+    private byte[] packed;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+        seats = new ArrayList<>(venueSize);
+        for (int number = 1; number <= venueSize; number++) {
+            SeatStatus status = random.nextInt(3) == 0 ? SeatStatus.BOOKED : SeatStatus.AVAILABLE;
+            seats.add(new Seat((long) number, 1L, number, status, now, now, 0L));
+        }
+        states = seats.stream().map(SeatState::of).collect(Collectors.toList());
+        changes = new ArrayList<>(CHANGES_PER_PATCH);
+        for (int i = 0; i < CHANGES_PER_PATCH; i++) {
+            int number = 1 + random.nextInt(venueSize);
+            changes.add(new SeatState((long) number, number, SeatStatus.BOOKED));
+        }
+        packed = PackedSeatMap.encode(1, states);
+
+        // Same output settings as the API
+        writer = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .writer()
+                .with(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @Benchmark
+    public byte[] jsonSeatEntities() throws Exception {
+        return writer.writeValueAsBytes(seats);
+    }
+
+    @Benchmark
+    public byte[] jsonSeatStates() throws Exception {
+        return writer.writeValueAsBytes(states);
+    }
+
+    @Benchmark
+    public byte[] packedEncode() {
+        return PackedSeatMap.encode(1, states);
+    }
+
+    @Benchmark
+    public byte[] packedEncodeGzip() {
+        return PackedSeatMap.gzip(PackedSeatMap.encode(1, states));
+    }
+
+    @Benchmark
+    public byte[] packedPatch() {
+        return PackedSeatMap.patch(packed, 2, changes);
+    }
+}
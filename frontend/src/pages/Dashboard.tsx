@@ -29,10 +29,20 @@ export const Dashboard: React.FC = () => {
     };
 
     useEffect(() => {
-        fetchSeats();
-        // Poll every 5 seconds to keep seat status updated
-        const interval = setInterval(fetchSeats, 5000);
-        return () => clearInterval(interval);
+        // Seat status is pushed by the server instead of polled
+        return eventService.subscribeToSeats(
+            (snapshot) => {
+                setSeats(snapshot);
+                setIsLoading(false);
+            },
+            (changed) => {
+                const changedById = new Map(changed.map((seat) => [seat.id, seat]));
+                setSeats((prev) => prev.map((seat) => {
+                    const update = changedById.get(seat.id);
+                    return update ? { ...seat, status: update.status } : seat;
+                }));
+            }
+        );
     }, []);
 
     const handleSeatClick = (seatId: number) => {
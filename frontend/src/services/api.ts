@@ -1,7 +1,7 @@
 import axios from 'axios';
 
 // Backend is running on port 8080
-const API_BASE_URL = 'http://localhost:8080/api';
+export const API_BASE_URL = 'http://localhost:8080/api';
 
 const api = axios.create({
     baseURL: API_BASE_URL,
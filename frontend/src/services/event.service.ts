@@ -1,5 +1,5 @@
-import api from './api';
-import type { Seat, BookingRequest, BookingResponse } from '../types';
+import api, { API_BASE_URL } from './api';
+import type { Seat, BookingRequest, BookingResponse, SeatMapMessage } from '../types';
 
 export const eventService = {
     // Initialize event with 100 seats
@@ -14,6 +14,19 @@ export const eventService = {
         return response.data;
     },
 
+    // Stream seat map: a full snapshot on connect, then only changed seats.
+    // EventSource reconnects on its own and the server sends a new snapshot.
+    subscribeToSeats: (onSnapshot: (seats: Seat[]) => void, onDelta: (seats: Seat[]) => void) => {
+        const source = new EventSource(`${API_BASE_URL}/seats/stream`);
+        source.addEventListener('snapshot', (event) => {
+            onSnapshot((JSON.parse((event as MessageEvent).data) as SeatMapMessage).seats);
+        });
+        source.addEventListener('delta', (event) => {
+            onDelta((JSON.parse((event as MessageEvent).data) as SeatMapMessage).seats);
+        });
+        return () => source.close();
+    },
+
     // Book seats
     bookSeats: async (bookingRequest: BookingRequest): Promise<BookingResponse> => {
         const response = await api.post<BookingResponse>('/book', bookingRequest);
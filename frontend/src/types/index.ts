@@ -5,6 +5,11 @@ export interface Seat {
     seatPrice?: number; // Optional as it might not be in the initial fetch
 }
 
+export interface SeatMapMessage {
+    eventId: number;
+    seats: Seat[];
+}
+
 export interface BookedSeatDetail {
     seatId: number;
     seatNumber: number;